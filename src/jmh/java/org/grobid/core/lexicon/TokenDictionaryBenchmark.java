@@ -0,0 +1,86 @@
+package org.grobid.core.lexicon;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparison of the look-up of the unit tokens in a HashSet, as before, and in the TokenDictionary,
+ * on a sample of tokens of which half are in the dictionary, exact and case-insensitive.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TokenDictionaryBenchmark {
+
+    private static final int TOKENS = 5000;
+    private static final int QUERIES = 1024;
+
+    private Set<String> hashSet;
+    private TokenDictionary dictionary;
+    private String[] queries;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        hashSet = new HashSet<>();
+        while (hashSet.size() < TOKENS) {
+            hashSet.add(randomToken(random));
+        }
+        dictionary = TokenDictionary.of(hashSet);
+
+        String[] tokens = hashSet.toArray(new String[0]);
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String query = i % 2 == 0 ? tokens[random.nextInt(tokens.length)] : randomToken(random);
+            // the tokens of a text, some with an upper case first letter
+            queries[i] = i % 3 == 0 ? Character.toUpperCase(query.charAt(0)) + query.substring(1) : query;
+        }
+    }
+
+    private static String randomToken(Random random) {
+        char[] chars = new char[1 + random.nextInt(8)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    @Benchmark
+    public void hashSet(Blackhole blackhole) {
+        for (String query : queries) {
+            blackhole.consume(hashSet.contains(query));
+        }
+    }
+
+    @Benchmark
+    public void dictionary(Blackhole blackhole) {
+        for (String query : queries) {
+            blackhole.consume(dictionary.contains(query));
+        }
+    }
+
+    @Benchmark
+    public void hashSetIgnoreCase(Blackhole blackhole) {
+        for (String query : queries) {
+            blackhole.consume(hashSet.contains(query.toLowerCase()));
+        }
+    }
+
+    @Benchmark
+    public void dictionaryIgnoreCase(Blackhole blackhole) {
+        for (String query : queries) {
+            blackhole.consume(dictionary.containsIgnoreCase(query));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.grobid.core.utilities;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import tec.uom.se.unit.MetricPrefix;
+import tec.uom.se.unit.Units;
+
+import javax.measure.UnitConverter;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Comparison of the DECIMAL and DOUBLE numeric modes on the operations of the normalization: the
+ * conversion to the system unit, the powers of ten and of e of the values, and the bounds of the
+ * intervals.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class NumericModeBenchmark {
+
+    @Param({"DECIMAL", "DOUBLE"})
+    public NumericMode mode;
+
+    private UnitConverter kilometre;
+    private UnitConverter celsius;
+
+    private BigDecimal value;
+    private BigDecimal range;
+    private BigDecimal ten;
+
+    @Setup
+    public void setUp() {
+        kilometre = MetricPrefix.KILO(Units.METRE).getConverterTo(Units.METRE);
+        celsius = Units.CELSIUS.getConverterTo(Units.KELVIN);
+        value = new BigDecimal("2.75");
+        range = new BigDecimal("0.25");
+        ten = BigDecimal.TEN;
+    }
+
+    @Benchmark
+    public BigDecimal convertKilometre() {
+        return mode.convert(kilometre, value);
+    }
+
+    @Benchmark
+    public BigDecimal convertCelsius() {
+        return mode.convert(celsius, value);
+    }
+
+    @Benchmark
+    public BigDecimal powerOfTen() {
+        return mode.multiply(value, mode.pow(ten, -7));
+    }
+
+    @Benchmark
+    public BigDecimal exponent() {
+        return mode.multiply(value, mode.exp(-4));
+    }
+
+    @Benchmark
+    public BigDecimal interval() {
+        return mode.add(mode.subtract(value, range), range);
+    }
+}
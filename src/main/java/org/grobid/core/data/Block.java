@@ -15,6 +15,18 @@ public class Block {
         this.value = value;
     }
 
+    /**
+     * Copy constructor.
+     */
+    public Block(Block other) {
+        this.value = other.value;
+        if (other.offsets != null) {
+            this.offsets = new OffsetPosition(other.offsets.start, other.offsets.end);
+        } else {
+            this.offsets = null;
+        }
+    }
+
     public OffsetPosition getOffsets() {
         return offsets;
     }
@@ -6,6 +6,8 @@ import org.grobid.core.layout.BoundingBox;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 import com.fasterxml.jackson.core.io.*;
 
@@ -41,6 +43,37 @@ public class Measurement {
         this.type = type;
     }
 
+    /**
+     * Copy constructor, the quantities and the quantified object are copied as well, a quantity or
+     * a unit shared in the measurement being shared in the copy. The bounding boxes are shared.
+     */
+    public Measurement(Measurement other) {
+        Map<Quantity, Quantity> quantities = new IdentityHashMap<>();
+        Map<Unit, Unit> units = new IdentityHashMap<>();
+        this.type = other.type;
+        this.quantityAtomic = copyOf(other.quantityAtomic, quantities, units);
+        this.quantityLeast = copyOf(other.quantityLeast, quantities, units);
+        this.quantityMost = copyOf(other.quantityMost, quantities, units);
+        this.quantityBase = copyOf(other.quantityBase, quantities, units);
+        this.quantityRange = copyOf(other.quantityRange, quantities, units);
+        if (other.quantityList != null) {
+            this.quantityList = new ArrayList<>();
+            for (Quantity quantity : other.quantityList) {
+                this.quantityList.add(copyOf(quantity, quantities, units));
+            }
+        }
+        if (other.quantifiedObject != null) {
+            this.quantifiedObject = new QuantifiedObject(other.quantifiedObject);
+        }
+        if (other.boundingBoxes != null) {
+            this.boundingBoxes = new ArrayList<>(other.boundingBoxes);
+        }
+    }
+
+    private static Quantity copyOf(Quantity quantity, Map<Quantity, Quantity> quantities, Map<Unit, Unit> units) {
+        return quantity == null ? null : quantities.computeIfAbsent(quantity, q -> new Quantity(q, units));
+    }
+
     public UnitUtilities.Measurement_Type getType() {
         return type;
     }
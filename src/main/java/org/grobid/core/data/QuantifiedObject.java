@@ -33,6 +33,17 @@ public class QuantifiedObject {
         this.normalizedName = normalizedName;
     }
 
+    /**
+     * Copy constructor.
+     */
+    public QuantifiedObject(QuantifiedObject other) {
+        this.rawName = other.rawName;
+        this.normalizedName = other.normalizedName;
+        if (other.offsets != null) {
+            this.offsets = new OffsetPosition(other.offsets.start, other.offsets.end);
+        }
+    }
+
     public String getRawName() {
         return rawName;
     }
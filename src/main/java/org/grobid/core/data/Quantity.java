@@ -8,6 +8,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * Class for managing a quantity representation.
@@ -40,6 +42,31 @@ public class Quantity implements Comparable<Quantity> {
         this.rawUnit = rawUnit;
     }
 
+    /**
+     * Copy constructor, the units, the parsed value and the normalized quantity are copied as well.
+     */
+    public Quantity(Quantity other) {
+        this(other, new IdentityHashMap<>());
+    }
+
+    /**
+     * @param units the copies of the units already made, see {@link Unit#copyOf(Unit, Map)}
+     */
+    Quantity(Quantity other, Map<Unit, Unit> units) {
+        this.rawUnit = Unit.copyOf(other.rawUnit, units);
+        this.parsedUnit = Unit.copyOf(other.parsedUnit, units);
+        this.rawValue = other.rawValue;
+        if (other.parsedValue != null) {
+            this.parsedValue = new Value(other.parsedValue);
+        }
+        if (other.normalizedQuantity != null) {
+            this.normalizedQuantity = new Normalized(other.normalizedQuantity, units);
+        }
+        if (other.offsets != null) {
+            this.offsets = new OffsetPosition(other.offsets.start, other.offsets.end);
+        }
+    }
+
     public UnitUtilities.Unit_Type getType() {
         if (isNormalized()) {
             return getNormalizedQuantity().getType();
@@ -280,6 +307,16 @@ public class Quantity implements Comparable<Quantity> {
 
         private UnitUtilities.Unit_Type type;
 
+        public Normalized() {
+        }
+
+        Normalized(Normalized other, Map<Unit, Unit> units) {
+            this.rawValue = other.rawValue;
+            this.value = other.value;
+            this.unit = Unit.copyOf(other.unit, units);
+            this.type = other.type;
+        }
+
         public String getRawValue() {
             return rawValue;
         }
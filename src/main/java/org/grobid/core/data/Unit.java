@@ -5,6 +5,7 @@ import org.grobid.core.utilities.OffsetPosition;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Class for managing normalized Unit representation.
@@ -31,6 +32,33 @@ public class Unit {
         this.offsets = offsetPosition;
     }
 
+    /**
+     * Copy constructor, the product blocks are copied as well. The definition comes from the
+     * lexicon and is shared.
+     */
+    public Unit(Unit other) {
+        this.rawName = other.rawName;
+        if (other.offsets != null) {
+            this.offsets = new OffsetPosition(other.offsets.start, other.offsets.end);
+        }
+        this.unitDefinition = other.unitDefinition;
+        this.hasRightAttachment = other.hasRightAttachment;
+        if (other.productBlock != null) {
+            this.productBlock = new ArrayList<>();
+            for (UnitBlock block : other.productBlock) {
+                this.productBlock.add(new UnitBlock(block));
+            }
+        }
+    }
+
+    /**
+     * @param copies the copies of the units already made, so that a unit shared by several
+     *               quantities is still shared by their copies
+     */
+    static Unit copyOf(Unit unit, Map<Unit, Unit> copies) {
+        return unit == null ? null : copies.computeIfAbsent(unit, Unit::new);
+    }
+
     public String getRawName() {
         return rawName;
     }
@@ -28,6 +28,16 @@ public class UnitBlock {
 
     }
 
+    /**
+     * Copy constructor.
+     */
+    public UnitBlock(UnitBlock other) {
+        this.prefix = other.prefix;
+        this.base = other.base;
+        this.pow = other.pow;
+        this.rawTaggedValue = other.rawTaggedValue;
+    }
+
 
     public String getPrefix() {
         return prefix;
@@ -21,6 +21,22 @@ public class Value {
     public Value() {
     }
 
+    /**
+     * Copy constructor, the structure is copied as well.
+     */
+    public Value(Value other) {
+        this.rawValue = other.rawValue;
+        if (other.offsets != null) {
+            this.offsets = new OffsetPosition(other.offsets.start, other.offsets.end);
+        } else {
+            this.offsets = null;
+        }
+        if (other.structure != null) {
+            this.structure = new ValueBlock(other.structure);
+        }
+        this.numeric = other.numeric;
+    }
+
     public String getRawValue() {
         return rawValue;
     }
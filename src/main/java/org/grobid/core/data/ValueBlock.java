@@ -42,6 +42,24 @@ public class ValueBlock {
         this.exp = exp;
     }
 
+    /**
+     * Copy constructor, the blocks are copied as well.
+     */
+    public ValueBlock(ValueBlock other) {
+        this.rawValue = other.rawValue;
+        this.rawTaggedValue = other.rawTaggedValue;
+        this.number = copy(other.number);
+        this.base = copy(other.base);
+        this.pow = copy(other.pow);
+        this.exp = copy(other.exp);
+        this.time = copy(other.time);
+        this.alpha = copy(other.alpha);
+    }
+
+    private static Block copy(Block block) {
+        return block == null ? null : new Block(block);
+    }
+
     public Type getType() {
         if (number != null) {
             if (base != null && pow != null) {
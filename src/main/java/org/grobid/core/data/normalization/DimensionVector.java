@@ -0,0 +1,93 @@
+package org.grobid.core.data.normalization;
+
+import java.util.Arrays;
+
+/**
+ * Dimension of a unit as the exponents of the seven SI base dimensions: length (m), mass (kg),
+ * time (s), electric current (A), temperature (K), amount of substance (mol) and luminous
+ * intensity (cd). For example the newton, kg·m/s², is (1, 1, -2, 0, 0, 0, 0).
+ */
+public final class DimensionVector {
+
+    public static final int SIZE = 7;
+
+    // SI base unit and dimension symbol of each component
+    static final String[] BASE_UNITS = {"m", "kg", "s", "A", "K", "mol", "cd"};
+    static final String[] BASE_DIMENSIONS = {"L", "M", "T", "I", "Θ", "N", "J"};
+
+    public static final DimensionVector NONE = new DimensionVector(new int[SIZE]);
+
+    private final int[] exponents;
+
+    private DimensionVector(int[] exponents) {
+        this.exponents = exponents;
+    }
+
+    public static DimensionVector of(int... exponents) {
+        if (exponents.length != SIZE) {
+            throw new IllegalArgumentException("A dimension has " + SIZE + " exponents, not " + exponents.length);
+        }
+        return new DimensionVector(exponents.clone());
+    }
+
+    /**
+     * @return the base dimension of the symbol (e.g. L for the length), or null if the symbol is
+     * not a base dimension
+     */
+    public static DimensionVector base(String dimensionSymbol) {
+        for (int i = 0; i < SIZE; i++) {
+            if (BASE_DIMENSIONS[i].equals(dimensionSymbol)
+                    || (i == 4 && "θ".equals(dimensionSymbol))) {
+                int[] exponents = new int[SIZE];
+                exponents[i] = 1;
+                return new DimensionVector(exponents);
+            }
+        }
+        return null;
+    }
+
+    public int get(int index) {
+        return exponents[index];
+    }
+
+    /**
+     * @return the dimension of the product of the two units
+     */
+    public DimensionVector multiply(DimensionVector other) {
+        int[] product = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            product[i] = exponents[i] + other.exponents[i];
+        }
+        return new DimensionVector(product);
+    }
+
+    /**
+     * @return the dimension of the unit raised to the power
+     */
+    public DimensionVector pow(int power) {
+        int[] result = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            result[i] = exponents[i] * power;
+        }
+        return new DimensionVector(result);
+    }
+
+    public boolean isDimensionless() {
+        return equals(NONE);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof DimensionVector && Arrays.equals(exponents, ((DimensionVector) o).exponents));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(exponents);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(exponents);
+    }
+}
@@ -1,19 +1,16 @@
 package org.grobid.core.data.normalization;
 
-import com.google.common.collect.ImmutableList;
 import org.grobid.core.data.Quantity;
 import org.grobid.core.data.Unit;
+import org.grobid.core.data.UnitBlock;
 import org.grobid.core.data.UnitDefinition;
+import org.grobid.core.lexicon.QuantityLexicon;
 import org.grobid.core.utilities.MeasurementOperations;
+import org.grobid.core.utilities.NumericMode;
 import org.grobid.core.utilities.UnitUtilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import systems.uom.common.USCustomary;
-import tec.uom.se.format.SimpleUnitFormat;
 
-import javax.measure.format.UnitFormat;
-import javax.measure.spi.ServiceProvider;
-import javax.measure.spi.UnitFormatService;
 import java.math.BigDecimal;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -31,47 +28,71 @@ import static org.apache.commons.lang3.StringUtils.isEmpty;
 public class QuantityNormalizer {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(QuantityNormalizer.class);
-    private final String UOM_DEFAULT_PROVIDER = "tec.uom.se.spi.DefaultServiceProvider";
-    private final String UCUM_PROVIDER = "systems.uom.ucum.internal.UCUMServiceProvider";
-    private final String UNICODE_PROVIDER = "systems.uom.unicode.internal.UnicodeServiceProvider";
-    private final String SI_PROVIDER = "si.uom.impl.SIServiceProvider";
-    private final String COMMON_PROVIDER = "systems.uom.common.internal.CommonServiceProvider";
-    private final String INDYRIA_PROVIDER = "tech.units.indriya.internal.DefaultServiceProvider";
-    private final String SESHAT_PROVIDER = "tech.uom.seshat.UnitServices";
-
-    Map<String, UnitFormat> unitFormats = new HashMap<>();
 
+    private UnitConversionTable conversionTable;
+    private UnitFailures unitFailures;
+    private NumericMode numericMode = NumericMode.get();
+    private UnitAlgebra unitAlgebra;
     private MeasurementOperations measurementOperations;
     private UnitNormalizer unitNormalizer;
 
     public QuantityNormalizer() {
-        for (ServiceProvider provider : ServiceProvider.available()) {
-            UnitFormatService formatService = provider.getUnitFormatService();
-
-            final String providerName = provider.getClass().getName();
-            unitFormats.put(providerName, formatService.getUnitFormat());
-
-            if (providerName.equals(COMMON_PROVIDER)) {
-                SimpleUnitFormat.getInstance().alias(USCustomary.MILE, "mile");
-                SimpleUnitFormat.getInstance().alias(USCustomary.MILE, "mi");
-                SimpleUnitFormat.getInstance().alias(USCustomary.MILE, "miles");
-            }
-        }
+        this(QuantityLexicon.DEFAULT_LANGUAGE);
+    }
 
+    /**
+     * @param language the language of the lexicon of the units
+     */
+    public QuantityNormalizer(String language) {
+        conversionTable = UnitConversionTable.getInstance(language);
+        unitFailures = UnitFailures.getInstance();
+        unitAlgebra = UnitAlgebra.getInstance(language);
         measurementOperations = new MeasurementOperations();
-        unitNormalizer = new UnitNormalizer();
+        unitNormalizer = new UnitNormalizer(language);
+    }
+
+    /**
+     * Label with a single call to the Unit CRF model the raw units of the quantities which are
+     * not in the lexicon, to be given to {@link #normalizeQuantity(Quantity, Map)}.
+     */
+    public Map<Unit, List<UnitBlock>> tagUnits(List<Quantity> quantities) {
+        List<Unit> rawUnits = quantities.stream()
+                .filter(q -> q != null && !q.isEmpty() && !q.isNormalized())
+                .map(Quantity::getRawUnit)
+                .collect(Collectors.toList());
+        return unitNormalizer.tagUnits(rawUnits);
     }
 
     public Quantity.Normalized normalizeQuantity(Quantity quantity) throws NormalizationException {
+        return normalizeQuantity(quantity, Collections.emptyMap());
+    }
+
+    /**
+     * @param taggedUnits the raw units already labeled, see {@link #tagUnits(List)}
+     * @return the normalized quantity, or null if the quantity has no unit or if its unit cannot be
+     * converted, see {@link UnitFailures}
+     * @throws NormalizationException if the value cannot be converted
+     */
+    public Quantity.Normalized normalizeQuantity(Quantity quantity, Map<Unit, List<UnitBlock>> taggedUnits) throws NormalizationException {
         if (quantity.isEmpty() || quantity.getRawUnit() == null || isEmpty(quantity.getRawUnit().getRawName())) {
             return null;    //or throw new NormalizationException() :-)
         }
 
-        Unit parsedUnit = unitNormalizer.parseUnit(quantity.getRawUnit());
+        Unit parsedUnit = unitNormalizer.parseUnit(quantity.getRawUnit(), taggedUnits);
         quantity.setParsedUnit(parsedUnit);
 
+        // the unit has already failed, it is not composed nor resolved again with the unit formats
+        if (unitFailures.hasFailed(quantity.getRawUnit().getRawName())) {
+            unitFailures.report(quantity.getRawUnit().getRawName(), parsedUnit.getRawName());
+            return null;
+        }
+
         //The unit cannot be found between the known units - we should try to decompose it
         if (parsedUnit.getUnitDefinition() == null) {
+            Quantity.Normalized composed = normalizeComposedUnitQuantity(quantity);
+            if (composed != null) {
+                return composed;
+            }
             return normalizeUnknownUnitQuantity(quantity);
         } else if (parsedUnit.getUnitDefinition().getSystem() == UnitUtilities.System_Type.SI_BASE) {
 
@@ -87,118 +108,82 @@ public class QuantityNormalizer {
         }
     }
 
-    private Quantity.Normalized normalizeUnknownUnitQuantity(Quantity quantity) throws NormalizationException {
-//        Map<String, Integer> wrappedUnitProducts = new HashMap<>();
-        Quantity.Normalized normalizedQuantity = new Quantity().new Normalized();
-        final String unitRawName = quantity.getParsedUnit().getRawName();
-
-        List<UnitFormat> formatServices = Arrays.asList(unitFormats.get(UNICODE_PROVIDER), unitFormats.get(SESHAT_PROVIDER));
-
-        javax.measure.Unit unit = tryParsing(unitRawName, formatServices);
-
-        if (unit == null) {
-            throw new NormalizationException("Cannot parse " + unitRawName + " using "
-                    + Arrays.toString(formatServices.toArray()));
+    /**
+     * Normalise a unit composed of known units (e.g. kg·m/s², mol/L) with the {@link UnitAlgebra}.
+     *
+     * @return null if the unit is not composed of known units
+     */
+    private Quantity.Normalized normalizeComposedUnitQuantity(Quantity quantity) throws NormalizationException {
+        List<UnitBlock> blocks = quantity.getParsedUnit().getProductBlocks();
+        if (blocks == null || (blocks.size() < 2 && (blocks.isEmpty() || isEmpty(blocks.get(0).getPow())))) {
+            return null;
         }
-
-        composeUnit(quantity, normalizedQuantity, unit);
-
-        if (quantity.isNormalized()) {
-            UnitDefinition definition = unitNormalizer.findDefinition(quantity.getNormalizedQuantity().getUnit());
-            if (definition != null) {
-                quantity.getNormalizedQuantity().getUnit().setUnitDefinition(definition);
-            }
+        UnitAlgebra.AlgebraicUnit unit = unitAlgebra.compose(blocks);
+        if (unit == null) {
+            return null;
         }
 
-        return normalizedQuantity;
-    }
-
-    protected Quantity.Normalized normalizeNonSIQuantities(Quantity quantity) throws NormalizationException {
-//        Map<String, Integer> wrappedUnitProducts = new HashMap<>();
         Quantity.Normalized normalizedQuantity = new Quantity().new Normalized();
-
-        final String unitRawName = quantity.getParsedUnit().getRawName();
-
-        List<UnitFormat> formatServices = Arrays.asList(unitFormats.get(UCUM_PROVIDER), unitFormats.get(COMMON_PROVIDER), unitFormats.get(INDYRIA_PROVIDER));
-
-        javax.measure.Unit unit = tryParsing(unitRawName, formatServices);
-
-        if (unit == null) {
-            throw new NormalizationException("Cannot parse " + unitRawName + " using "
-                    + Arrays.toString(formatServices.toArray()));
+        normalizedQuantity.setRawValue(quantity.getRawValue());
+        Unit siUnit = new Unit(unitAlgebra.getSIName(unit.getDimension()));
+        normalizedQuantity.setUnit(siUnit);
+        try {
+            BigDecimal value = quantity.getParsedValue() != null ? quantity.getParsedValue().getNumeric() : new BigDecimal(quantity.getRawValue());
+            normalizedQuantity.setValue(unit.toSI(value, numericMode));
+        } catch (Exception e) {
+            throw new NormalizationException("The value " + quantity.getRawValue() + " cannot be normalized. It is either not a valid value " +
+                    "or it is not recognized from the available parsers.", e);
         }
+        quantity.setNormalizedQuantity(normalizedQuantity);
 
-        composeUnit(quantity, normalizedQuantity, unit);
-
-        if (quantity.isNormalized()) {
-            UnitDefinition definition = unitNormalizer.findDefinition(quantity.getNormalizedQuantity().getUnit());
-            if (definition != null) {
-                quantity.getNormalizedQuantity().getUnit().setUnitDefinition(definition);
-            }
+        UnitDefinition definition = unitAlgebra.findSIUnit(unit.getDimension());
+        if (definition != null) {
+            siUnit.setUnitDefinition(definition);
         }
 
         return normalizedQuantity;
     }
 
-    private javax.measure.Unit tryParsing(String unitRawName, List<UnitFormat> formatServices) {
-        javax.measure.Unit unit = null;
-        for (UnitFormat formatService : formatServices.stream().filter(Objects::nonNull).collect(Collectors.toList())) {
-            try {
-                unit = formatService.parse(unitRawName);
-                break;
-            } catch (Throwable tr) {
-                LOGGER.warn("Cannot parse " + unitRawName + " with " + formatService.getClass().getName(), tr);
-            }
-        }
-        return unit;
+    private Quantity.Normalized normalizeUnknownUnitQuantity(Quantity quantity) throws NormalizationException {
+        return normalizeWithSystem(quantity, null);
     }
 
+    protected Quantity.Normalized normalizeNonSIQuantities(Quantity quantity) throws NormalizationException {
+        return normalizeWithSystem(quantity, UnitUtilities.System_Type.NON_SI);
+    }
 
     /**
      * Normalise SI quantities. It tries with the SI parser and if it's failing it's backing off
      * using the default format service.
      */
     protected Quantity.Normalized normalizeSIQuantities(Quantity quantity) throws NormalizationException {
-//        Map<String, Integer> wrappedUnitProducts = new HashMap<>();
-        Quantity.Normalized normalizedQuantity = new Quantity().new Normalized();
-
-        final String unitRawName = quantity.getParsedUnit().getRawName();
-
-        List<UnitFormat> formatServices = Arrays.asList(unitFormats.get(SI_PROVIDER), unitFormats.get(UOM_DEFAULT_PROVIDER));
-
-        javax.measure.Unit unit = tryParsing(unitRawName, formatServices);
-
-        if (unit == null) {
-            throw new NormalizationException("Cannot parse " + unitRawName + " using "
-                    + Arrays.toString(formatServices.toArray()));
-        }
-        composeUnit(quantity, normalizedQuantity, unit);
-
-        if (quantity.isNormalized()) {
-            UnitDefinition definition = unitNormalizer.findDefinition(quantity.getNormalizedQuantity().getUnit());
-            if (definition != null) {
-                quantity.getNormalizedQuantity().getUnit().setUnitDefinition(definition);
-            }
-        }
-
-        return normalizedQuantity;
+        return normalizeWithSystem(quantity, UnitUtilities.System_Type.SI_BASE);
     }
 
     /**
      * Normalise SI derived quantities
      */
     protected Quantity.Normalized normalizeSIDerivedQuantities(Quantity quantity) throws NormalizationException {
+        return normalizeWithSystem(quantity, UnitUtilities.System_Type.SI_DERIVED);
+    }
+
+    /**
+     * Normalise the quantity with the unit resolved by the providers of the system, see
+     * {@link UnitConversionTable}.
+     *
+     * @return null if the unit cannot be resolved
+     */
+    private Quantity.Normalized normalizeWithSystem(Quantity quantity, UnitUtilities.System_Type system) throws NormalizationException {
         Quantity.Normalized normalizedQuantity = new Quantity().new Normalized();
 
         final String unitRawName = quantity.getParsedUnit().getRawName();
 
-        List<UnitFormat> formatServices = Arrays.asList(unitFormats.get(UCUM_PROVIDER), unitFormats.get(UOM_DEFAULT_PROVIDER));
-
-        javax.measure.Unit unit = tryParsing(unitRawName, formatServices);
+        UnitConversionTable.ResolvedUnit unit = conversionTable.resolve(unitRawName, system);
 
         if (unit == null) {
-            throw new NormalizationException("Cannot parse " + unitRawName + " using "
-                    + Arrays.toString(formatServices.toArray()));
+            // frequent on noisy texts, reported without building an exception
+            unitFailures.report(quantity.getRawUnit().getRawName(), unitRawName);
+            return null;
         }
         composeUnit(quantity, normalizedQuantity, unit);
 
@@ -212,14 +197,13 @@ public class QuantityNormalizer {
         return normalizedQuantity;
     }
 
-
-    private void composeUnit(Quantity quantity, Quantity.Normalized normalizedQuantity, javax.measure.Unit unit) throws NormalizationException {
+    private void composeUnit(Quantity quantity, Quantity.Normalized normalizedQuantity, UnitConversionTable.ResolvedUnit unit) throws NormalizationException {
 
         normalizedQuantity.setRawValue(quantity.getRawValue());
         normalizedQuantity.setUnit(new Unit(unit.getSystemUnit().toString()));
         try {
             if (quantity.getParsedValue() != null) {
-                BigDecimal converted = new BigDecimal(unit.getConverterTo(unit.getSystemUnit()).convert(quantity.getParsedValue().getNumeric()).toString());
+                BigDecimal converted = numericMode.convert(unit.getConverter(), quantity.getParsedValue().getNumeric());
                 normalizedQuantity.setValue(converted);
             } else {
                 normalizedQuantity.setValue(new BigDecimal(quantity.getRawValue()));
@@ -290,6 +274,22 @@ public class QuantityNormalizer {
     }
 
 
+    public void setConversionTable(UnitConversionTable conversionTable) {
+        this.conversionTable = conversionTable;
+    }
+
+    public void setUnitAlgebra(UnitAlgebra unitAlgebra) {
+        this.unitAlgebra = unitAlgebra;
+    }
+
+    public void setNumericMode(NumericMode numericMode) {
+        this.numericMode = numericMode;
+    }
+
+    public void setUnitFailures(UnitFailures unitFailures) {
+        this.unitFailures = unitFailures;
+    }
+
     public void setUnitNormalizer(UnitNormalizer unitNormalizer) {
         this.unitNormalizer = unitNormalizer;
     }
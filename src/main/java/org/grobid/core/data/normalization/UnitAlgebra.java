@@ -0,0 +1,331 @@
+package org.grobid.core.data.normalization;
+
+import org.apache.commons.lang3.StringUtils;
+import org.grobid.core.data.UnitBlock;
+import org.grobid.core.data.UnitDefinition;
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.grobid.core.utilities.NumericMode;
+import org.grobid.core.utilities.UnitUtilities;
+
+import javax.measure.Dimension;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.isNotEmpty;
+
+/**
+ * Arithmetic of the composed units.
+ * <p>
+ * Each unit of the lexicon is represented by its dimension, as a {@link DimensionVector}, and by
+ * the scale factor and offset converting it to the coherent SI unit of this dimension (e.g. 0.001
+ * for g, 3600 for h, offset 273.15 for °C), taken as decimals from the converters of the
+ * {@link UnitConversionTable}. A composed unit given as product blocks (prefix, base, power), e.g.
+ * kg·m/s² or mol/L, is then computed by adding the dimensions and multiplying the scales, without
+ * formatting and parsing it again. The scale is kept as an exact fraction (km/h is 1000/3600), so
+ * that a value is rounded only once, when it is converted. The
+ * resulting dimension is looked up in an index of the SI units of the lexicon (kg·m/s² is N).
+ * <p>
+ * The names of the units (e.g. the inflected forms metres or mètres) are resolved through the
+ * lexicon of a single language, so there is one instance by language.
+ */
+public class UnitAlgebra {
+
+    // instances by language, each one resolving the names through the lexicon of its language
+    private static final Map<String, UnitAlgebra> instances = new ConcurrentHashMap<>();
+
+    private final QuantityLexicon quantityLexicon;
+    private final UnitConversionTable conversionTable;
+
+    // units of the lexicon already computed, by name
+    private final Map<String, AlgebraicUnit> units = new ConcurrentHashMap<>();
+
+    // coherent SI unit of each dimension
+    private final Map<DimensionVector, UnitDefinition> siUnits = new HashMap<>();
+    private final Map<DimensionVector, String> siNames = new HashMap<>();
+
+    /**
+     * @return the instance of the default language
+     */
+    public static UnitAlgebra getInstance() {
+        return getInstance(QuantityLexicon.DEFAULT_LANGUAGE);
+    }
+
+    /**
+     * @param lang a language code (e.g. fr), null for the default language
+     * @return the instance using the lexicon of the language
+     * @throws IllegalArgumentException if there is no lexicon for the language
+     */
+    public static UnitAlgebra getInstance(String lang) {
+        String language = QuantityLexicon.resolveLanguage(lang);
+        UnitAlgebra unitAlgebra = instances.get(language);
+        if (unitAlgebra == null) {
+            unitAlgebra = getNewInstance(language);
+        }
+        return unitAlgebra;
+    }
+
+    private static synchronized UnitAlgebra getNewInstance(String language) {
+        UnitAlgebra unitAlgebra = instances.get(language);
+        if (unitAlgebra == null) {
+            QuantityLexicon quantityLexicon = QuantityLexicon.getInstance(language);
+            unitAlgebra = new UnitAlgebra(quantityLexicon, UnitConversionTable.getInstance(language), quantityLexicon.getUnitNames());
+            instances.put(language, unitAlgebra);
+        }
+        return unitAlgebra;
+    }
+
+    UnitAlgebra(QuantityLexicon quantityLexicon, UnitConversionTable conversionTable, Iterable<String> names) {
+        this.quantityLexicon = quantityLexicon;
+        this.conversionTable = conversionTable;
+
+        // SI base units first, then the shortest notations, so that the SI unit of a dimension is
+        // always the same one (e.g. Hz rather than Bq)
+        List<String> sortedNames = new ArrayList<>();
+        for (String name : names) {
+            UnitDefinition definition = quantityLexicon.getUnitByNotation(name);
+            if (definition != null && isSI(definition.getSystem())) {
+                sortedNames.add(name);
+            }
+        }
+        sortedNames.sort(Comparator.comparing((String name) -> quantityLexicon.getUnitByNotation(name).getSystem() != UnitUtilities.System_Type.SI_BASE)
+                .thenComparingInt(String::length)
+                .thenComparing(Comparator.naturalOrder()));
+        for (String name : sortedNames) {
+            UnitDefinition definition = quantityLexicon.getUnitByNotation(name);
+            AlgebraicUnit unit = getUnit(name);
+            // the dimensionless units (rad, sr, dB) are not an SI unit of the ratios
+            if (unit != null && unit.isCoherent() && !unit.getDimension().isDimensionless()
+                    && !siUnits.containsKey(unit.getDimension())) {
+                siUnits.put(unit.getDimension(), definition);
+                siNames.put(unit.getDimension(), name);
+            }
+        }
+    }
+
+    /**
+     * Compute the unit made of the product of the blocks.
+     *
+     * @return the composed unit, or null if a block is not a known unit or has an invalid power,
+     * or if the unit is dimensionless (e.g. mg/kg)
+     */
+    public AlgebraicUnit compose(List<UnitBlock> blocks) {
+        if (blocks == null || blocks.isEmpty()) {
+            return null;
+        }
+        DimensionVector dimension = DimensionVector.NONE;
+        BigDecimal numerator = BigDecimal.ONE;
+        BigDecimal denominator = BigDecimal.ONE;
+        BigDecimal offset = BigDecimal.ZERO;
+        for (UnitBlock block : blocks) {
+            int power = 1;
+            if (isNotEmpty(block.getPow())) {
+                try {
+                    power = Integer.parseInt(block.getPow().replace('−', '-').replace("+", ""));
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+            }
+            AlgebraicUnit unit = getUnit(block.getBase());
+            if (unit == null) {
+                return null;
+            }
+            BigDecimal blockNumerator = unit.getScaleNumerator();
+            if (isNotEmpty(block.getPrefix())) {
+                Integer prefixPower = quantityLexicon.getPrefixPower(block.getPrefix());
+                if (prefixPower == null) {
+                    return null;
+                }
+                blockNumerator = blockNumerator.scaleByPowerOfTen(prefixPower);
+            }
+
+            dimension = dimension.multiply(unit.getDimension().pow(power));
+            if (power >= 0) {
+                numerator = numerator.multiply(blockNumerator.pow(power));
+                denominator = denominator.multiply(unit.getScaleDenominator().pow(power));
+            } else {
+                numerator = numerator.multiply(unit.getScaleDenominator().pow(-power));
+                denominator = denominator.multiply(blockNumerator.pow(-power));
+            }
+            if (blocks.size() == 1 && power == 1) {
+                // an offset (e.g. °C) applies only to the unit alone, not to a composed unit
+                offset = unit.getDecimalOffset();
+            }
+        }
+        if (dimension.isDimensionless()) {
+            return null;
+        }
+        return new AlgebraicUnit(dimension, numerator, denominator, offset);
+    }
+
+    /**
+     * @return the SI unit of the dimension in the lexicon, or null if there is none
+     */
+    public UnitDefinition findSIUnit(DimensionVector dimension) {
+        return siUnits.get(dimension);
+    }
+
+    /**
+     * @return the notation of the SI unit of the dimension, e.g. N, or the product of the SI base
+     * units, e.g. mol/m^3
+     */
+    public String getSIName(DimensionVector dimension) {
+        String name = siNames.get(dimension);
+        if (name != null) {
+            return name;
+        }
+        List<UnitBlock> blocks = new ArrayList<>();
+        for (int i = 0; i < DimensionVector.SIZE; i++) {
+            int exponent = dimension.get(i);
+            if (exponent != 0) {
+                blocks.add(new UnitBlock(null, DimensionVector.BASE_UNITS[i], exponent == 1 ? null : String.valueOf(exponent)));
+            }
+        }
+        return UnitBlock.asString(blocks);
+    }
+
+    /**
+     * @return the unit of the lexicon with this name (notation or inflected form), or null if it
+     * is not known or cannot be converted
+     */
+    AlgebraicUnit getUnit(String name) {
+        if (isBlank(name)) {
+            return null;
+        }
+        AlgebraicUnit unit = units.get(name);
+        if (unit != null) {
+            return unit;
+        }
+
+        String notation = name;
+        UnitDefinition definition = quantityLexicon.getUnitByNotation(notation);
+        if (definition == null) {
+            notation = quantityLexicon.getNameByInflection(name);
+            definition = notation == null ? null : quantityLexicon.getUnitByNotation(notation);
+        }
+        if (definition == null) {
+            return null;
+        }
+        UnitConversionTable.ResolvedUnit resolved = conversionTable.resolve(notation, definition.getSystem());
+        if (resolved == null) {
+            return null;
+        }
+        DimensionVector dimension = toVector(resolved.getDimension());
+        if (dimension == null) {
+            return null;
+        }
+        BigDecimal offset;
+        BigDecimal scale;
+        try {
+            offset = new BigDecimal(resolved.getConverter().convert(BigDecimal.ZERO).toString());
+            scale = new BigDecimal(resolved.getConverter().convert(BigDecimal.ONE).toString()).subtract(offset);
+        } catch (ArithmeticException | NumberFormatException e) {
+            return null;
+        }
+        if (scale.signum() == 0) {
+            return null;
+        }
+        unit = new AlgebraicUnit(dimension, scale, BigDecimal.ONE, offset);
+        units.put(name, unit);
+        return unit;
+    }
+
+    /**
+     * @return the dimension as a vector, or null if it is not made of the SI base dimensions
+     */
+    static DimensionVector toVector(Dimension dimension) {
+        if (dimension == null) {
+            return null;
+        }
+        Map<? extends Dimension, Integer> baseDimensions = dimension.getBaseDimensions();
+        if (baseDimensions == null) {
+            // a base dimension, e.g. [L]
+            return DimensionVector.base(StringUtils.strip(dimension.toString(), "[]"));
+        }
+        DimensionVector vector = DimensionVector.NONE;
+        for (Map.Entry<? extends Dimension, Integer> entry : baseDimensions.entrySet()) {
+            DimensionVector base = DimensionVector.base(StringUtils.strip(entry.getKey().toString(), "[]"));
+            if (base == null) {
+                return null;
+            }
+            vector = vector.multiply(base.pow(entry.getValue()));
+        }
+        return vector;
+    }
+
+    private static boolean isSI(UnitUtilities.System_Type system) {
+        return system == UnitUtilities.System_Type.SI_BASE || system == UnitUtilities.System_Type.SI_DERIVED;
+    }
+
+    /**
+     * A unit as its dimension, and the scale and offset converting it to the coherent SI unit of
+     * this dimension: si = value * scale + offset, the scale being the fraction
+     * scaleNumerator / scaleDenominator.
+     */
+    public static final class AlgebraicUnit {
+        private static final double EPSILON = 1e-12;
+
+        private final DimensionVector dimension;
+        private final BigDecimal scaleNumerator;
+        private final BigDecimal scaleDenominator;
+        private final BigDecimal offset;
+
+        AlgebraicUnit(DimensionVector dimension, BigDecimal scaleNumerator, BigDecimal scaleDenominator, BigDecimal offset) {
+            this.dimension = dimension;
+            this.scaleNumerator = scaleNumerator;
+            this.scaleDenominator = scaleDenominator;
+            this.offset = offset;
+        }
+
+        public DimensionVector getDimension() {
+            return dimension;
+        }
+
+        public BigDecimal getScaleNumerator() {
+            return scaleNumerator;
+        }
+
+        public BigDecimal getScaleDenominator() {
+            return scaleDenominator;
+        }
+
+        public BigDecimal getDecimalOffset() {
+            return offset;
+        }
+
+        public double getScale() {
+            return scaleNumerator.doubleValue() / scaleDenominator.doubleValue();
+        }
+
+        public double getOffset() {
+            return offset.doubleValue();
+        }
+
+        /**
+         * @return the value in the coherent SI unit, the scale being applied with a single division
+         */
+        public BigDecimal toSI(BigDecimal value, NumericMode numericMode) {
+            BigDecimal converted = numericMode.multiply(value, scaleNumerator);
+            if (scaleDenominator.compareTo(BigDecimal.ONE) != 0) {
+                converted = numericMode.divide(converted, scaleDenominator);
+            }
+            if (offset.signum() != 0) {
+                converted = numericMode.add(converted, offset);
+            }
+            // the prefixes give negative scales, e.g. 1E+1 for 10
+            return converted.scale() < 0 ? converted.setScale(0) : converted;
+        }
+
+        /**
+         * @return true if the unit is the SI unit of its dimension (no scale, no offset)
+         */
+        public boolean isCoherent() {
+            return Math.abs(scale - 1.0) < EPSILON && Math.abs(offset) < EPSILON;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package org.grobid.core.data.normalization;
+
+import org.grobid.core.data.UnitBlock;
+import org.grobid.core.data.UnitDefinition;
+import org.grobid.core.engines.QuantitiesVersion;
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.grobid.core.utilities.QuantitiesProperties;
+import org.grobid.core.utilities.ResultCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the parsed units shared by all the {@link UnitNormalizer}, keyed by the raw unit, its
+ * attachment and the language of the lexicon.
+ * <p>
+ * The units of real texts are very repetitive (mm, °C, mg/kg, wt%, ...), so most of them are
+ * parsed once: the decomposition, the lookups in the lexicon and the possible call to the unit
+ * CRF model are skipped for the next occurrences. The cache is invalidated when the models or the
+ * lexical resources change, see {@link QuantitiesVersion}, and it can be warm-loaded at start-up
+ * with a list of frequent units.
+ */
+public class UnitCache {
+
+    private static volatile UnitCache instance;
+
+    private final ResultCache<ParsedUnit> cache;
+
+    public static boolean isEnabled() {
+        return QuantitiesProperties.getInstance().getBoolean(QuantitiesProperties.CACHE_UNITS_ENABLED, true);
+    }
+
+    public static UnitCache getInstance() {
+        if (instance == null) {
+            getNewInstance();
+        }
+        return instance;
+    }
+
+    private static synchronized void getNewInstance() {
+        if (instance == null) {
+            instance = new UnitCache(QuantitiesProperties.getInstance()
+                    .getLong(QuantitiesProperties.CACHE_UNITS_MAX_ENTRIES, 10000), QuantitiesVersion::get);
+        }
+    }
+
+    UnitCache(long maxEntries, Supplier<String> version) {
+        cache = new ResultCache<>("units", maxEntries, null, version);
+    }
+
+    /**
+     * @return the parsed unit, or null if the unit has not been parsed yet
+     */
+    public ParsedUnit get(String rawName, boolean rightAttachment) {
+        return get(QuantityLexicon.DEFAULT_LANGUAGE, rawName, rightAttachment);
+    }
+
+    public ParsedUnit get(String language, String rawName, boolean rightAttachment) {
+        return cache.get(key(language, rawName, rightAttachment));
+    }
+
+    public boolean contains(String rawName, boolean rightAttachment) {
+        return contains(QuantityLexicon.DEFAULT_LANGUAGE, rawName, rightAttachment);
+    }
+
+    public boolean contains(String language, String rawName, boolean rightAttachment) {
+        return cache.contains(key(language, rawName, rightAttachment));
+    }
+
+    public void put(String rawName, boolean rightAttachment, ParsedUnit parsedUnit) {
+        put(QuantityLexicon.DEFAULT_LANGUAGE, rawName, rightAttachment, parsedUnit);
+    }
+
+    public void put(String language, String rawName, boolean rightAttachment, ParsedUnit parsedUnit) {
+        cache.put(key(language, rawName, rightAttachment), parsedUnit);
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    private static String key(String language, String rawName, boolean rightAttachment) {
+        String key = (rightAttachment ? "R:" : "L:") + rawName;
+        return QuantityLexicon.DEFAULT_LANGUAGE.equals(language) ? key : language + ":" + key;
+    }
+
+    /**
+     * Immutable result of the parsing of a unit: the product blocks, the reformatted name and the
+     * definition found in the lexicon (possibly null).
+     */
+    public static final class ParsedUnit {
+        private final List<UnitBlock> productBlocks;
+        private final String name;
+        private final UnitDefinition definition;
+
+        public ParsedUnit(List<UnitBlock> productBlocks, String name, UnitDefinition definition) {
+            this.productBlocks = Collections.unmodifiableList(copy(productBlocks));
+            this.name = name;
+            this.definition = definition;
+        }
+
+        /**
+         * @return a copy of the product blocks, which can be modified by the caller
+         */
+        public List<UnitBlock> getProductBlocks() {
+            return copy(productBlocks);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public UnitDefinition getDefinition() {
+            return definition;
+        }
+
+        private static List<UnitBlock> copy(List<UnitBlock> blocks) {
+            List<UnitBlock> copies = new ArrayList<>();
+            for (UnitBlock block : blocks) {
+                UnitBlock copy = new UnitBlock(block.getPrefix(), block.getBase(), block.getPow());
+                copy.setRawTaggedValue(block.getRawTaggedValue());
+                copies.add(copy);
+            }
+            return copies;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package org.grobid.core.data.normalization;
+
+import org.grobid.core.data.UnitDefinition;
+import org.grobid.core.engines.QuantitiesVersion;
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.grobid.core.utilities.QuantitiesProperties;
+import org.grobid.core.utilities.ResultCache;
+import org.grobid.core.utilities.UnitUtilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import systems.uom.common.USCustomary;
+import tec.uom.se.format.SimpleUnitFormat;
+
+import javax.measure.Dimension;
+import javax.measure.Unit;
+import javax.measure.UnitConverter;
+import javax.measure.format.UnitFormat;
+import javax.measure.spi.ServiceProvider;
+import javax.measure.spi.UnitFormatService;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Resolution of the unit names to their system unit, converter and dimension.
+ * <p>
+ * A unit name is parsed by the unit format providers of its system (e.g. SI, then the default
+ * provider for the SI base units), the first one succeeding gives the unit. The names known by the
+ * {@link QuantityLexicon} of the language (notations and names of the inflected forms) are all
+ * resolved once when the table is built, so that normalizing a known unit is a single lookup. The
+ * other names are parsed on their first occurrence and the result, successful or not, is cached.
+ */
+public class UnitConversionTable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UnitConversionTable.class);
+
+    private static final String UOM_DEFAULT_PROVIDER = "tec.uom.se.spi.DefaultServiceProvider";
+    private static final String UCUM_PROVIDER = "systems.uom.ucum.internal.UCUMServiceProvider";
+    private static final String UNICODE_PROVIDER = "systems.uom.unicode.internal.UnicodeServiceProvider";
+    private static final String SI_PROVIDER = "si.uom.impl.SIServiceProvider";
+    private static final String COMMON_PROVIDER = "systems.uom.common.internal.CommonServiceProvider";
+    private static final String INDYRIA_PROVIDER = "tech.units.indriya.internal.DefaultServiceProvider";
+    private static final String SESHAT_PROVIDER = "tech.uom.seshat.UnitServices";
+
+    // marks the names which cannot be parsed by any provider
+    private static final ResolvedUnit UNRESOLVED = new ResolvedUnit(null);
+
+    // tables by language, each one built from the lexicon of its language
+    private static final Map<String, UnitConversionTable> instances = new ConcurrentHashMap<>();
+
+    private final Map<String, UnitFormat> unitFormats = new HashMap<>();
+
+    // names of the lexicon, resolved when the table is built
+    private final Map<String, ResolvedUnit> table = new HashMap<>();
+
+    // other names, resolved on their first occurrence
+    private final ResultCache<ResolvedUnit> fallback;
+
+    /**
+     * @return the table of the default language
+     */
+    public static UnitConversionTable getInstance() {
+        return getInstance(QuantityLexicon.DEFAULT_LANGUAGE);
+    }
+
+    /**
+     * @param lang a language code (e.g. fr), null for the default language
+     * @return the table built from the lexicon of the language
+     * @throws IllegalArgumentException if there is no lexicon for the language
+     */
+    public static UnitConversionTable getInstance(String lang) {
+        String language = QuantityLexicon.resolveLanguage(lang);
+        UnitConversionTable table = instances.get(language);
+        if (table == null) {
+            table = getNewInstance(language);
+        }
+        return table;
+    }
+
+    private static synchronized UnitConversionTable getNewInstance(String language) {
+        UnitConversionTable table = instances.get(language);
+        if (table == null) {
+            QuantityLexicon quantityLexicon = QuantityLexicon.getInstance(language);
+            String cacheName = QuantityLexicon.DEFAULT_LANGUAGE.equals(language) ? "unit_conversions" : "unit_conversions_" + language;
+            table = new UnitConversionTable(quantityLexicon.getUnitNames(), quantityLexicon, cacheName,
+                    QuantitiesProperties.getInstance().getLong(QuantitiesProperties.CACHE_CONVERSIONS_MAX_ENTRIES, 10000));
+            instances.put(language, table);
+        }
+        return table;
+    }
+
+    UnitConversionTable(Collection<String> names, QuantityLexicon quantityLexicon, long maxFallbackEntries) {
+        this(names, quantityLexicon, "unit_conversions", maxFallbackEntries);
+    }
+
+    UnitConversionTable(Collection<String> names, QuantityLexicon quantityLexicon, String cacheName, long maxFallbackEntries) {
+        for (ServiceProvider provider : ServiceProvider.available()) {
+            UnitFormatService formatService = provider.getUnitFormatService();
+
+            final String providerName = provider.getClass().getName();
+            unitFormats.put(providerName, formatService.getUnitFormat());
+
+            if (providerName.equals(COMMON_PROVIDER)) {
+                SimpleUnitFormat.getInstance().alias(USCustomary.MILE, "mile");
+                SimpleUnitFormat.getInstance().alias(USCustomary.MILE, "mi");
+                SimpleUnitFormat.getInstance().alias(USCustomary.MILE, "miles");
+            }
+        }
+        fallback = new ResultCache<>(cacheName, maxFallbackEntries, null, QuantitiesVersion::get);
+
+        long start = System.currentTimeMillis();
+        int resolved = 0;
+        for (String name : names) {
+            UnitDefinition definition = quantityLexicon.getUnitByNotation(name);
+            if (definition == null) {
+                definition = quantityLexicon.getUnitbyName(name);
+            }
+            UnitUtilities.System_Type system = definition == null ? null : definition.getSystem();
+            ResolvedUnit resolvedUnit = parse(name, system);
+            table.put(key(name, system), resolvedUnit);
+            if (isResolved(resolvedUnit)) {
+                resolved++;
+            }
+        }
+        LOGGER.info("Resolved " + resolved + " out of " + names.size() + " unit names of the " + quantityLexicon.getLanguage() + " lexicon in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * @param system the system of the unit definition, null if the unit is not in the lexicon
+     * @return the resolved unit, or null if the name cannot be parsed by the providers of the system
+     */
+    public ResolvedUnit resolve(String name, UnitUtilities.System_Type system) {
+        final String key = key(name, system);
+        ResolvedUnit resolvedUnit = table.get(key);
+        if (resolvedUnit == null) {
+            resolvedUnit = fallback.get(key);
+            if (resolvedUnit == null) {
+                resolvedUnit = parse(name, system);
+                fallback.put(key, resolvedUnit);
+            }
+        }
+        return resolvedUnit == UNRESOLVED ? null : resolvedUnit;
+    }
+
+    /**
+     * @return the unit formats used for the units of the system
+     */
+    public List<UnitFormat> getFormats(UnitUtilities.System_Type system) {
+        List<UnitFormat> formats;
+        if (system == null) {
+            formats = Arrays.asList(unitFormats.get(UNICODE_PROVIDER), unitFormats.get(SESHAT_PROVIDER));
+        } else if (system == UnitUtilities.System_Type.SI_BASE) {
+            formats = Arrays.asList(unitFormats.get(SI_PROVIDER), unitFormats.get(UOM_DEFAULT_PROVIDER));
+        } else if (system == UnitUtilities.System_Type.SI_DERIVED) {
+            formats = Arrays.asList(unitFormats.get(UCUM_PROVIDER), unitFormats.get(UOM_DEFAULT_PROVIDER));
+        } else {
+            formats = Arrays.asList(unitFormats.get(UCUM_PROVIDER), unitFormats.get(COMMON_PROVIDER), unitFormats.get(INDYRIA_PROVIDER));
+        }
+        return formats.stream().filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    private ResolvedUnit parse(String name, UnitUtilities.System_Type system) {
+        return parse(name, getFormats(system));
+    }
+
+    /**
+     * @return the unit given by the first format which parses the name, UNRESOLVED if none does
+     */
+    static ResolvedUnit parse(String name, List<UnitFormat> formats) {
+        for (UnitFormat format : formats) {
+            try {
+                Unit<?> unit = format.parse(name);
+                if (unit != null) {
+                    return new ResolvedUnit(unit);
+                }
+            } catch (Throwable tr) {
+                LOGGER.debug("Cannot parse " + name + " with " + format.getClass().getName() + ": " + tr.getMessage());
+            }
+        }
+        return UNRESOLVED;
+    }
+
+    static boolean isResolved(ResolvedUnit resolvedUnit) {
+        return resolvedUnit != UNRESOLVED;
+    }
+
+    /**
+     * The same name can be resolved differently depending on the system, as the providers differ.
+     */
+    private static String key(String name, UnitUtilities.System_Type system) {
+        String providers;
+        if (system == null) {
+            providers = "unknown";
+        } else if (system == UnitUtilities.System_Type.SI_BASE || system == UnitUtilities.System_Type.SI_DERIVED) {
+            providers = system.name();
+        } else {
+            providers = "other";
+        }
+        return providers + ":" + name;
+    }
+
+    /**
+     * A parsed unit with its system unit, the converter to the system unit and its dimension.
+     */
+    public static final class ResolvedUnit {
+        private final Unit<?> unit;
+        private final Unit<?> systemUnit;
+        private final UnitConverter converter;
+        private final Dimension dimension;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        ResolvedUnit(Unit unit) {
+            this.unit = unit;
+            this.systemUnit = unit == null ? null : unit.getSystemUnit();
+            this.converter = unit == null ? null : unit.getConverterTo(systemUnit);
+            this.dimension = unit == null ? null : unit.getDimension();
+        }
+
+        public Unit<?> getUnit() {
+            return unit;
+        }
+
+        public Unit<?> getSystemUnit() {
+            return systemUnit;
+        }
+
+        public UnitConverter getConverter() {
+            return converter;
+        }
+
+        public Dimension getDimension() {
+            return dimension;
+        }
+    }
+}
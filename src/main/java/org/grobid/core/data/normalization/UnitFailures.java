@@ -0,0 +1,78 @@
+package org.grobid.core.data.normalization;
+
+import com.google.common.util.concurrent.RateLimiter;
+import org.grobid.core.engines.QuantitiesVersion;
+import org.grobid.core.metrics.Counter;
+import org.grobid.core.metrics.MetricsRegistry;
+import org.grobid.core.utilities.QuantitiesProperties;
+import org.grobid.core.utilities.ResultCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Supplier;
+
+/**
+ * Report of the units which cannot be normalized.
+ * <p>
+ * On noisy texts (e.g. OCR'd documents) the same unparseable strings come back again and again:
+ * each failure is counted, but only the strings not seen before are logged, and at most a few of
+ * them per minute, so that the logs stay readable and the failures stay cheap.
+ */
+public class UnitFailures {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UnitFailures.class);
+
+    private static final Counter FAILURES = MetricsRegistry.getInstance().counter(
+            "quantities_unit_normalization_failures_total",
+            "Number of quantities whose unit cannot be normalized.");
+
+    private static volatile UnitFailures instance;
+
+    // raw units which have already failed
+    private final ResultCache<Boolean> failedUnits;
+
+    private final RateLimiter logLimiter;
+
+    public static UnitFailures getInstance() {
+        if (instance == null) {
+            getNewInstance();
+        }
+        return instance;
+    }
+
+    private static synchronized void getNewInstance() {
+        if (instance == null) {
+            QuantitiesProperties properties = QuantitiesProperties.getInstance();
+            instance = new UnitFailures(properties.getLong(QuantitiesProperties.CACHE_UNIT_FAILURES_MAX_ENTRIES, 10000),
+                    properties.getInt(QuantitiesProperties.UNIT_FAILURES_LOGS_PER_MINUTE, 10), QuantitiesVersion::get);
+        }
+    }
+
+    UnitFailures(long maxEntries, int logsPerMinute, Supplier<String> version) {
+        failedUnits = new ResultCache<>("unit_failures", maxEntries, null, version);
+        logLimiter = logsPerMinute > 0 ? RateLimiter.create(logsPerMinute / 60.0) : null;
+    }
+
+    /**
+     * Count the failure of the unit, and log it if the unit has not failed before.
+     *
+     * @return true if the unit has not failed before
+     */
+    public boolean report(String rawName, String parsedName) {
+        FAILURES.inc();
+        if (rawName == null || failedUnits.contains(rawName)) {
+            return false;
+        }
+        failedUnits.put(rawName, Boolean.TRUE);
+        if (logLimiter != null && logLimiter.tryAcquire()) {
+            LOGGER.warn("Cannot normalize the unit '" + rawName + "' (parsed as '" + parsedName + "')");
+        }
+        return true;
+    }
+
+    /**
+     * @return true if the unit has already failed, its normalization can then be skipped
+     */
+    public boolean hasFailed(String rawName) {
+        return rawName != null && failedUnits.contains(rawName);
+    }
+}
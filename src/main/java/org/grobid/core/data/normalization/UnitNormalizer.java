@@ -13,10 +13,15 @@ import javax.measure.spi.UnitFormatService;
 import javax.swing.text.html.parser.Parser;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.apache.commons.lang3.StringUtils.isEmpty;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
 import static org.apache.commons.lang3.StringUtils.isNotEmpty;
 
 /**
@@ -26,10 +31,23 @@ public class UnitNormalizer {
 
     private UnitParser unitParser;
     private QuantityLexicon quantityLexicon;
+    private final String language;
+
+    // shared cache of the parsed units, null if disabled
+    private UnitCache unitCache;
 
     public UnitNormalizer() {
-        unitParser = UnitParser.getInstance();
-        quantityLexicon = QuantityLexicon.getInstance();
+        this(QuantityLexicon.DEFAULT_LANGUAGE);
+    }
+
+    /**
+     * @param language the language of the lexicon of the units
+     */
+    public UnitNormalizer(String language) {
+        this.language = QuantityLexicon.resolveLanguage(language);
+        unitParser = UnitParser.getInstance(this.language);
+        quantityLexicon = QuantityLexicon.getInstance(this.language);
+        unitCache = UnitCache.isEnabled() ? UnitCache.getInstance() : null;
     }
 
 
@@ -46,32 +64,102 @@ public class UnitNormalizer {
         return unitBlockList;
     }
 
+    /**
+     * Parse with a single call to the Unit CRF model the raw units which cannot be found in the
+     * lexicon, so that {@link #parseUnit(Unit, Map)} does not need to call it for each unit.
+     *
+     * @return the product blocks of each unit labeled by the model
+     */
+    public Map<Unit, List<UnitBlock>> tagUnits(Collection<Unit> rawUnits) {
+        Map<Unit, List<UnitBlock>> taggedUnits = new IdentityHashMap<>();
+
+        List<Unit> unknownUnits = rawUnits.stream()
+                .filter(u -> u != null && isNotBlank(u.getRawName()))
+                .filter(u -> unitCache == null || !unitCache.contains(language, u.getRawName(), u.hasUnitRightAttachment()))
+                .filter(u -> quantityLexicon.getNameByInflection(u.getRawName()) == null)
+                .distinct()
+                .collect(Collectors.toList());
+        if (unknownUnits.isEmpty()) {
+            return taggedUnits;
+        }
+
+        List<List<UnitBlock>> blocks = unitParser.tagUnits(
+                unknownUnits.stream().map(Unit::getRawName).collect(Collectors.toList()),
+                unknownUnits.stream().map(Unit::hasUnitRightAttachment).collect(Collectors.toList()));
+        for (int i = 0; i < unknownUnits.size(); i++) {
+            taggedUnits.put(unknownUnits.get(i), blocks.get(i));
+        }
+        return taggedUnits;
+    }
+
+    public Unit parseUnit(Unit rawUnit) throws NormalizationException {
+        return parseUnit(rawUnit, Collections.emptyMap());
+    }
+
     /**
      * Unit parsing:
      * - infer the name (name + decomposition) from the written
      * form (including inflections), e.g. m <- meters, A/V <- volt per meter
-     * - if not found, parse the unit using the Unit CRF model
+     * - if not found, parse the unit using the Unit CRF model, unless it has already been
+     * labeled by {@link #tagUnits(Collection)}
      */
-    public Unit parseUnit(Unit rawUnit) throws NormalizationException {
-        List<UnitBlock> blocks = parseToProduct(rawUnit.getRawName(), rawUnit.hasUnitRightAttachment());
+    public Unit parseUnit(Unit rawUnit, Map<Unit, List<UnitBlock>> taggedUnits) throws NormalizationException {
+        final String rawName = rawUnit.getRawName();
+        final boolean rightAttachment = rawUnit.hasUnitRightAttachment();
+
+        UnitCache.ParsedUnit parsed = null;
+        if (unitCache != null && rawName != null) {
+            parsed = unitCache.get(language, rawName, rightAttachment);
+        }
+        if (parsed == null) {
+            List<UnitBlock> blocks = taggedUnits.get(rawUnit);
+            if (blocks == null) {
+                blocks = parseToProduct(rawName, rightAttachment);
+            }
+            final List<UnitBlock> decomposedBlocks = decomposeBlocks(blocks);
+            final String reformatted = UnitBlock.asString(decomposedBlocks);
+
+            UnitDefinition def = quantityLexicon.getUnitByNotation(reformatted);
+            if (def == null) {
+                def = quantityLexicon.getUnitbyName(reformatted);
+            }
+            parsed = new UnitCache.ParsedUnit(blocks, reformatted, def);
+            if (unitCache != null && rawName != null) {
+                unitCache.put(language, rawName, rightAttachment, parsed);
+            }
+        }
 
         Unit parsedUnit = new Unit();
         parsedUnit.setOffsetStart(rawUnit.getOffsetStart());
         parsedUnit.setOffsetEnd(rawUnit.getOffsetEnd());
-        parsedUnit.setProductBlocks(blocks);
-        final List<UnitBlock> decomposedBlocks = decomposeBlocks(blocks);
-        final String reformatted = UnitBlock.asString(decomposedBlocks);
-        parsedUnit.setRawName(reformatted);
-        parsedUnit.setUnitRightAttachment(rawUnit.hasUnitRightAttachment());
-
-        UnitDefinition def = quantityLexicon.getUnitByNotation(reformatted);
-        if (def == null) {
-            def = quantityLexicon.getUnitbyName(reformatted);
-        }
-        parsedUnit.setUnitDefinition(def);
+        parsedUnit.setProductBlocks(parsed.getProductBlocks());
+        parsedUnit.setRawName(parsed.getName());
+        parsedUnit.setUnitRightAttachment(rightAttachment);
+        parsedUnit.setUnitDefinition(parsed.getDefinition());
         return parsedUnit;
     }
 
+    /**
+     * Parse a list of frequent units in advance, so that their first occurrences are served by
+     * the cache. The units are considered with a left attachment, the most frequent case.
+     *
+     * @return the number of units parsed
+     */
+    public int warmUpCache(List<String> rawNames) throws NormalizationException {
+        if (unitCache == null) {
+            return 0;
+        }
+        List<Unit> rawUnits = rawNames.stream()
+                .filter(name -> isNotBlank(name))
+                .map(Unit::new)
+                .collect(Collectors.toList());
+        Map<Unit, List<UnitBlock>> taggedUnits = tagUnits(rawUnits);
+        for (Unit rawUnit : rawUnits) {
+            parseUnit(rawUnit, taggedUnits);
+        }
+        return rawUnits.size();
+    }
+
     /**
      * Try to find the notation of each blocks
      */
@@ -109,6 +197,10 @@ public class UnitNormalizer {
         this.unitParser = unitParser;
     }
 
+    public void setUnitCache(UnitCache unitCache) {
+        this.unitCache = unitCache;
+    }
+
     public void setQuantityLexicon(QuantityLexicon quantityLexicon) {
         this.quantityLexicon = quantityLexicon;
     }
@@ -0,0 +1,137 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.data.ValueBlock;
+import org.grobid.core.utilities.OffsetPosition;
+
+/**
+ * Scanner recognising the raw values which are plain numbers, e.g. "12", "3.75", "-4" or "1,200",
+ * so that they can be parsed without calling the value CRF model.
+ * <p>
+ * A plain number has an optional sign (+, - or the minus sign), either digits or groups of three
+ * digits separated by commas, and an optional decimal part. The CRF labels such a value as a single
+ * number, so the scanner builds the same value block. The integers between 1000 and 2100 are left
+ * to the CRF, as they are most often years, labeled as time.
+ * <p>
+ * Everything else (alphabetic numbers, dates, powers of ten, exponents, ranges, values with spaces
+ * or extra symbols) goes through the CRF: their labeling is not uniform enough to be reproduced by
+ * a scanner.
+ */
+public class NumericValueScanner {
+
+    private static final int MIN_YEAR = 1000;
+    private static final int MAX_YEAR = 2100;
+
+    private NumericValueScanner() {
+    }
+
+    /**
+     * @return the value block of a plain number, or null if the value is not a plain number
+     */
+    public static ValueBlock scan(String rawValue) {
+        if (!isPlainNumber(rawValue)) {
+            return null;
+        }
+
+        ValueBlock valueBlock = new ValueBlock();
+        valueBlock.setRawValue(rawValue);
+        // the number is parsed with NumberFormat, which only accepts a leading -
+        valueBlock.setNumber(normalizeSign(rawValue));
+        valueBlock.getNumber().setOffsets(new OffsetPosition(0, rawValue.length()));
+        valueBlock.setRawTaggedValue("<number>" + rawValue + "</number>");
+
+        return valueBlock;
+    }
+
+    /**
+     * @return the number without its + sign, and with - for the minus sign
+     */
+    static String normalizeSign(String number) {
+        if (number.isEmpty()) {
+            return number;
+        }
+        switch (number.charAt(0)) {
+            case '+':
+                return number.substring(1);
+            case '−':
+                return "-" + number.substring(1);
+            default:
+                return number;
+        }
+    }
+
+    static boolean isPlainNumber(String text) {
+        if (text == null) {
+            return false;
+        }
+        int length = text.length();
+        int i = 0;
+        if (i < length && isSign(text.charAt(i))) {
+            i++;
+        }
+
+        // integer part: digits, or groups of three digits separated by commas
+        int integerStart = i;
+        while (i < length && isAsciiDigit(text.charAt(i))) {
+            i++;
+        }
+        int firstGroup = i - integerStart;
+        if (firstGroup == 0) {
+            return false;
+        }
+        boolean grouped = false;
+        while (i < length && text.charAt(i) == ',') {
+            if (firstGroup > 3 || !isDigitGroup(text, i + 1)) {
+                return false;
+            }
+            grouped = true;
+            i += 4;
+        }
+
+        // decimal part
+        boolean decimal = false;
+        if (i < length && text.charAt(i) == '.') {
+            int decimalStart = ++i;
+            while (i < length && isAsciiDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i == decimalStart) {
+                return false;
+            }
+            decimal = true;
+        }
+
+        if (i != length) {
+            return false;
+        }
+
+        return grouped || decimal || !isLikelyYear(text, integerStart);
+    }
+
+    private static boolean isLikelyYear(String text, int start) {
+        if (start != 0 || text.length() != 4) {
+            return false;
+        }
+        int year = Integer.parseInt(text);
+        return year >= MIN_YEAR && year <= MAX_YEAR;
+    }
+
+    private static boolean isDigitGroup(String text, int start) {
+        if (start + 3 > text.length()) {
+            return false;
+        }
+        for (int i = start; i < start + 3; i++) {
+            if (!isAsciiDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return start + 3 == text.length() || !isAsciiDigit(text.charAt(start + 3));
+    }
+
+    private static boolean isSign(char c) {
+        return c == '-' || c == '+' || c == '−';
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
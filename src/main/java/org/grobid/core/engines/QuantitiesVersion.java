@@ -0,0 +1,82 @@
+package org.grobid.core.engines;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.grobid.core.GrobidModel;
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Fingerprint of everything the extraction results depend on: the CRF models (path, size and
+ * last modification) and the lexical resources. It is used to key and invalidate the caches of
+ * results, so that a new model or a new release of units.json never serves outdated results.
+ * <p>
+ * The lexical resources are part of the classpath and are hashed once; the model files are then
+ * only checked (size and last modification) at most once every few seconds, by a single caller
+ * while the others keep the current fingerprint.
+ */
+public class QuantitiesVersion {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuantitiesVersion.class);
+
+    private static final long CHECK_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private static volatile String fingerprint = null;
+    private static final AtomicLong lastCheck = new AtomicLong();
+
+    public static String get() {
+        String current = fingerprint;
+        if (current == null) {
+            return init();
+        }
+        long now = System.nanoTime();
+        long last = lastCheck.get();
+        if ((now - last) > CHECK_INTERVAL_NANOS && lastCheck.compareAndSet(last, now)) {
+            String updated = compute();
+            if (!current.equals(updated)) {
+                LOGGER.info("The models have changed, the cached results are discarded.");
+                fingerprint = updated;
+            }
+            return updated;
+        }
+        return current;
+    }
+
+    private static synchronized String init() {
+        if (fingerprint == null) {
+            fingerprint = compute();
+            lastCheck.set(System.nanoTime());
+        }
+        return fingerprint;
+    }
+
+    private static String compute() {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (GrobidModel model : new GrobidModel[]{QuantitiesModels.QUANTITIES, QuantitiesModels.UNITS, QuantitiesModels.VALUES}) {
+            File modelFile = new File(model.getModelPath());
+            hasher.putString(modelFile.getAbsolutePath(), UTF_8);
+            hasher.putLong(modelFile.length());
+            hasher.putLong(modelFile.lastModified());
+        }
+        hasher.putString(ResourcesHolder.VERSION, UTF_8);
+        return hasher.hash().toString();
+    }
+
+    private static class ResourcesHolder {
+        private static final String VERSION = resourcesVersion();
+
+        private static String resourcesVersion() {
+            Hasher hasher = Hashing.sha256().newHasher();
+            for (String language : QuantityLexicon.LANGUAGES) {
+                hasher.putString(QuantityLexicon.getVersion(language), UTF_8);
+            }
+            return hasher.hash().toString();
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.data.Measurement;
+import org.grobid.core.exceptions.GrobidException;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.metrics.Counter;
+import org.grobid.core.metrics.Histogram;
+import org.grobid.core.metrics.MetricsRegistry;
+import org.grobid.core.utilities.QuantitiesProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Micro-batching of the text requests in front of the {@link QuantityParser}.
+ * <p>
+ * Each caller prepares the feature matrix of its text and queues it, a worker takes the first
+ * waiting text and keeps collecting the texts arriving within the batching window, until the
+ * maximum number of texts or of tokens is reached. The whole batch is then labeled with a single
+ * call to the CRF ({@link QuantityParser#labelSegments(List)}) and the labeled results are given
+ * back to each caller, which extracts and normalizes its measurements in its own thread: only the
+ * labeling is shared, the rest of the processing of the texts stays concurrent.
+ * <p>
+ * This trades a small latency (at most the window) for a much lower tagger overhead under load.
+ * The queue of the waiting texts is bounded: when it is full, or when the text is not labeled
+ * within the timeout (e.g. a stuck worker), the text is rejected, so that the clients retry later
+ * instead of piling up requests.
+ * It is disabled by default, see the grobid.quantities.batching.* settings.
+ */
+public class QuantityBatchScheduler {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuantityBatchScheduler.class);
+
+    private static volatile QuantityBatchScheduler instance;
+
+    private final QuantityParser quantityParser;
+    private final long windowNanos;
+    private final int maxTokens;
+    private final int maxTexts;
+    private final long timeoutMs;
+
+    private final BlockingQueue<PendingSegment> queue;
+
+    private final Counter rejected;
+    private final Histogram batchSizes;
+    private final Histogram batchTokens;
+    private final Histogram queueDelays;
+
+    public static boolean isEnabled() {
+        return QuantitiesProperties.getInstance().getBoolean(QuantitiesProperties.BATCHING_ENABLED, false);
+    }
+
+    public static QuantityBatchScheduler getInstance() {
+        if (instance == null) {
+            getNewInstance();
+        }
+        return instance;
+    }
+
+    private static synchronized void getNewInstance() {
+        if (instance == null) {
+            QuantitiesProperties properties = QuantitiesProperties.getInstance();
+            instance = new QuantityBatchScheduler(QuantityParser.getInstance(),
+                    properties.getLong(QuantitiesProperties.BATCHING_WINDOW_MS, 3),
+                    properties.getInt(QuantitiesProperties.BATCHING_MAX_TOKENS, 4000),
+                    properties.getInt(QuantitiesProperties.BATCHING_MAX_TEXTS, 64),
+                    properties.getInt(QuantitiesProperties.BATCHING_MAX_QUEUED, 1024),
+                    properties.getLong(QuantitiesProperties.BATCHING_TIMEOUT_MS, 30000),
+                    properties.getInt(QuantitiesProperties.BATCHING_WORKERS, 1));
+        }
+    }
+
+    QuantityBatchScheduler(QuantityParser quantityParser, long windowMs, int maxTokens, int maxTexts,
+                           int maxQueued, long timeoutMs, int workers) {
+        this.quantityParser = quantityParser;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxTokens = maxTokens;
+        this.maxTexts = maxTexts;
+        this.timeoutMs = timeoutMs;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, maxQueued));
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        rejected = metrics.counter("quantities_batching_rejected_total",
+                "Number of texts rejected because the queue of the micro-batching scheduler was full or the labeling timed out.");
+        batchSizes = metrics.histogram("quantities_batching_batch_size",
+                "Number of texts labeled together by the micro-batching scheduler.", Histogram.SIZE_BUCKETS);
+        batchTokens = metrics.histogram("quantities_batching_batch_tokens",
+                "Number of tokens labeled together by the micro-batching scheduler.", Histogram.SIZE_BUCKETS);
+        queueDelays = metrics.histogram("quantities_batching_queue_delay_seconds",
+                "Time spent by a text waiting for its batch to be labeled.", Histogram.LATENCY_BUCKETS);
+        metrics.gauge("quantities_batching_queue_length",
+                "Number of texts waiting to be batched.", queue::size);
+
+        LOGGER.info("Micro-batching of the text requests: window " + windowMs + " ms, at most "
+                + maxTexts + " texts or " + maxTokens + " tokens per batch, queue of " + maxQueued + ", "
+                + workers + " worker(s).");
+        for (int i = 0; i < workers; i++) {
+            Thread worker = new Thread(this::run, "quantities-batching-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Extract the measurements of a text, like {@link QuantityParser#process(String)}, labeling it
+     * together with the other texts submitted within the batching window.
+     *
+     * @throws RejectedExecutionException if the queue of the waiting texts is full, or if the text
+     *                                    is not labeled within the timeout
+     */
+    public List<Measurement> process(String text) {
+        List<Measurement> cached = quantityParser.getCachedResult(text);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<LayoutToken> tokens = quantityParser.tokenizeText(text);
+        if (tokens == null) {
+            return null;
+        }
+
+        QuantityParser.Segment segment = quantityParser.prepareSegment(tokens);
+        try {
+            if (!segment.isEmpty()) {
+                PendingSegment pending = new PendingSegment(segment);
+                if (!queue.offer(pending)) {
+                    rejected.inc();
+                    throw new RejectedExecutionException("The queue of the micro-batching scheduler is full.");
+                }
+                try {
+                    pending.labeled.get(timeoutMs, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    queue.remove(pending);
+                    rejected.inc();
+                    throw new RejectedExecutionException("The text has not been labeled within " + timeoutMs + " ms.");
+                }
+            }
+            List<Measurement> measurements = quantityParser.extractSegments(Collections.singletonList(segment)).get(0);
+            quantityParser.cacheResult(text, measurements);
+            return measurements;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GrobidException("Interrupted while waiting for the quantity extraction.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GrobidException("An exception occured while running Grobid.", e.getCause());
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            List<PendingSegment> batch;
+            try {
+                batch = nextBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            processBatch(batch);
+        }
+    }
+
+    /**
+     * Wait for a first text, then collect the texts arriving within the window from its arrival,
+     * until one of the limits of the batch is reached.
+     */
+    private List<PendingSegment> nextBatch() throws InterruptedException {
+        List<PendingSegment> batch = new ArrayList<>();
+        PendingSegment first = queue.take();
+        batch.add(first);
+        int tokens = first.size();
+
+        long deadline = first.enqueued + windowNanos;
+        while (batch.size() < maxTexts && tokens < maxTokens) {
+            // take what is already waiting without blocking, then wait until the end of the window
+            PendingSegment next = queue.poll();
+            if (next == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+            }
+            batch.add(next);
+            tokens += next.size();
+        }
+        return batch;
+    }
+
+    /**
+     * Label the segments of the batch, the callers are then released to process their result.
+     */
+    private void processBatch(List<PendingSegment> batch) {
+        List<QuantityParser.Segment> segments = new ArrayList<>();
+        int tokens = 0;
+        for (PendingSegment pending : batch) {
+            queueDelays.observeSince(pending.enqueued);
+            segments.add(pending.segment);
+            tokens += pending.size();
+        }
+        batchSizes.observe(batch.size());
+        batchTokens.observe(tokens);
+
+        try {
+            quantityParser.labelSegments(segments);
+            for (PendingSegment pending : batch) {
+                pending.labeled.complete(null);
+            }
+        } catch (Throwable t) {
+            for (PendingSegment pending : batch) {
+                pending.labeled.completeExceptionally(t);
+            }
+        }
+    }
+
+    private static class PendingSegment {
+        final QuantityParser.Segment segment;
+        final long enqueued = System.nanoTime();
+        final CompletableFuture<Void> labeled = new CompletableFuture<>();
+
+        PendingSegment(QuantityParser.Segment segment) {
+            this.segment = segment;
+        }
+
+        int size() {
+            return segment.getTokens().size();
+        }
+    }
+}
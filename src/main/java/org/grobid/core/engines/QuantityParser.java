@@ -21,6 +21,10 @@ import org.grobid.core.layout.BoundingBox;
 import org.grobid.core.layout.LayoutToken;
 import org.grobid.core.layout.LayoutTokenization;
 import org.grobid.core.lexicon.QuantityLexicon;
+import org.grobid.core.metrics.Counter;
+import org.grobid.core.metrics.Histogram;
+import org.grobid.core.metrics.MetricsRegistry;
+import org.grobid.core.metrics.StageMetrics;
 import org.grobid.core.tokenization.LabeledTokensContainer;
 import org.grobid.core.tokenization.TaggingTokenCluster;
 import org.grobid.core.tokenization.TaggingTokenClusteror;
@@ -32,6 +36,10 @@ import java.io.File;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import static org.apache.commons.collections4.CollectionUtils.isEmpty;
@@ -47,81 +55,323 @@ import static org.grobid.core.engines.label.QuantitiesTaggingLabels.*;
 public class QuantityParser extends AbstractParser {
     private static final Logger LOGGER = LoggerFactory.getLogger(QuantityParser.class);
 
-    private static volatile QuantityParser instance;
+    private static final Histogram RETOKENIZE_STAGE = StageMetrics.stage("retokenize");
+    private static final Histogram FEATURES_STAGE = StageMetrics.stage("features");
+    private static final Histogram LABEL_STAGE = StageMetrics.stage("quantities_label");
+    private static final Histogram EXTRACT_STAGE = StageMetrics.stage("extract");
+    private static final Histogram RESOLVE_STAGE = StageMetrics.stage("resolve");
+    private static final Histogram NORMALIZE_STAGE = StageMetrics.stage("normalize");
+    private static final Histogram SUBSTANCE_STAGE = StageMetrics.stage("substance");
+
+    private static final Counter PREFILTER_SKIPPED = MetricsRegistry.getInstance().counter(
+            "quantities_prefilter_skipped_segments_total",
+            "Number of segments without digit, number word or unit, not labeled by the CRF.");
+
+    // parsers by language, sharing the same models
+    private static final Map<String, QuantityParser> instances = new ConcurrentHashMap<>();
     private ValueParser valueParser = ValueParser.getInstance();
     private QuantifiedObjectParser substanceParser = QuantifiedObjectParser.getInstance();
-    private QuantityNormalizer quantityNormalizer = new QuantityNormalizer();
+    private QuantityNormalizer quantityNormalizer;
+    private TaggerPool taggerPool = TaggerPool.get(QuantitiesModels.QUANTITIES);
     private EngineParsers parsers;
 
+    /**
+     * @return the parser of the default language
+     */
     public static QuantityParser getInstance() {
-        if (instance == null) {
-            getNewInstance();
+        return getInstance(QuantityLexicon.DEFAULT_LANGUAGE);
+    }
+
+    /**
+     * @param lang a language code (e.g. fr), null for the default language
+     * @return the parser using the lexicon of the language
+     * @throws IllegalArgumentException if there is no lexicon for the language
+     */
+    public static QuantityParser getInstance(String lang) {
+        String language = QuantityLexicon.resolveLanguage(lang);
+        QuantityParser parser = instances.get(language);
+        if (parser == null) {
+            parser = getNewInstance(language);
         }
-        return instance;
+        return parser;
     }
 
-    private static synchronized void getNewInstance() {
-        instance = new QuantityParser();
+    private static synchronized QuantityParser getNewInstance(String language) {
+        QuantityParser parser = instances.get(language);
+        if (parser == null) {
+            parser = new QuantityParser(language);
+            instances.put(language, parser);
+        }
+        return parser;
     }
 
+    private final String language;
+    // locale of the numbers of the texts, e.g. with a decimal comma for fr and de
+    private final Locale locale;
     private QuantityLexicon quantityLexicon = null;
     private MeasurementOperations measurementOperations = null;
 
-    private QuantityParser() {
+    // cache of the measurements extracted from a text, weighed by their quantities, null if disabled
+    private ResultCache<List<Measurement>> textCache = null;
+
+    // filter of the segments which cannot contain a measurement, null if disabled
+    private QuantityPrefilter prefilter = null;
+
+    // arithmetic of the bounds of the intervals
+    private NumericMode numericMode = NumericMode.get();
+
+    private QuantityParser(String language) {
         super(QuantitiesModels.QUANTITIES);
-        quantityLexicon = QuantityLexicon.getInstance();
-        measurementOperations = new MeasurementOperations();
+        this.language = language;
+        this.locale = new Locale(language);
+        quantityLexicon = QuantityLexicon.getInstance(language);
+        quantityNormalizer = new QuantityNormalizer(language);
+        measurementOperations = new MeasurementOperations(language);
         parsers = new EngineParsers();
+
+        QuantitiesProperties properties = QuantitiesProperties.getInstance();
+        if (properties.getBoolean(QuantitiesProperties.CACHE_TEXT_ENABLED, true)) {
+            String cacheName = QuantityLexicon.DEFAULT_LANGUAGE.equals(language) ? "text" : "text_" + language;
+            textCache = new ResultCache<>(cacheName, properties.getLong(QuantitiesProperties.CACHE_TEXT_MAX_QUANTITIES, 100000),
+                    (digest, measurements) -> weigh(measurements), QuantitiesVersion::get);
+        }
+        if (properties.getBoolean(QuantitiesProperties.PREFILTER_ENABLED, true)) {
+            prefilter = new QuantityPrefilter(quantityLexicon);
+        }
+    }
+
+    public String getLanguage() {
+        return language;
     }
 
     public List<Measurement> process(List<LayoutToken> layoutTokens) {
+        return processBatch(Collections.singletonList(layoutTokens)).get(0);
+    }
 
-        List<Measurement> measurements = new ArrayList<>();
+    /**
+     * Extract all occurrences of measurement/quantities from several segments at once. The feature
+     * matrices of all the segments are labeled with a single call to the CRF, the result is then
+     * split back per segment, so the per call overhead of the tagger is paid once per batch. The
+     * raw values extracted from all the segments are likewise parsed with a single call to the
+     * value parser.
+     *
+     * @return the list of measurements of each segment, in the same order as the input
+     */
+    public List<List<Measurement>> processBatch(List<List<LayoutToken>> segments) {
+        try {
+            List<Segment> prepared = new ArrayList<>();
+            for (List<LayoutToken> layoutTokens : segments) {
+                prepared.add(prepareSegment(layoutTokens));
+            }
+            labelSegments(prepared);
+            return extractSegments(prepared);
+        } catch (GrobidException | NoSuchElementException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GrobidException("An exception occured while running Grobid.", e);
+        }
+    }
 
+    /**
+     * Retokenize a segment and compute its feature matrix, first step of {@link #processBatch(List)}.
+     */
+    public Segment prepareSegment(List<LayoutToken> layoutTokens) {
         // List<LayoutToken> for the selected segment
-        List<LayoutToken> tokens = QuantityAnalyzer.getInstance().retokenizeLayoutTokens(layoutTokens);
+        List<LayoutToken> tokens = null;
+        if (layoutTokens != null) {
+            long start = System.nanoTime();
+            tokens = QuantityAnalyzer.getInstance().retokenizeLayoutTokens(layoutTokens);
+            RETOKENIZE_STAGE.observeSince(start);
+        }
 
-        // list of textual tokens of the selected segment
-        //List<String> texts = getTexts(tokenizationParts);
+        if (prefilter != null && !isEmpty(tokens) && !prefilter.mayContainQuantity(tokens)) {
+            // nothing to label, the segment gets an empty result
+            PREFILTER_SKIPPED.inc();
+            tokens = null;
+        }
 
-        if (isEmpty(tokens))
-            return measurements;
+        String ress = null;
+        if (!isEmpty(tokens)) {
+            // string representation of the feature matrix for CRF lib
+            long start = System.nanoTime();
+            ress = addFeatures(tokens);
+            FEATURES_STAGE.observeSince(start);
+        }
+        return new Segment(tokens, ress);
+    }
+
+    /**
+     * Label the prepared segments with a single call to the CRF, second step of
+     * {@link #processBatch(List)}.
+     *
+     * @throws NoSuchElementException if no tagger is available within the timeout
+     */
+    public void labelSegments(List<Segment> segments) {
+        SequenceBatch batch = new SequenceBatch();
+        for (Segment segment : segments) {
+            batch.add(segment.features);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
 
+        // labeled result from CRF lib
+        String res = null;
+        long start = System.nanoTime();
         try {
-            // positions for lexical match
-            List<OffsetPosition> unitTokenPositions = quantityLexicon.inUnitNames(tokens);
+            res = taggerPool.label(batch.getFeatures());
+        } catch (NoSuchElementException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new GrobidException("CRF labeling for quantity parsing failed.", e);
+        } finally {
+            LABEL_STAGE.observeSince(start);
+        }
 
-            // string representation of the feature matrix for CRF lib
-            String ress = addFeatures(tokens, unitTokenPositions);
+        List<String> segmentResults = batch.split(res);
+        for (int i = 0; i < segments.size(); i++) {
+            segments.get(i).setLabeled(segmentResults.get(i));
+        }
+    }
+
+    /**
+     * Extract, resolve and normalize the measurements of the labeled segments, last step of
+     * {@link #processBatch(List)}.
+     *
+     * @return the list of measurements of each segment, in the same order as the input
+     */
+    public List<List<Measurement>> extractSegments(List<Segment> segments) {
+        List<List<Measurement>> results = new ArrayList<>();
+        if (segments.stream().allMatch(segment -> segment.getLabeled() == null)) {
+            for (int i = 0; i < segments.size(); i++)
+                results.add(new ArrayList<>());
+            return results;
+        }
 
-            if (StringUtils.isEmpty(ress))
-                return measurements;
+        // the values of all the segments are labeled together once the extraction is done
+        List<List<Measurement>> extracted = new ArrayList<>();
+        List<Quantity> pendingValues = new ArrayList<>();
+        for (Segment segment : segments) {
+            extracted.add(extractSegment(segment.getTokens(), segment.getLabeled(), pendingValues));
+        }
+        parseValues(pendingValues);
 
-            // labeled result from CRF lib
-            String res = null;
-            try {
-                res = label(ress);
-            } catch (Exception e) {
-                throw new GrobidException("CRF labeling for quantity parsing failed.", e);
-            }
+        for (int i = 0; i < extracted.size(); i++) {
+            extracted.set(i, resolveMeasurements(extracted.get(i)));
+        }
+
+        // likewise, the units not in the lexicon are labeled together before the normalisation
+        Map<Unit, List<UnitBlock>> taggedUnits = tagUnits(extracted.stream()
+                .flatMap(m -> quantitiesOf(m).stream())
+                .collect(Collectors.toList()));
+
+        for (int i = 0; i < segments.size(); i++) {
+            results.add(completeMeasurements(segments.get(i).getTokens(), extracted.get(i), taggedUnits));
+        }
+        return results;
+    }
+
+    /**
+     * A segment of {@link #processBatch(List)}: its retokenized tokens and their feature matrix,
+     * both null if there is nothing to label, then its labeled result.
+     */
+    public static final class Segment {
+        private final List<LayoutToken> tokens;
+        private final String features;
+        private String labeled;
+
+        Segment(List<LayoutToken> tokens, String features) {
+            this.tokens = tokens;
+            this.features = features;
+        }
 
-            List<Measurement> localMeasurements = extractMeasurement(tokens, res);
-            if (isEmpty(localMeasurements))
-                return measurements;
+        public List<LayoutToken> getTokens() {
+            return tokens;
+        }
+
+        /**
+         * @return true if the segment has nothing to label
+         */
+        public boolean isEmpty() {
+            return features == null;
+        }
+
+        public String getLabeled() {
+            return labeled;
+        }
+
+        void setLabeled(String labeled) {
+            this.labeled = labeled;
+        }
+    }
+
+    /**
+     * Extract the measurements of a segment from its labeled result, the values are added to
+     * pendingValues to be parsed later.
+     */
+    private List<Measurement> extractSegment(List<LayoutToken> tokens, String res, List<Quantity> pendingValues) {
+        if (isEmpty(tokens) || StringUtils.isEmpty(res))
+            return new ArrayList<>();
+
+        long start = System.nanoTime();
+        List<Measurement> localMeasurements = extractMeasurement(tokens, res, pendingValues);
+        EXTRACT_STAGE.observeSince(start);
+        return localMeasurements;
+    }
 
-            localMeasurements = measurementOperations.resolveMeasurement(localMeasurements);
-            try {
-                localMeasurements = normalizeMeasurements(localMeasurements);
-            } catch (Exception e) {
-                LOGGER.error("Normalisation failed. Skipping it. ", e);
+    /**
+     * Parse the raw values of the quantities with a single call to the value parser, with the
+     * number format of the language of the parser.
+     */
+    private void parseValues(List<Quantity> quantities) {
+        if (quantities.isEmpty())
+            return;
+
+        List<String> rawValues = quantities.stream()
+                .map(Quantity::getRawValue)
+                .collect(Collectors.toList());
+        List<Value> parsedValues = valueParser.parseValues(rawValues, locale);
+        for (int i = 0; i < quantities.size(); i++) {
+            if (parsedValues.get(i) != null) {
+                quantities.get(i).setParsedValue(parsedValues.get(i));
             }
-            localMeasurements = substanceParser.parseSubstance(tokens, localMeasurements);
+        }
+    }
+
+    private List<Measurement> resolveMeasurements(List<Measurement> localMeasurements) {
+        if (isEmpty(localMeasurements))
+            return localMeasurements;
+
+        long start = System.nanoTime();
+        localMeasurements = measurementOperations.resolveMeasurement(localMeasurements);
+        RESOLVE_STAGE.observeSince(start);
+        return localMeasurements;
+    }
+
+    /**
+     * Complete the resolved measurements of a segment: normalisation and attachment of the
+     * quantified substance.
+     */
+    private List<Measurement> completeMeasurements(List<LayoutToken> tokens, List<Measurement> localMeasurements,
+                                                   Map<Unit, List<UnitBlock>> taggedUnits) {
+        List<Measurement> measurements = new ArrayList<>();
+        if (isEmpty(localMeasurements))
+            return measurements;
 
-            measurements.addAll(localMeasurements);
+        long start = System.nanoTime();
+        try {
+            localMeasurements = normalizeMeasurements(localMeasurements, taggedUnits);
         } catch (Exception e) {
-            throw new GrobidException("An exception occured while running Grobid.", e);
+            LOGGER.error("Normalisation failed. Skipping it. ", e);
+        } finally {
+            NORMALIZE_STAGE.observeSince(start);
         }
 
+        start = System.nanoTime();
+        localMeasurements = substanceParser.parseSubstance(tokens, localMeasurements);
+        SUBSTANCE_STAGE.observeSince(start);
+
+        measurements.addAll(localMeasurements);
         return measurements;
     }
 
@@ -129,13 +379,106 @@ public class QuantityParser extends AbstractParser {
      * Extract all occurrences of measurement/quantities from a simple piece of text.
      */
     public List<Measurement> process(String text) {
+        return processTexts(Collections.singletonList(text)).get(0);
+    }
+
+    /**
+     * Extract all occurrences of measurement/quantities from several pieces of text, labeling
+     * them all in one CRF call. The texts already processed are taken from the cache of results.
+     *
+     * @return the list of measurements of each text, in the same order as the input. The list is
+     * null for a blank text, like for {@link #process(String)}.
+     */
+    public List<List<Measurement>> processTexts(List<String> texts) {
+        List<List<Measurement>> results = new ArrayList<>();
+        List<List<LayoutToken>> segments = new ArrayList<>();
+        List<Integer> segmentIndexes = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i);
+            List<Measurement> cached = getCachedResult(text);
+            results.add(cached);
+            if (cached == null) {
+                List<LayoutToken> tokens = tokenizeText(text);
+                if (tokens != null) {
+                    segments.add(tokens);
+                    segmentIndexes.add(i);
+                }
+            }
+        }
+
+        if (!segments.isEmpty()) {
+            List<List<Measurement>> batchResults = processBatch(segments);
+            for (int j = 0; j < segments.size(); j++) {
+                int i = segmentIndexes.get(j);
+                results.set(i, batchResults.get(j));
+                cacheResult(texts.get(i), batchResults.get(j));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return a copy of the cached measurements of a text, or null if the text has not been processed
+     * (or the cache is disabled)
+     */
+    List<Measurement> getCachedResult(String text) {
+        if (textCache == null || isBlank(text)) {
+            return null;
+        }
+        List<Measurement> cached = textCache.get(ResultCache.digest(normalizeText(text)));
+        return cached == null ? null : copyOf(cached);
+    }
+
+    /**
+     * The measurements are mutable, the cache holds its own copies and gives copies to the callers.
+     */
+    void cacheResult(String text, List<Measurement> measurements) {
+        if (textCache == null || isBlank(text) || measurements == null) {
+            return;
+        }
+        textCache.put(ResultCache.digest(normalizeText(text)), Collections.unmodifiableList(copyOf(measurements)));
+    }
+
+    private static List<Measurement> copyOf(List<Measurement> measurements) {
+        List<Measurement> copies = new ArrayList<>(measurements.size());
+        for (Measurement measurement : measurements) {
+            copies.add(measurement == null ? null : new Measurement(measurement));
+        }
+        return copies;
+    }
+
+    /**
+     * @return the weight of the measurements of a text in the cache: their number of quantities,
+     * plus one for the entry itself
+     */
+    static int weigh(List<Measurement> measurements) {
+        int weight = 1;
+        for (Measurement measurement : measurements) {
+            if (measurement == null) {
+                continue;
+            }
+            for (Quantity quantity : Arrays.asList(measurement.getQuantityAtomic(), measurement.getQuantityLeast(),
+                    measurement.getQuantityMost(), measurement.getQuantityBase(), measurement.getQuantityRange())) {
+                if (quantity != null) {
+                    weight++;
+                }
+            }
+            if (measurement.getQuantityList() != null) {
+                weight += measurement.getQuantityList().size();
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * Tokenize a piece of text, returns null if there is nothing to process.
+     */
+    public List<LayoutToken> tokenizeText(String text) {
         if (isBlank(text)) {
             return null;
         }
 
-        text = text.replace("\r", " ");
-        text = text.replace("\n", " ");
-        text = text.replace("\t", " ");
+        text = normalizeText(text);
 
         List<LayoutToken> tokens = null;
         try {
@@ -147,11 +490,20 @@ public class QuantityParser extends AbstractParser {
         if ((tokens == null) || (tokens.size() == 0)) {
             return null;
         }
-        return process(tokens);
+        return tokens;
+    }
+
+    private static String normalizeText(String text) {
+        text = text.replace("\r", " ");
+        text = text.replace("\n", " ");
+        text = text.replace("\t", " ");
+        return text;
     }
 
     public Pair<List<Measurement>, Document> extractQuantitiesPDF(File file) throws IOException {
         List<Measurement> measurements = new ArrayList<>();
+        // the segments of interest, labeled together at the end
+        List<List<LayoutToken>> segments = new ArrayList<>();
         Document doc = null;
         try {
             GrobidAnalysisConfig config =
@@ -183,19 +535,19 @@ public class QuantityParser extends AbstractParser {
                     // title
                     List<LayoutToken> titleTokens = resHeader.getLayoutTokens(TaggingLabels.HEADER_TITLE);
                     if (titleTokens != null) {
-                        measurements.addAll(process(titleTokens));
+                        segments.add(titleTokens);
                     }
 
                     // abstract
                     List<LayoutToken> abstractTokens = resHeader.getLayoutTokens(TaggingLabels.HEADER_ABSTRACT);
                     if (abstractTokens != null) {
-                        measurements.addAll(process(abstractTokens));
+                        segments.add(abstractTokens);
                     }
 
                     // keywords
                     List<LayoutToken> keywordTokens = resHeader.getLayoutTokens(TaggingLabels.HEADER_KEYWORD);
                     if (keywordTokens != null) {
-                        measurements.addAll(process(keywordTokens));
+                        segments.add(keywordTokens);
                     }
                 }
             }
@@ -228,11 +580,11 @@ public class QuantityParser extends AbstractParser {
                             //apply the figure model to only get the caption
                             final Figure processedFigure = parsers.getFigureParser()
                                     .processing(cluster.concatTokens(), cluster.getFeatureBlock());
-                            measurements.addAll(process(processedFigure.getCaptionLayoutTokens()));
+                            segments.add(processedFigure.getCaptionLayoutTokens());
                         } else if (cluster.getTaggingLabel().equals(TaggingLabels.TABLE)) {
                             //apply the table model to only get the caption/description 
                             final Table processedTable = parsers.getTableParser().processing(cluster.concatTokens(), cluster.getFeatureBlock());
-                            measurements.addAll(process(processedTable.getFullDescriptionTokens()));
+                            segments.add(processedTable.getFullDescriptionTokens());
                         } else {
                             final List<LabeledTokensContainer> labeledTokensContainers = cluster.getLabeledTokensContainers();
 
@@ -242,7 +594,7 @@ public class QuantityParser extends AbstractParser {
                                     .flatMap(List::stream)
                                     .collect(Collectors.toList());
 
-                            measurements.addAll(process(tokens));
+                            segments.add(tokens);
                         }
 
                     }
@@ -255,7 +607,11 @@ public class QuantityParser extends AbstractParser {
             // we can process annexes
             documentParts = doc.getDocumentPart(SegmentationLabels.ANNEX);
             if (documentParts != null) {
-                measurements.addAll(processDocumentPart(documentParts, doc));
+                segments.add(doc.getTokenizationParts(documentParts, doc.getTokenizations()));
+            }
+
+            for (List<Measurement> segmentMeasurements : processBatch(segments)) {
+                measurements.addAll(segmentMeasurements);
             }
 
         } catch (Exception e) {
@@ -267,17 +623,6 @@ public class QuantityParser extends AbstractParser {
         return new Pair<>(measurements, doc);
     }
 
-    /**
-     * Process with the quantity model a segment coming from the segmentation model
-     */
-    private List<Measurement> processDocumentPart(SortedSet<DocumentPiece> documentParts,
-                                                  Document doc) {
-        // List<LayoutToken> for the selected segment
-        List<LayoutToken> layoutTokens
-                = doc.getTokenizationParts(documentParts, doc.getTokenizations());
-        return process(layoutTokens);
-    }
-
     /**
      * Give the list of textual tokens from a list of LayoutToken
      */
@@ -296,18 +641,60 @@ public class QuantityParser extends AbstractParser {
         return texts;
     }*/
     public List<Measurement> normalizeMeasurements(List<Measurement> measurements) {
+        return normalizeMeasurements(measurements, tagUnits(quantitiesOf(measurements)));
+    }
+
+    /**
+     * Normalise a large list of measurements: the units of all the measurements are labeled in one
+     * pass, each raw unit object once, then the measurements are normalised by chunks of chunkSize
+     * run concurrently by the executor.
+     *
+     * @return the measurements, normalised in place and in the same order
+     */
+    public List<Measurement> normalizeMeasurements(List<Measurement> measurements, int chunkSize, ExecutorService executor) {
+        Map<Unit, List<UnitBlock>> taggedUnits = tagUnits(quantitiesOf(measurements));
+        if (executor == null || chunkSize <= 0 || measurements.size() <= chunkSize) {
+            return normalizeMeasurements(measurements, taggedUnits);
+        }
+
+        List<Future<?>> chunks = new ArrayList<>();
+        for (int from = 0; from < measurements.size(); from += chunkSize) {
+            List<Measurement> chunk = measurements.subList(from, Math.min(from + chunkSize, measurements.size()));
+            chunks.add(executor.submit(() -> normalizeMeasurements(chunk, taggedUnits)));
+        }
+        try {
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GrobidException("The normalisation of the measurements has been interrupted.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GrobidException("An exception occured while normalising the measurements.", e.getCause());
+        } finally {
+            for (Future<?> chunk : chunks) {
+                chunk.cancel(true);
+            }
+        }
+        return measurements;
+    }
+
+    private List<Measurement> normalizeMeasurements(List<Measurement> measurements, Map<Unit, List<UnitBlock>> taggedUnits) {
 
         for (Measurement measurement : measurements) {
             if (measurement.getType() == null)
                 continue;
             else if (measurement.getType() == UnitUtilities.Measurement_Type.VALUE) {
-                normalizeQuantity(measurement.getQuantityAtomic());
+                normalizeQuantity(measurement.getQuantityAtomic(), taggedUnits);
             } else if (measurement.getType() == UnitUtilities.Measurement_Type.INTERVAL_MIN_MAX) {
-                normalizeQuantity(measurement.getQuantityLeast());
-                normalizeQuantity(measurement.getQuantityMost());
+                normalizeQuantity(measurement.getQuantityLeast(), taggedUnits);
+                normalizeQuantity(measurement.getQuantityMost(), taggedUnits);
             } else if (measurement.getType() == UnitUtilities.Measurement_Type.INTERVAL_BASE_RANGE) {
-                normalizeQuantity(measurement.getQuantityBase());
-                normalizeQuantity(measurement.getQuantityRange());
+                normalizeQuantity(measurement.getQuantityBase(), taggedUnits);
+                normalizeQuantity(measurement.getQuantityRange(), taggedUnits);
                 // the two quantities below are normally not yet set-up
                 Quantity quantityLeast = calculateQuantityLeast(measurement.getQuantityBase(), measurement.getQuantityRange());
                 if (quantityLeast != null) {
@@ -332,7 +719,7 @@ public class QuantityParser extends AbstractParser {
                         //                    }
                         //                }
 
-                        normalizeQuantity(quantity);
+                        normalizeQuantity(quantity, taggedUnits);
                     }
                 }
             }
@@ -340,13 +727,53 @@ public class QuantityParser extends AbstractParser {
         return measurements;
     }
 
-    private void normalizeQuantity(Quantity quantity) {
+    /**
+     * Label the raw units of the quantities with a single call to the unit parser, see
+     * {@link QuantityNormalizer#tagUnits(List)}. If the labeling fails, the units are parsed one
+     * by one during the normalisation.
+     */
+    private Map<Unit, List<UnitBlock>> tagUnits(List<Quantity> quantities) {
+        try {
+            return quantityNormalizer.tagUnits(quantities);
+        } catch (NoSuchElementException e) {
+            throw e;
+        } catch (Exception e) {
+            LOGGER.warn("Labeling of the units failed, they will be parsed one by one. ", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * @return the quantities of the measurements which are normalised
+     */
+    private static List<Quantity> quantitiesOf(List<Measurement> measurements) {
+        List<Quantity> quantities = new ArrayList<>();
+        if (measurements == null)
+            return quantities;
+        for (Measurement measurement : measurements) {
+            if (measurement.getType() == UnitUtilities.Measurement_Type.VALUE) {
+                quantities.add(measurement.getQuantityAtomic());
+            } else if (measurement.getType() == UnitUtilities.Measurement_Type.INTERVAL_MIN_MAX) {
+                quantities.add(measurement.getQuantityLeast());
+                quantities.add(measurement.getQuantityMost());
+            } else if (measurement.getType() == UnitUtilities.Measurement_Type.INTERVAL_BASE_RANGE) {
+                quantities.add(measurement.getQuantityBase());
+                quantities.add(measurement.getQuantityRange());
+            } else if (measurement.getType() == UnitUtilities.Measurement_Type.CONJUNCTION
+                    && measurement.getQuantityList() != null) {
+                quantities.addAll(measurement.getQuantityList());
+            }
+        }
+        return quantities;
+    }
+
+    private void normalizeQuantity(Quantity quantity, Map<Unit, List<UnitBlock>> taggedUnits) {
         if (quantity == null)
             return;
         if (quantity.isNormalized())
             return;
         try {
-            Quantity.Normalized quantity1 = quantityNormalizer.normalizeQuantity(quantity);
+            Quantity.Normalized quantity1 = quantityNormalizer.normalizeQuantity(quantity, taggedUnits);
             if (quantity1 != null) {
                 quantity.setNormalizedQuantity(quantity1);
             }
@@ -365,13 +792,13 @@ public class QuantityParser extends AbstractParser {
             return null;
         }
         Quantity quantityLeast = new Quantity();
-        BigDecimal value = quantityBase.getParsedValue().getNumeric().subtract(quantityRange.getParsedValue().getNumeric());
+        BigDecimal value = numericMode.subtract(quantityBase.getParsedValue().getNumeric(), quantityRange.getParsedValue().getNumeric());
         quantityLeast.setParsedValue(new Value(value));
         quantityLeast.setRawValue(value.toString());
         quantityLeast.setParsedUnit(quantityBase.getParsedUnit());
         if ((quantityBase.isNormalized()) && (quantityRange.isNormalized())) {
             Quantity.Normalized normalizedQuantity = new Quantity().new Normalized();
-            normalizedQuantity.setValue(quantityBase.getNormalizedQuantity().getValue().subtract(quantityRange.getNormalizedQuantity().getValue()));
+            normalizedQuantity.setValue(numericMode.subtract(quantityBase.getNormalizedQuantity().getValue(), quantityRange.getNormalizedQuantity().getValue()));
             normalizedQuantity.setUnit(quantityBase.getNormalizedQuantity().getUnit());
             quantityLeast.setNormalizedQuantity(normalizedQuantity);
         }
@@ -388,13 +815,13 @@ public class QuantityParser extends AbstractParser {
             return null;
 
         Quantity quantityMost = new Quantity();
-        BigDecimal value = quantityBase.getParsedValue().getNumeric().add(quantityRange.getParsedValue().getNumeric());
+        BigDecimal value = numericMode.add(quantityBase.getParsedValue().getNumeric(), quantityRange.getParsedValue().getNumeric());
         quantityMost.setParsedValue(new Value(value));
         quantityMost.setRawValue(value.toString());
         quantityMost.setParsedUnit(quantityBase.getParsedUnit());
         if ((quantityBase.isNormalized()) && (quantityRange.isNormalized())) {
             Quantity.Normalized normalizedQuantity = new Quantity().new Normalized();
-            normalizedQuantity.setValue(quantityBase.getNormalizedQuantity().getValue().add(quantityRange.getNormalizedQuantity().getValue()));
+            normalizedQuantity.setValue(numericMode.add(quantityBase.getNormalizedQuantity().getValue(), quantityRange.getNormalizedQuantity().getValue()));
             normalizedQuantity.setUnit(quantityBase.getNormalizedQuantity().getUnit());
             quantityMost.setNormalizedQuantity(normalizedQuantity);
         }
@@ -411,14 +838,12 @@ public class QuantityParser extends AbstractParser {
     }
 
 
-    @SuppressWarnings({"UnusedParameters"})
-    private String addFeatures(List<LayoutToken> tokens,
-                               List<OffsetPosition> unitTokenPositions) {
-        int totalLine = tokens.size();
-        int posit = 0;
-        int currentQuantityIndex = 0;
-        List<OffsetPosition> localPositions = unitTokenPositions;
-        boolean isUnitPattern = false;
+    /**
+     * The unit pattern feature is not part of the vector the models are trained with (see
+     * {@link FeaturesVectorQuantities#printVector()}), so the tokens are not matched against the
+     * unit terms of the lexicon here.
+     */
+    private String addFeatures(List<LayoutToken> tokens) {
         StringBuilder result = new StringBuilder();
         try {
             for (LayoutToken token : tokens) {
@@ -438,32 +863,12 @@ public class QuantityParser extends AbstractParser {
                     continue;
                 }
 
-                isUnitPattern = true;
-
-                // do we have a unit at position posit?
-                if ((localPositions != null) && (localPositions.size() > 0)) {
-                    for (int mm = currentQuantityIndex; mm < localPositions.size(); mm++) {
-                        if ((posit >= localPositions.get(mm).start) && (posit <= localPositions.get(mm).end)) {
-                            isUnitPattern = true;
-                            currentQuantityIndex = mm;
-                            break;
-                        } else if (posit < localPositions.get(mm).start) {
-                            isUnitPattern = false;
-                            break;
-                        } else if (posit > localPositions.get(mm).end) {
-                            continue;
-                        }
-                    }
-                }
-
                 FeaturesVectorQuantities featuresVector =
                         FeaturesVectorQuantities.addFeaturesQuantities(text, null,
-                                quantityLexicon.inUnitDictionary(text), isUnitPattern,
+                                quantityLexicon.inUnitDictionary(text), false,
                                 quantityLexicon.isNumberToken(text));
                 result.append(featuresVector.printVector());
                 result.append("\n");
-                posit++;
-                isUnitPattern = false;
             }
         } catch (Exception e) {
             throw new GrobidException("An exception occured while running Grobid.", e);
@@ -475,6 +880,18 @@ public class QuantityParser extends AbstractParser {
      * Extract identified quantities from a labeled text.
      */
     public List<Measurement> extractMeasurement(List<LayoutToken> tokens, String result) {
+        List<Quantity> pendingValues = new ArrayList<>();
+        List<Measurement> measurements = extractMeasurement(tokens, result, pendingValues);
+        parseValues(pendingValues);
+        return measurements;
+    }
+
+    /**
+     * Extract identified quantities from a labeled text, without parsing their values: the
+     * quantities are added to pendingValues, so that the values of several segments can be
+     * parsed together with {@link #parseValues(List)}.
+     */
+    private List<Measurement> extractMeasurement(List<LayoutToken> tokens, String result, List<Quantity> pendingValues) {
         List<Measurement> measurements = new ArrayList<>();
 
         TaggingTokenClusteror clusteror = new TaggingTokenClusteror(QuantitiesModels.QUANTITIES, result, tokens);
@@ -531,10 +948,7 @@ public class QuantityParser extends AbstractParser {
                 }
                 currentQuantity = new Quantity();
                 currentQuantity.setRawValue(clusterContent);
-                final Value parsedValue = valueParser.parseValue(currentQuantity.getRawValue());
-                if (parsedValue != null) {
-                    currentQuantity.setParsedValue(parsedValue);
-                }
+                pendingValues.add(currentQuantity);
                 currentQuantity.setOffsetStart(pos);
                 currentQuantity.setOffsetEnd(endPos);
                 currentMeasurement.setType(UnitUtilities.Measurement_Type.VALUE);
@@ -563,10 +977,7 @@ public class QuantityParser extends AbstractParser {
                 }
                 currentQuantity = new Quantity();
                 currentQuantity.setRawValue(clusterContent);
-                final Value parsedValue = valueParser.parseValue(currentQuantity.getRawValue());
-                if (parsedValue != null) {
-                    currentQuantity.setParsedValue(parsedValue);
-                }
+                pendingValues.add(currentQuantity);
                 currentQuantity.setOffsetStart(pos);
                 currentQuantity.setOffsetEnd(endPos);
                 if (currentUnit.getRawName() != null) {
@@ -588,10 +999,7 @@ public class QuantityParser extends AbstractParser {
                 }
                 currentQuantity = new Quantity();
                 currentQuantity.setRawValue(clusterContent);
-                final Value parsedValue = valueParser.parseValue(currentQuantity.getRawValue());
-                if (parsedValue != null) {
-                    currentQuantity.setParsedValue(parsedValue);
-                }
+                pendingValues.add(currentQuantity);
                 currentQuantity.setOffsetStart(pos);
                 currentQuantity.setOffsetEnd(endPos);
                 if (currentUnit.getRawName() != null) {
@@ -613,10 +1021,7 @@ public class QuantityParser extends AbstractParser {
                 }
                 currentQuantity = new Quantity();
                 currentQuantity.setRawValue(clusterContent);
-                final Value parsedValue = valueParser.parseValue(currentQuantity.getRawValue());
-                if (parsedValue != null) {
-                    currentQuantity.setParsedValue(parsedValue);
-                }
+                pendingValues.add(currentQuantity);
                 currentQuantity.setOffsetStart(pos);
                 currentQuantity.setOffsetEnd(endPos);
                 if (currentUnit.getRawName() != null) {
@@ -638,10 +1043,7 @@ public class QuantityParser extends AbstractParser {
                 }
                 currentQuantity = new Quantity();
                 currentQuantity.setRawValue(clusterContent);
-                final Value parsedValue = valueParser.parseValue(currentQuantity.getRawValue());
-                if (parsedValue != null) {
-                    currentQuantity.setParsedValue(parsedValue);
-                }
+                pendingValues.add(currentQuantity);
                 currentQuantity.setOffsetStart(pos);
                 currentQuantity.setOffsetEnd(endPos);
                 if (currentUnit.getRawName() != null) {
@@ -662,10 +1064,7 @@ public class QuantityParser extends AbstractParser {
                 }
                 currentQuantity = new Quantity();
                 currentQuantity.setRawValue(clusterContent);
-                final Value parsedValue = valueParser.parseValue(currentQuantity.getRawValue());
-                if (parsedValue != null) {
-                    currentQuantity.setParsedValue(parsedValue);
-                }
+                pendingValues.add(currentQuantity);
                 currentQuantity.setOffsetStart(pos);
                 currentQuantity.setOffsetEnd(endPos);
 
@@ -0,0 +1,70 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.lexicon.QuantityLexicon;
+
+import java.util.List;
+
+/**
+ * Cheap test telling whether a segment can contain a measurement, used to skip the CRF labeling
+ * of the segments which cannot.
+ * <p>
+ * A segment is kept if one of its tokens contains a digit (or a fraction like ½), is a number
+ * word (possibly in the plural, e.g. "thousands") or is a unit token of the lexicon. The unit
+ * tokens of one or two characters ("a", "in", "at", "of", ...) are ignored, as they match almost
+ * every sentence.
+ * <p>
+ * On the annotated corpus and the evaluation set, every paragraph containing a measure passes
+ * the filter, see QuantityPrefilterTest.
+ */
+public class QuantityPrefilter {
+
+    private static final int MIN_UNIT_TOKEN_LENGTH = 3;
+
+    private final QuantityLexicon quantityLexicon;
+
+    public QuantityPrefilter(QuantityLexicon quantityLexicon) {
+        this.quantityLexicon = quantityLexicon;
+    }
+
+    /**
+     * @return false if the segment cannot contain any measurement
+     */
+    public boolean mayContainQuantity(List<LayoutToken> tokens) {
+        if (tokens == null) {
+            return false;
+        }
+        for (LayoutToken token : tokens) {
+            String text = token.getText();
+            if (text == null || text.isEmpty()) {
+                continue;
+            }
+            if (hasDigit(text)) {
+                return true;
+            }
+            String lowerCase = text.toLowerCase();
+            if (quantityLexicon.isNumberToken(lowerCase)) {
+                return true;
+            }
+            if (lowerCase.length() > 1 && lowerCase.endsWith("s")
+                    && quantityLexicon.isNumberToken(lowerCase.substring(0, lowerCase.length() - 1))) {
+                return true;
+            }
+            if (lowerCase.length() >= MIN_UNIT_TOKEN_LENGTH && quantityLexicon.inUnitDictionary(lowerCase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasDigit(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            // OTHER_NUMBER covers the vulgar fractions and the superscript digits, e.g. ½ or ²
+            if (Character.isDigit(c) || Character.getType(c) == Character.OTHER_NUMBER) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,154 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.GrobidModel;
+import org.grobid.core.engines.tagging.GenericTagger;
+import org.grobid.core.engines.tagging.GrobidCRFEngine;
+import org.grobid.core.engines.tagging.TaggerFactory;
+import org.grobid.core.engines.tagging.WapitiTagger;
+import org.grobid.core.metrics.Counter;
+import org.grobid.core.metrics.Histogram;
+import org.grobid.core.metrics.MetricsRegistry;
+import org.grobid.core.utilities.GrobidProperties;
+import org.grobid.core.utilities.QuantitiesProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of taggers for a model.
+ * <p>
+ * A Wapiti model labels one sequence at a time, so the singleton parsers sharing one tagger
+ * serialise all the requests on the labeling. The pool holds up to poolSize taggers of the same
+ * model, created lazily when the concurrency requires it: a request checks out a tagger, labels
+ * its sequences and returns it. Each tagger loads its own copy of the model, so by default the
+ * pool holds a single tagger, as before the pools, and a larger pool is set explicitly. If no
+ * tagger is available within the timeout, a NoSuchElementException is thrown, which the services
+ * answer with 503.
+ * <p>
+ * The statistics of each pool (size, taggers in use, waiting time, timeouts) are exported as
+ * metrics: a high waiting time with all the taggers in use means the service is pool-bound, a
+ * low one means it is CPU-bound.
+ */
+public class TaggerPool {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaggerPool.class);
+
+    private static final Map<String, TaggerPool> pools = new ConcurrentHashMap<>();
+
+    // each tagger holds a copy of the model in memory
+    private static final int DEFAULT_POOL_SIZE = 1;
+
+    private final GrobidModel model;
+    private final int maxSize;
+    private final long timeoutMs;
+
+    private final BlockingQueue<GenericTagger> idle = new LinkedBlockingQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger inUse = new AtomicInteger();
+
+    private final Histogram waits;
+    private final Counter timeouts;
+
+    public static TaggerPool get(GrobidModel model) {
+        return pools.computeIfAbsent(model.getModelName(), name -> new TaggerPool(model));
+    }
+
+    private TaggerPool(GrobidModel model) {
+        this.model = model;
+        String name = model.getModelName();
+
+        QuantitiesProperties properties = QuantitiesProperties.getInstance();
+        int defaultSize = properties.getInt(QuantitiesProperties.TAGGERS_POOL_SIZE, DEFAULT_POOL_SIZE);
+        int poolSize = properties.getInt(QuantitiesProperties.TAGGERS_POOL_SIZE + "." + name, defaultSize);
+        if (GrobidProperties.getGrobidCRFEngine() != GrobidCRFEngine.WAPITI && poolSize > 1) {
+            LOGGER.info("Only Wapiti taggers can be pooled, using a single tagger for the model " + name);
+            poolSize = 1;
+        }
+        maxSize = Math.max(1, poolSize);
+        timeoutMs = properties.getLong(QuantitiesProperties.TAGGERS_TIMEOUT_MS, 10000);
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        waits = metrics.histogram("quantities_tagger_wait_seconds", "Time waited to check out a tagger.",
+                Histogram.LATENCY_BUCKETS, "model", name);
+        timeouts = metrics.counter("quantities_tagger_timeouts_total", "Number of check outs which timed out.",
+                "model", name);
+        metrics.gauge("quantities_tagger_pool_size", "Number of taggers created.", "model", name, size::get);
+        metrics.gauge("quantities_tagger_pool_max_size", "Maximum number of taggers.", "model", name, () -> maxSize);
+        metrics.gauge("quantities_tagger_in_use", "Number of taggers checked out.", "model", name, inUse::get);
+
+        LOGGER.info("Pool of at most " + maxSize + " tagger(s) for the model " + name);
+    }
+
+    /**
+     * Label the data with a tagger of the pool.
+     *
+     * @throws NoSuchElementException if no tagger is available within the timeout
+     */
+    public String label(String data) {
+        GenericTagger tagger = checkOut();
+        try {
+            return tagger.label(data);
+        } finally {
+            checkIn(tagger);
+        }
+    }
+
+    public GenericTagger checkOut() {
+        long start = System.nanoTime();
+        GenericTagger tagger = idle.poll();
+        if (tagger == null) {
+            tagger = create();
+        }
+        if (tagger == null) {
+            try {
+                tagger = idle.poll(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        waits.observeSince(start);
+        if (tagger == null) {
+            timeouts.inc();
+            throw new NoSuchElementException("No tagger available for the model " + model.getModelName()
+                    + " within " + timeoutMs + " ms");
+        }
+        inUse.incrementAndGet();
+        return tagger;
+    }
+
+    public void checkIn(GenericTagger tagger) {
+        inUse.decrementAndGet();
+        idle.add(tagger);
+    }
+
+    /**
+     * @return a new tagger, or null if the pool has reached its maximum size
+     */
+    private GenericTagger create() {
+        int current;
+        do {
+            current = size.get();
+            if (current >= maxSize) {
+                return null;
+            }
+        } while (!size.compareAndSet(current, current + 1));
+
+        try {
+            if (current == 0) {
+                // the first tagger is the one shared with the parsers, already loaded
+                return TaggerFactory.getTagger(model);
+            }
+            LOGGER.info("Creating tagger " + (current + 1) + "/" + maxSize + " for the model " + model.getModelName());
+            return new WapitiTagger(model);
+        } catch (RuntimeException e) {
+            size.decrementAndGet();
+            throw e;
+        }
+    }
+}
@@ -6,16 +6,24 @@ import org.grobid.core.engines.label.TaggingLabel;
 import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.features.FeaturesVectorUnits;
 import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.metrics.Histogram;
+import org.grobid.core.metrics.StageMetrics;
 import org.grobid.core.lexicon.QuantityLexicon;
 import org.grobid.core.tokenization.TaggingTokenCluster;
 import org.grobid.core.tokenization.TaggingTokenClusteror;
 import org.grobid.core.utilities.LayoutTokensUtil;
 import org.grobid.core.utilities.OffsetPosition;
+import org.grobid.core.utilities.SequenceBatch;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.grobid.core.engines.label.QuantitiesTaggingLabels.UNIT_VALUE_OTHER;
@@ -28,24 +36,44 @@ import static org.grobid.core.engines.label.QuantitiesTaggingLabels.VALUE_VALUE_
 public class UnitParser extends AbstractParser {
     private static final Logger LOGGER = LoggerFactory.getLogger(UnitParser.class);
 
-    private static volatile UnitParser instance;
+    private static final Histogram LABEL_STAGE = StageMetrics.stage("units_label");
+
+    // parsers by language, sharing the same model
+    private static final Map<String, UnitParser> instances = new ConcurrentHashMap<>();
+
+    private final TaggerPool taggerPool = TaggerPool.get(QuantitiesModels.UNITS);
 
     public static UnitParser getInstance() {
-        if (instance == null) {
-            getNewInstance();
+        return getInstance(QuantityLexicon.DEFAULT_LANGUAGE);
+    }
+
+    /**
+     * @return the parser using the lexicon of the language for the features
+     * @throws IllegalArgumentException if there is no lexicon for the language
+     */
+    public static UnitParser getInstance(String lang) {
+        String language = QuantityLexicon.resolveLanguage(lang);
+        UnitParser parser = instances.get(language);
+        if (parser == null) {
+            parser = getNewInstance(language);
         }
-        return instance;
+        return parser;
     }
 
-    private static synchronized void getNewInstance() {
-        instance = new UnitParser();
+    private static synchronized UnitParser getNewInstance(String language) {
+        UnitParser parser = instances.get(language);
+        if (parser == null) {
+            parser = new UnitParser(language);
+            instances.put(language, parser);
+        }
+        return parser;
     }
 
     private QuantityLexicon quantityLexicon = null;
 
-    private UnitParser() {
+    private UnitParser(String language) {
         super(QuantitiesModels.UNITS);
-        quantityLexicon = QuantityLexicon.getInstance();
+        quantityLexicon = QuantityLexicon.getInstance(language);
     }
 
     /**
@@ -57,41 +85,87 @@ public class UnitParser extends AbstractParser {
     }
 
     public List<UnitBlock> tagUnit(String text, boolean isUnitLeft) {
-        if (isBlank(text)) {
-            return null;
-        }
+        return tagUnits(Collections.singletonList(text), Collections.singletonList(isUnitLeft)).get(0);
+    }
 
-        //Remove spaces. It's a workaround (to be check whether it is working) because spaces are causing troubles
-//        text = text.replaceAll(" ", "");
-        List<UnitBlock> units = new ArrayList<>();
+    /**
+     * Label several units at once: the character sequences of the distinct units are separated
+     * by blank lines and labeled with a single call to the CRF. A unit string appearing several
+     * times (with the same attachment) is labeled only once.
+     *
+     * @return the unit blocks of each text, in the same order as the texts, null for a blank text
+     */
+    public List<List<UnitBlock>> tagUnits(List<String> texts, List<Boolean> isUnitLeft) {
+        List<List<UnitBlock>> units = new ArrayList<>();
 
         try {
-            //text = text.replace("\n", " "); // temporary fix... 
-            text = text.replace("\n", "");
-            List<LayoutToken> tokenizations = new ArrayList<>();
-
-            String ress = null;
-            List<String> characters = new ArrayList<>();
-            List<OffsetPosition> unitTokenPositions = new ArrayList<>();
-            for (char character : text.toCharArray()) {
-                characters.add(String.valueOf(character));
-                OffsetPosition position = new OffsetPosition();
-                position.start = text.indexOf(character);
-                position.end = text.indexOf(character) + 1;
-                LayoutToken lt = new LayoutToken(String.valueOf(character));
-                tokenizations.add(lt);
-
-                unitTokenPositions.add(position);
+            // index in the batch of each distinct (attachment, text)
+            Map<String, Integer> sequenceIndexes = new HashMap<>();
+            List<Integer> sequences = new ArrayList<>();
+            List<List<LayoutToken>> allTokenizations = new ArrayList<>();
+            SequenceBatch batch = new SequenceBatch();
+            for (int i = 0; i < texts.size(); i++) {
+                String text = texts.get(i);
+                if (isBlank(text)) {
+                    sequences.add(null);
+                    allTokenizations.add(null);
+                    continue;
+                }
+
+                //text = text.replace("\n", " "); // temporary fix...
+                text = text.replace("\n", "");
+                List<LayoutToken> tokenizations = new ArrayList<>();
+                List<String> characters = new ArrayList<>();
+                List<OffsetPosition> unitTokenPositions = new ArrayList<>();
+                for (char character : text.toCharArray()) {
+                    characters.add(String.valueOf(character));
+                    OffsetPosition position = new OffsetPosition();
+                    position.start = text.indexOf(character);
+                    position.end = text.indexOf(character) + 1;
+                    tokenizations.add(new LayoutToken(String.valueOf(character)));
+
+                    unitTokenPositions.add(position);
+                }
+                allTokenizations.add(tokenizations);
+
+                boolean left = isUnitLeft.get(i);
+                String key = (left ? "L" : "R") + text;
+                Integer index = sequenceIndexes.get(key);
+                if (index == null) {
+                    index = batch.add(addFeatures(characters, unitTokenPositions, left));
+                    sequenceIndexes.put(key, index);
+                }
+                sequences.add(index);
             }
 
-            ress = addFeatures(characters, unitTokenPositions, isUnitLeft);
-            String res;
-            try {
-                res = label(ress);
-            } catch (Exception e) {
-                throw new GrobidException("CRF labeling for quantity parsing failed.", e);
+            List<String> results = new ArrayList<>();
+            if (!batch.isEmpty()) {
+                String res;
+                long start = System.nanoTime();
+                try {
+                    res = taggerPool.label(batch.getFeatures());
+                } catch (NoSuchElementException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new GrobidException("CRF labeling for quantity parsing failed.", e);
+                } finally {
+                    LABEL_STAGE.observeSince(start);
+                }
+                results = batch.split(res);
+            }
+
+            for (int i = 0; i < texts.size(); i++) {
+                Integer index = sequences.get(i);
+                if (index == null) {
+                    units.add(null);
+                } else {
+                    // the blocks are extracted for each text, so that the duplicates do not share them
+                    String res = index < results.size() ? results.get(index) : "";
+                    units.add(resultExtraction(res, allTokenizations.get(i)));
+                }
             }
-            units = resultExtraction(res, tokenizations);
+        } catch (NoSuchElementException e) {
+            throw e;
         } catch (Exception e) {
             throw new GrobidException("An exception occurred while running Grobid.", e);
         }
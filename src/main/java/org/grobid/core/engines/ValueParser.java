@@ -7,21 +7,32 @@ import org.grobid.core.engines.label.TaggingLabel;
 import org.grobid.core.exceptions.GrobidException;
 import org.grobid.core.features.FeaturesVectorValues;
 import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.metrics.Counter;
+import org.grobid.core.metrics.Histogram;
+import org.grobid.core.metrics.MetricsRegistry;
+import org.grobid.core.metrics.StageMetrics;
 import org.grobid.core.tokenization.TaggingTokenCluster;
 import org.grobid.core.tokenization.TaggingTokenClusteror;
 import org.grobid.core.utilities.LayoutTokensUtil;
+import org.grobid.core.utilities.NumericMode;
 import org.grobid.core.utilities.OffsetPosition;
+import org.grobid.core.utilities.QuantitiesProperties;
+import org.grobid.core.utilities.ResultCache;
+import org.grobid.core.utilities.SequenceBatch;
 import org.grobid.core.utilities.WordsToNumber;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.text.NumberFormat;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 import static org.apache.commons.lang3.StringUtils.*;
 import static org.grobid.core.engines.label.QuantitiesTaggingLabels.*;
@@ -34,8 +45,25 @@ import static org.grobid.core.engines.label.QuantitiesTaggingLabels.*;
 public class ValueParser extends AbstractParser {
     private static final Logger LOGGER = LoggerFactory.getLogger(ValueParser.class);
 
+    private static final Histogram LABEL_STAGE = StageMetrics.stage("values_label");
+
+    private static final Counter SCANNED_VALUES = MetricsRegistry.getInstance().counter("quantities_values_parsed_total",
+            "Number of values parsed, by the numeric scanner or by the CRF.", "path", "scanner");
+    private static final Counter LABELED_VALUES = MetricsRegistry.getInstance().counter("quantities_values_parsed_total",
+            "Number of values parsed, by the numeric scanner or by the CRF.", "path", "crf");
+
     private static volatile ValueParser instance;
 
+    private final TaggerPool taggerPool = TaggerPool.get(QuantitiesModels.VALUES);
+
+    // cache of the parsed values, keyed by locale and raw value, null if disabled
+    private ResultCache<Value> valueCache = null;
+
+    // the plain numbers are parsed by the NumericValueScanner instead of the CRF, in English only
+    private boolean scannerEnabled;
+
+    private NumericMode numericMode = NumericMode.get();
+
     public static ValueParser getInstance() {
         if (instance == null) {
             getNewInstance();
@@ -49,6 +77,13 @@ public class ValueParser extends AbstractParser {
 
     protected ValueParser() {
         super(QuantitiesModels.VALUES);
+
+        QuantitiesProperties properties = QuantitiesProperties.getInstance();
+        if (properties.getBoolean(QuantitiesProperties.CACHE_VALUES_ENABLED, true)) {
+            valueCache = new ResultCache<>("values", properties.getLong(QuantitiesProperties.CACHE_VALUES_MAX_ENTRIES, 10000),
+                    null, QuantitiesVersion::get);
+        }
+        scannerEnabled = properties.getBoolean(QuantitiesProperties.VALUES_SCANNER_ENABLED, true);
     }
 
     public Value parseValue(String rawValue) {
@@ -56,15 +91,103 @@ public class ValueParser extends AbstractParser {
     }
 
     public Value parseValue(String rawValue, Locale locale) {
+        return parseValues(Collections.singletonList(rawValue), locale).get(0);
+    }
+
+    public List<Value> parseValues(List<String> rawValues) {
+        return parseValues(rawValues, Locale.ENGLISH);
+    }
+
+    /**
+     * Parse several raw values at once, all of them are labeled with a single call to the CRF.
+     * The plain numbers of the English texts are recognised by the {@link NumericValueScanner}
+     * without labeling, the values already parsed are taken from the cache, and a value repeated
+     * in the list is labeled only once.
+     *
+     * @param locale the locale of the texts, giving the decimal and grouping separators of the numbers
+     *
+     * @return the parsed values, in the same order as the raw values. Each one is a new object,
+     * which can be modified by the caller.
+     */
+    public List<Value> parseValues(List<String> rawValues, Locale locale) {
+        List<Value> values = new ArrayList<>(Collections.nCopies(rawValues.size(), (Value) null));
+
+        // positions of each raw value to be labeled
+        Map<String, List<Integer>> missed = new LinkedHashMap<>();
+        // the scanner reads the comma as a grouping separator, which is a decimal one in e.g. fr or de
+        boolean scanning = scannerEnabled && Locale.ENGLISH.getLanguage().equals(locale.getLanguage());
+        for (int i = 0; i < rawValues.size(); i++) {
+            String rawValue = rawValues.get(i);
+            ValueBlock scanned = scanning ? NumericValueScanner.scan(rawValue) : null;
+            if (scanned != null) {
+                SCANNED_VALUES.inc();
+                final Value resultValue = new Value();
+                resultValue.setNumeric(parseValueBlock(scanned, locale));
+                resultValue.setStructure(scanned);
+                values.set(i, resultValue);
+                continue;
+            }
+            Value cached = getCachedValue(rawValue, locale);
+            if (cached != null) {
+                values.set(i, cached);
+            } else {
+                missed.computeIfAbsent(rawValue, k -> new ArrayList<>()).add(i);
+            }
+        }
+        if (missed.isEmpty()) {
+            return values;
+        }
 
-        ValueBlock block = tagValue(rawValue);
+        List<String> toLabel = new ArrayList<>(missed.keySet());
+        LABELED_VALUES.inc(toLabel.size());
+        List<ValueBlock> blocks = tagValues(toLabel);
+        for (int j = 0; j < toLabel.size(); j++) {
+            ValueBlock block = blocks.get(j);
+            BigDecimal numeric = block == null ? null : parseValueBlock(block, locale);
+            final Value resultValue = new Value();
+            resultValue.setNumeric(numeric);
+            resultValue.setStructure(block);
+            cacheValue(toLabel.get(j), locale, resultValue);
+
+            for (int i : missed.get(toLabel.get(j))) {
+                values.set(i, copyOf(resultValue));
+            }
+        }
+        return values;
+    }
 
-        BigDecimal numeric = parseValueBlock(block, locale);
-        final Value resultValue = new Value();
-        resultValue.setNumeric(numeric);
-        resultValue.setStructure(block);
+    /**
+     * @return a copy of the cached value, or null if the value has not been parsed yet
+     */
+    private Value getCachedValue(String rawValue, Locale locale) {
+        if (valueCache == null || isBlank(rawValue)) {
+            return null;
+        }
+        Value cached = valueCache.get(cacheKey(rawValue, locale));
+        return cached == null ? null : copyOf(cached);
+    }
 
-        return resultValue;
+    private void cacheValue(String rawValue, Locale locale, Value value) {
+        if (valueCache == null || isBlank(rawValue) || value.getStructure() == null) {
+            return;
+        }
+        valueCache.put(cacheKey(rawValue, locale), copyOf(value));
+    }
+
+    private static String cacheKey(String rawValue, Locale locale) {
+        return locale.toLanguageTag() + ":" + rawValue;
+    }
+
+    /**
+     * The values are mutable, the cache holds its own copies and gives copies to the callers.
+     */
+    private static Value copyOf(Value value) {
+        final Value copy = new Value();
+        copy.setNumeric(value.getNumeric());
+        if (value.getStructure() != null) {
+            copy.setStructure(new ValueBlock(value.getStructure()));
+        }
+        return copy;
     }
 
     protected BigDecimal parseValueBlock(ValueBlock block, Locale locale) {
@@ -77,20 +200,13 @@ public class ValueParser extends AbstractParser {
                     if (block.getPow() != null && block.getBase() != null) {
                         final Number pow = format.parse(block.getPowAsString());
                         final BigDecimal baseBd = new BigDecimal(format.parse(block.getBaseAsString()).toString());
-                        final int intPower = pow.intValue();
-
-                        if (intPower < 0) {
-                            final BigDecimal powBd = baseBd.pow(-intPower);
-                            secondPart = BigDecimal.ONE.divide(powBd, 10, RoundingMode.HALF_UP);
-                        } else {
-                            secondPart = baseBd.pow(intPower);
-                        }
+                        secondPart = numericMode.pow(baseBd, pow.intValue());
                     }
 
                     if (block.getNumber() != null) {
                         final BigDecimal number = new BigDecimal(format.parse(block.getNumberAsString()).toString());
                         if (secondPart != null) {
-                            return number.multiply(secondPart);
+                            return numericMode.multiply(number, secondPart);
                         }
                         return number;
                     } else {
@@ -107,21 +223,13 @@ public class ValueParser extends AbstractParser {
                     BigDecimal secondPart = null;
                     if (block.getExp() != null) {
                         final Number exp = format.parse(block.getExpAsString());
-                        final int intPower = exp.intValue();
-                        final BigDecimal exponentialBase = new BigDecimal(Math.E);
-
-                        if (intPower < 0) {
-                            final BigDecimal powBd = exponentialBase.pow(-intPower);
-                            secondPart = BigDecimal.ONE.divide(powBd, 10, RoundingMode.HALF_UP);
-                        } else {
-                            secondPart = exponentialBase.pow(intPower);
-                        }
+                        secondPart = numericMode.exp(exp.intValue());
                     }
 
                     if (isNotEmpty(block.getNumberAsString())) {
                         final BigDecimal number = new BigDecimal(format.parse(block.getNumberAsString()).toString());
                         if (secondPart != null) {
-                            return number.multiply(secondPart);
+                            return numericMode.multiply(number, secondPart);
                         }
                     } else {
                         return secondPart;
@@ -134,7 +242,7 @@ public class ValueParser extends AbstractParser {
                 break;
 
             case ALPHABETIC:
-                WordsToNumber w2n = WordsToNumber.getInstance();
+                WordsToNumber w2n = WordsToNumber.getInstance(locale.getLanguage());
                 return w2n.normalize(block.getAlphaAsString(), locale);
 
             case TIME:
@@ -148,41 +256,76 @@ public class ValueParser extends AbstractParser {
     }
 
 
+    public void setNumericMode(NumericMode numericMode) {
+        this.numericMode = numericMode;
+    }
+
     public ValueBlock tagValue(String text) {
-        if (isBlank(text)) {
-            return null;
-        }
-        
-        ValueBlock parsedValue = null;
+        return tagValues(Collections.singletonList(text)).get(0);
+    }
+
+    /**
+     * Label several values at once: the character sequences of all the values are separated by
+     * blank lines and labeled with a single call to the CRF, the result is then split back per value.
+     *
+     * @return the value blocks, in the same order as the texts, null for a blank text
+     */
+    public List<ValueBlock> tagValues(List<String> texts) {
+        List<ValueBlock> parsedValues = new ArrayList<>();
 
         try {
-            text = text.replace("\n", "");
-            List<LayoutToken> tokenizations = new ArrayList<>();
-
-            String ress = null;
-            List<String> characters = new ArrayList<>();
-            for (char character : text.toCharArray()) {
-                characters.add(String.valueOf(character));
-                OffsetPosition position = new OffsetPosition();
-                position.start = text.indexOf(character);
-                position.end = text.indexOf(character) + 1;
-                LayoutToken lt = new LayoutToken(String.valueOf(character));
-                tokenizations.add(lt);
+            List<List<LayoutToken>> allTokenizations = new ArrayList<>();
+            SequenceBatch batch = new SequenceBatch();
+            for (String text : texts) {
+                if (isBlank(text)) {
+                    allTokenizations.add(null);
+                    batch.add(null);
+                    continue;
+                }
+
+                text = text.replace("\n", "");
+                List<LayoutToken> tokenizations = new ArrayList<>();
+                List<String> characters = new ArrayList<>();
+                for (char character : text.toCharArray()) {
+                    characters.add(String.valueOf(character));
+                    tokenizations.add(new LayoutToken(String.valueOf(character)));
+                }
+                allTokenizations.add(tokenizations);
+                batch.add(addFeatures(characters));
+            }
+
+            List<String> results = new ArrayList<>();
+            if (!batch.isEmpty()) {
+                String res;
+                long start = System.nanoTime();
+                try {
+                    res = taggerPool.label(batch.getFeatures());
+                } catch (NoSuchElementException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new GrobidException("CRF labeling for quantity parsing failed.", e);
+                } finally {
+                    LABEL_STAGE.observeSince(start);
+                }
+                results = batch.split(res);
             }
 
-            ress = addFeatures(characters);
-            String res;
-            try {
-                res = label(ress);
-            } catch (Exception e) {
-                throw new GrobidException("CRF labeling for quantity parsing failed.", e);
+            for (int i = 0; i < allTokenizations.size(); i++) {
+                List<LayoutToken> tokenizations = allTokenizations.get(i);
+                if (tokenizations == null) {
+                    parsedValues.add(null);
+                } else {
+                    String res = i < results.size() ? results.get(i) : "";
+                    parsedValues.add(resultExtraction(res, tokenizations));
+                }
             }
-            parsedValue = resultExtraction(res, tokenizations);
+        } catch (NoSuchElementException e) {
+            throw e;
         } catch (Exception e) {
             throw new GrobidException("An exception occurred while running Grobid.", e);
         }
 
-        return parsedValue;
+        return parsedValues;
     }
 
     /**
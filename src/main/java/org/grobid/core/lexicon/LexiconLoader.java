@@ -3,6 +3,8 @@ package org.grobid.core.lexicon;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import org.apache.commons.collections4.Closure;
 import org.apache.commons.collections4.map.HashedMap;
 import org.apache.commons.io.IOUtils;
@@ -71,6 +73,40 @@ public class LexiconLoader {
         }
     }
 
+    /**
+     * SHA-256 of the content of the given classpath resources, missing resources are skipped.
+     */
+    public static String checksum(String... resourcePaths) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        for (String resourcePath : resourcePaths) {
+            InputStream is = LexiconLoader.class.getClassLoader().getResourceAsStream(resourcePath);
+            if (is == null) {
+                continue;
+            }
+            try {
+                hasher.putString(resourcePath, UTF_8);
+                hasher.putBytes(IOUtils.toByteArray(is));
+            } catch (IOException e) {
+                throw new GrobidException("An exception occurred while running GROBID.", e);
+            } finally {
+                IOUtils.closeQuietly(is);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * @return the path of the resource for the language (e.g. fr/prefix.txt), or of the default
+     * language when the language has no such resource
+     */
+    public static String localizedPath(String language, String filename) {
+        String path = language + "/" + filename;
+        if (LexiconLoader.class.getClassLoader().getResource(path) == null) {
+            return QuantityLexicon.DEFAULT_LANGUAGE + "/" + filename;
+        }
+        return path;
+    }
+
     public static Map<String, String> loadPrefixes(InputStream is) {
         Map<String, String> prefixes = new HashedMap<>();
 
@@ -89,6 +125,30 @@ public class LexiconLoader {
     }
 
 
+    /**
+     * @return the power of ten of each prefix symbol, e.g. 3 for k, -6 for µ
+     */
+    public static Map<String, Integer> loadPrefixPowers(InputStream is) {
+        Map<String, Integer> powers = new HashedMap<>();
+
+        readCsvFile(is, input -> {
+            String pieces[] = input.split("\t");
+            if (pieces.length == 3) {
+                // 10^3 or 10-3
+                String factor = pieces[0].trim().replace("^", "");
+                if (factor.startsWith("10") && factor.length() > 2) {
+                    try {
+                        powers.put(pieces[1].trim(), Integer.parseInt(factor.substring(2)));
+                    } catch (NumberFormatException e) {
+                        // not a power of ten, the prefix is ignored
+                    }
+                }
+            }
+        });
+
+        return powers;
+    }
+
     public static Map<String, List<String>> loadInflections(InputStream is) {
         Map<String, List<String>> inflection = new HashedMap<>();
 
@@ -0,0 +1,420 @@
+package org.grobid.core.lexicon;
+
+import org.grobid.core.data.UnitDefinition;
+import org.grobid.core.utilities.QuantitiesProperties;
+import org.grobid.core.utilities.UnitUtilities;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compiled form of the unit lexicon: the tables built by {@link QuantityLexicon} from units.json,
+ * and the terms loaded in the unit matcher once all the notations and inflections have been
+ * expanded with the prefixes.
+ * <p>
+ * The snapshot is written in a binary file the first time the lexicon is built, and the next starts
+ * read it instead of expanding the JSON resources again: the tables are filled from the file as
+ * they are, and the terms of the unit matchers are kept as strings, the matchers being built (and
+ * the terms tokenized) only on first use. It records the checksum of the resources, a snapshot
+ * whose checksum differs is ignored and compiled again.
+ * <p>
+ * The snapshot is disabled by default and its file must be set explicitly, in a directory owned by
+ * the service. A file which is not owned by the user of the service or which others can modify is
+ * ignored, and the content is checked against the SHA-256 digest written before it.
+ */
+class LexiconSnapshot {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LexiconSnapshot.class);
+
+    private static final int MAGIC = 0x51554C58;
+    private static final int FORMAT = 3;
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    static final String DEFAULT_FILENAME = "grobid-quantities-lexicon.bin";
+
+    PrefixedTable<UnitDefinition> name2unit;
+    PrefixedTable<UnitDefinition> notation2unit;
+    Map<String, UnitDefinition> type2SIUnit;
+    PrefixedTable<String> inflection2name;
+    Map<String, List<String>> inflection;
+    Set<String> unitTokens;
+    // terms of the unit matcher, in loading order
+    Set<String> unitTerms;
+
+    /**
+     * @return the snapshot file set in the properties, or null if the snapshot is disabled or if
+     * no file is set
+     */
+    static File getFile() {
+        QuantitiesProperties properties = QuantitiesProperties.getInstance();
+        if (!properties.getBoolean(QuantitiesProperties.LEXICON_SNAPSHOT_ENABLED, false)) {
+            return null;
+        }
+        String path = properties.get(QuantitiesProperties.LEXICON_SNAPSHOT_FILE, null);
+        if (path == null) {
+            LOGGER.warn("The lexicon snapshot is enabled but " + QuantitiesProperties.LEXICON_SNAPSHOT_FILE
+                    + " is not set, the lexicon is compiled at each start.");
+            return null;
+        }
+        return new File(path);
+    }
+
+    /**
+     * @return the snapshot file of the lexicon of a language, the file set in the properties for
+     * the default language and the same name with the language before the extension for the other
+     * ones (e.g. grobid-quantities-lexicon.fr.bin), or null if the snapshot is disabled
+     */
+    static File getFile(String language) {
+        return getFile(getFile(), language);
+    }
+
+    /**
+     * @return the snapshot file of the language for the file of the default language, null if the
+     * file is null
+     */
+    static File getFile(File file, String language) {
+        if (file == null || QuantityLexicon.DEFAULT_LANGUAGE.equals(language)) {
+            return file;
+        }
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        name = dot > 0 ? name.substring(0, dot) + "." + language + name.substring(dot) : name + "." + language;
+        return new File(file.getParentFile(), name);
+    }
+
+    /**
+     * Read the snapshot, the tables being restored in the given empty tables, created with the
+     * same prefixes as the tables of the snapshot.
+     *
+     * @return the snapshot of the file, or null if the file does not exist, is not readable, is not
+     * trusted (see {@link #isTrusted(Path)}), is corrupted or was compiled from other resources than
+     * the given checksum
+     */
+    static LexiconSnapshot read(File file, String checksum, PrefixedTable<UnitDefinition> name2unit,
+                                PrefixedTable<UnitDefinition> notation2unit, PrefixedTable<String> inflection2name) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            // the whole content is copied in the tables, the file is read at once
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+                LOGGER.info("The lexicon snapshot " + file.getAbsolutePath() + " has another format, it will be compiled again.");
+                return null;
+            }
+            if (!isTrusted(file.toPath())) {
+                LOGGER.warn("The lexicon snapshot " + file.getAbsolutePath() + " is not owned by the user of the service "
+                        + "or can be modified by others, it is ignored.");
+                return null;
+            }
+            MessageDigest payloadDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            int digestLength = buffer.getInt();
+            byte[] digest = new byte[digestLength == payloadDigest.getDigestLength() ? digestLength : 0];
+            buffer.get(digest);
+            payloadDigest.update(buffer.slice());
+            if (!MessageDigest.isEqual(digest, payloadDigest.digest())) {
+                LOGGER.warn("The lexicon snapshot " + file.getAbsolutePath() + " is corrupted, it will be compiled again.");
+                return null;
+            }
+            if (!checksum.equals(readString(buffer))) {
+                LOGGER.info("The lexical resources have changed, the lexicon snapshot will be compiled again.");
+                return null;
+            }
+
+            LexiconSnapshot snapshot = new LexiconSnapshot();
+            List<UnitDefinition> definitions = new ArrayList<>();
+            int definitionCount = buffer.getInt();
+            for (int i = 0; i < definitionCount; i++) {
+                definitions.add(readDefinition(buffer));
+            }
+            TableContent<UnitDefinition> names = readTable(buffer, b -> definitions.get(b.getInt()));
+            TableContent<UnitDefinition> notations = readTable(buffer, b -> definitions.get(b.getInt()));
+            snapshot.type2SIUnit = readDefinitionMap(buffer, definitions);
+            TableContent<String> inflections = readTable(buffer, LexiconSnapshot::readString);
+
+            int size = buffer.getInt();
+            if (size >= 0) {
+                snapshot.inflection = new HashMap<>(size * 2);
+                for (int i = 0; i < size; i++) {
+                    snapshot.inflection.put(readString(buffer), readStrings(buffer));
+                }
+            }
+            snapshot.unitTokens = new HashSet<>(readStrings(buffer));
+            snapshot.unitTerms = new LinkedHashSet<>(readStrings(buffer));
+
+            // the tables are filled only once the whole file is read
+            names.restore(name2unit);
+            notations.restore(notation2unit);
+            inflections.restore(inflection2name);
+            snapshot.name2unit = name2unit;
+            snapshot.notation2unit = notation2unit;
+            snapshot.inflection2name = inflection2name;
+            return snapshot;
+        } catch (IOException | NoSuchAlgorithmException | BufferUnderflowException | IllegalArgumentException
+                | IndexOutOfBoundsException e) {
+            LOGGER.warn("Cannot read the lexicon snapshot " + file.getAbsolutePath() + ", it will be compiled again.", e);
+            return null;
+        }
+    }
+
+    /**
+     * @return true if the file is owned by the user of the service and cannot be modified by the
+     * other users, always true on the file systems without POSIX permissions
+     */
+    static boolean isTrusted(Path path) throws IOException {
+        if (!path.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            return true;
+        }
+        PosixFileAttributes attributes = Files.readAttributes(path, PosixFileAttributes.class);
+        Set<PosixFilePermission> permissions = attributes.permissions();
+        return attributes.owner().getName().equals(System.getProperty("user.name"))
+                && !permissions.contains(PosixFilePermission.GROUP_WRITE)
+                && !permissions.contains(PosixFilePermission.OTHERS_WRITE);
+    }
+
+    /**
+     * Write the snapshot in the file, replacing the previous one atomically. A failure is only
+     * logged, the lexicon being compiled again at the next start.
+     */
+    void write(File file, String checksum) {
+        try {
+            // the definitions are shared by the maps, they are written once and referenced by index
+            Map<UnitDefinition, Integer> indexes = new IdentityHashMap<>();
+            List<UnitDefinition> definitions = new ArrayList<>();
+            List<Collection<UnitDefinition>> values = new ArrayList<>();
+            for (PrefixedTable<UnitDefinition> table : Arrays.asList(name2unit, notation2unit)) {
+                values.add(entryValues(table.getEntries()));
+                values.add(entryValues(table.getBases()));
+            }
+            if (type2SIUnit != null) {
+                values.add(type2SIUnit.values());
+            }
+            for (Collection<UnitDefinition> collection : values) {
+                for (UnitDefinition definition : collection) {
+                    if (!indexes.containsKey(definition)) {
+                        indexes.put(definition, definitions.size());
+                        definitions.add(definition);
+                    }
+                }
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream output = new DataOutputStream(bytes);
+            writeString(output, checksum);
+            output.writeInt(definitions.size());
+            for (UnitDefinition definition : definitions) {
+                writeDefinition(output, definition);
+            }
+            writeTable(output, name2unit, (o, definition) -> o.writeInt(indexes.get(definition)));
+            writeTable(output, notation2unit, (o, definition) -> o.writeInt(indexes.get(definition)));
+            writeDefinitionMap(output, type2SIUnit, indexes);
+            writeTable(output, inflection2name, LexiconSnapshot::writeString);
+
+            if (inflection == null) {
+                output.writeInt(-1);
+            } else {
+                output.writeInt(inflection.size());
+                for (Map.Entry<String, List<String>> entry : inflection.entrySet()) {
+                    writeString(output, entry.getKey());
+                    writeStrings(output, entry.getValue());
+                }
+            }
+            writeStrings(output, unitTokens);
+            writeStrings(output, unitTerms);
+            output.flush();
+
+            byte[] payload = bytes.toByteArray();
+            byte[] digest = MessageDigest.getInstance(DIGEST_ALGORITHM).digest(payload);
+            ByteArrayOutputStream fileBytes = new ByteArrayOutputStream(payload.length + digest.length + 12);
+            DataOutputStream header = new DataOutputStream(fileBytes);
+            header.writeInt(MAGIC);
+            header.writeInt(FORMAT);
+            header.writeInt(digest.length);
+            header.write(digest);
+            header.write(payload);
+            header.flush();
+
+            // write then move, so that a concurrent reader never sees a partial file; the temporary
+            // file is only readable and writable by the user of the service
+            File directory = file.getAbsoluteFile().getParentFile();
+            if (directory != null && !directory.exists()) {
+                directory.mkdirs();
+            }
+            File temp = File.createTempFile("lexicon", ".tmp", directory);
+            Files.write(temp.toPath(), fileBytes.toByteArray());
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOGGER.info("Lexicon snapshot written in " + file.getAbsolutePath() + " (" + fileBytes.size() + " bytes).");
+        } catch (IOException | NoSuchAlgorithmException e) {
+            LOGGER.warn("Cannot write the lexicon snapshot " + file.getAbsolutePath(), e);
+        }
+    }
+
+    private static Collection<UnitDefinition> entryValues(Map<String, PrefixedTable.Entry<UnitDefinition>> entries) {
+        List<UnitDefinition> values = new ArrayList<>();
+        for (PrefixedTable.Entry<UnitDefinition> entry : entries.values()) {
+            values.add(entry.value);
+        }
+        return values;
+    }
+
+    private static <V> void writeTable(DataOutputStream output, PrefixedTable<V> table, ValueWriter<V> valueWriter) throws IOException {
+        output.writeLong(table.getOrder());
+        for (Map<String, PrefixedTable.Entry<V>> entries : Arrays.asList(table.getEntries(), table.getBases())) {
+            output.writeInt(entries.size());
+            for (Map.Entry<String, PrefixedTable.Entry<V>> entry : entries.entrySet()) {
+                writeString(output, entry.getKey());
+                valueWriter.write(output, entry.getValue().value);
+                output.writeLong(entry.getValue().order);
+            }
+        }
+    }
+
+    private static <V> TableContent<V> readTable(ByteBuffer buffer, Function<ByteBuffer, V> valueReader) {
+        TableContent<V> content = new TableContent<>();
+        content.order = buffer.getLong();
+        for (Map<String, PrefixedTable.Entry<V>> entries : Arrays.asList(content.entries, content.bases)) {
+            int size = buffer.getInt();
+            for (int i = 0; i < size; i++) {
+                String key = readString(buffer);
+                V value = valueReader.apply(buffer);
+                entries.put(key, new PrefixedTable.Entry<>(value, buffer.getLong()));
+            }
+        }
+        return content;
+    }
+
+    private static void writeDefinition(DataOutputStream output, UnitDefinition definition) throws IOException {
+        writeString(output, definition.getType() == null ? null : definition.getType().name());
+        writeString(output, definition.getSystem() == null ? null : definition.getSystem().name());
+        writeStrings(output, definition.getNames());
+        writeStrings(output, definition.getNotations());
+    }
+
+    private static UnitDefinition readDefinition(ByteBuffer buffer) {
+        UnitDefinition definition = new UnitDefinition();
+        String type = readString(buffer);
+        if (type != null) {
+            definition.setType(UnitUtilities.Unit_Type.valueOf(type));
+        }
+        String system = readString(buffer);
+        if (system != null) {
+            definition.setSystem(UnitUtilities.System_Type.valueOf(system));
+        }
+        definition.setNames(readStrings(buffer));
+        definition.setNotations(readStrings(buffer));
+        return definition;
+    }
+
+    private static void writeDefinitionMap(DataOutputStream output, Map<String, UnitDefinition> map,
+                                           Map<UnitDefinition, Integer> indexes) throws IOException {
+        if (map == null) {
+            output.writeInt(-1);
+            return;
+        }
+        output.writeInt(map.size());
+        for (Map.Entry<String, UnitDefinition> entry : map.entrySet()) {
+            writeString(output, entry.getKey());
+            output.writeInt(indexes.get(entry.getValue()));
+        }
+    }
+
+    private static Map<String, UnitDefinition> readDefinitionMap(ByteBuffer buffer, List<UnitDefinition> definitions) {
+        int size = buffer.getInt();
+        if (size < 0) {
+            return null;
+        }
+        Map<String, UnitDefinition> map = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            map.put(readString(buffer), definitions.get(buffer.getInt()));
+        }
+        return map;
+    }
+
+    private static void writeStrings(DataOutputStream output, Collection<String> strings) throws IOException {
+        if (strings == null) {
+            output.writeInt(-1);
+            return;
+        }
+        output.writeInt(strings.size());
+        for (String string : strings) {
+            writeString(output, string);
+        }
+    }
+
+    /**
+     * @return the list of strings, null if it was written null
+     */
+    private static List<String> readStrings(ByteBuffer buffer) {
+        int size = buffer.getInt();
+        if (size < 0) {
+            return null;
+        }
+        List<String> strings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            strings.add(readString(buffer));
+        }
+        return strings;
+    }
+
+    private static void writeString(DataOutputStream output, String string) throws IOException {
+        if (string == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = string.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private interface ValueWriter<V> {
+        void write(DataOutputStream output, V value) throws IOException;
+    }
+
+    /**
+     * Content of a table read from the snapshot.
+     */
+    private static final class TableContent<V> {
+        private final Map<String, PrefixedTable.Entry<V>> entries = new HashMap<>();
+        private final Map<String, PrefixedTable.Entry<V>> bases = new HashMap<>();
+        private long order;
+
+        private void restore(PrefixedTable<V> table) {
+            table.restore(entries, bases, order);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package org.grobid.core.lexicon;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Table of the unit forms of the lexicon whose prefixed forms (e.g. km and kilometer for m and
+ * meter) are resolved on demand instead of being stored.
+ * <p>
+ * A base form is stored once: a looked up key is decomposed with a trie of the prefixes into a
+ * known prefix and a known base form. The result is the one of a map filled with all the prefixed
+ * forms, in the same order: every entry records its position in this order, and when a key has
+ * several candidates (e.g. min as a form, and as m + in), the last one put wins as in the map.
+ */
+class PrefixedTable<V> {
+
+    /**
+     * Prefixed forms of a base form: with the symbols of the prefixes (km), the names (kilometer),
+     * or both (the name then the symbol of each prefix).
+     */
+    enum Expansion {
+        SYMBOL, NAME, BOTH
+    }
+
+    private final List<String> symbols = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final Node trie = new Node();
+    private final Expansion expansion;
+    // value of a prefixed form from the prefix symbol and the value of the base form
+    private final BiFunction<String, V, V> derive;
+
+    // positions reserved for each entry: the base form and its prefixed forms
+    private final int block;
+
+    // the forms stored as such, and the base forms with their prefixed forms
+    private final Map<String, Entry<V>> entries = new HashMap<>();
+    private final Map<String, Entry<V>> bases = new HashMap<>();
+
+    private long order = 0;
+
+    /**
+     * @param prefixes the prefixes, symbol and name, in the order of the expansion
+     */
+    PrefixedTable(List<Map.Entry<String, String>> prefixes, Expansion expansion, BiFunction<String, V, V> derive) {
+        this.expansion = expansion;
+        this.derive = derive;
+        for (Map.Entry<String, String> prefix : prefixes) {
+            int index = symbols.size();
+            symbols.add(prefix.getKey());
+            names.add(prefix.getValue());
+            if (expansion == Expansion.NAME) {
+                trie.add(prefix.getValue(), 2 * index + 1);
+            } else if (expansion == Expansion.SYMBOL) {
+                trie.add(prefix.getKey(), 2 * index + 1);
+            } else {
+                trie.add(prefix.getValue(), 2 * index + 1);
+                trie.add(prefix.getKey(), 2 * index + 2);
+            }
+        }
+        block = 2 * prefixes.size() + 1;
+    }
+
+    /**
+     * Put the form alone, like Map.put.
+     */
+    void put(String key, V value) {
+        order += block;
+        entries.put(key, new Entry<>(value, order));
+    }
+
+    /**
+     * Put the form and all its prefixed forms.
+     */
+    void putWithPrefixes(String key, V value) {
+        order += block;
+        bases.put(key, new Entry<>(value, order));
+    }
+
+    V get(String key) {
+        if (key == null) {
+            return null;
+        }
+        Entry<V> best = entries.get(key);
+        Entry<V> base = bases.get(key);
+        if (base != null && (best == null || base.order > best.order)) {
+            best = base;
+        }
+        V value = best == null ? null : best.value;
+        long bestOrder = best == null ? -1 : best.order;
+
+        Node node = trie;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.slots.isEmpty()) {
+                continue;
+            }
+            base = bases.get(key.substring(i + 1));
+            if (base == null) {
+                continue;
+            }
+            for (int slot : node.slots) {
+                if (base.order + slot > bestOrder) {
+                    bestOrder = base.order + slot;
+                    value = derive.apply(symbols.get((slot - 1) / 2), base.value);
+                }
+            }
+        }
+        return value;
+    }
+
+    boolean containsKey(String key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return the number of forms stored
+     */
+    int size() {
+        return entries.size() + bases.size();
+    }
+
+    /**
+     * @return the map of all the forms, prefixed forms included, as filled eagerly
+     */
+    Map<String, V> expand() {
+        Map<String, Entry<V>> expanded = new HashMap<>();
+        for (Map.Entry<String, Entry<V>> entry : entries.entrySet()) {
+            putLast(expanded, entry.getKey(), entry.getValue());
+        }
+        for (Map.Entry<String, Entry<V>> entry : bases.entrySet()) {
+            String key = entry.getKey();
+            Entry<V> base = entry.getValue();
+            putLast(expanded, key, base);
+            for (int i = 0; i < symbols.size(); i++) {
+                V value = derive.apply(symbols.get(i), base.value);
+                if (expansion == Expansion.SYMBOL) {
+                    putLast(expanded, symbols.get(i) + key, new Entry<>(value, base.order + 2 * i + 1));
+                } else {
+                    putLast(expanded, names.get(i) + key, new Entry<>(value, base.order + 2 * i + 1));
+                    if (expansion == Expansion.BOTH) {
+                        putLast(expanded, symbols.get(i) + key, new Entry<>(value, base.order + 2 * i + 2));
+                    }
+                }
+            }
+        }
+        Map<String, V> result = new HashMap<>(expanded.size() * 2);
+        for (Map.Entry<String, Entry<V>> entry : expanded.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().value);
+        }
+        return result;
+    }
+
+    private static <V> void putLast(Map<String, Entry<V>> map, String key, Entry<V> entry) {
+        Entry<V> previous = map.get(key);
+        if (previous == null || entry.order > previous.order) {
+            map.put(key, entry);
+        }
+    }
+
+    Map<String, Entry<V>> getEntries() {
+        return entries;
+    }
+
+    Map<String, Entry<V>> getBases() {
+        return bases;
+    }
+
+    long getOrder() {
+        return order;
+    }
+
+    /**
+     * Restore the forms of a table with the same prefixes, see {@link LexiconSnapshot}.
+     */
+    void restore(Map<String, Entry<V>> entries, Map<String, Entry<V>> bases, long order) {
+        this.entries.clear();
+        this.entries.putAll(entries);
+        this.bases.clear();
+        this.bases.putAll(bases);
+        this.order = order;
+    }
+
+    static final class Entry<V> {
+        final V value;
+        final long order;
+
+        Entry(V value, long order) {
+            this.value = value;
+            this.order = order;
+        }
+    }
+
+    /**
+     * Node of the trie of the prefixes, with the slots of the prefixes ending at this node.
+     */
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final List<Integer> slots = new ArrayList<>();
+
+        private void add(String prefix, int slot) {
+            Node node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+            }
+            node.slots.add(slot);
+        }
+    }
+}
@@ -11,90 +11,288 @@ import org.grobid.core.layout.LayoutToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.commons.lang3.StringUtils.upperCase;
+import static org.grobid.core.lexicon.LexiconLoader.loadPrefixPowers;
 import static org.grobid.core.lexicon.LexiconLoader.loadPrefixes;
+import static org.grobid.core.lexicon.LexiconLoader.localizedPath;
 import static org.grobid.core.lexicon.LexiconLoader.readJsonFile;
 
 /**
  * Class for managing the measurement lexical resources.
  * <p>
- * To be done: generalize to n different languages
+ * There is one lexicon per language, loaded on first use from the resources of the language
+ * (e.g. fr/units.json). A language without its own prefixes or number words uses the ones of the
+ * default language, and the powers of the prefixes, which do not depend on the language, are
+ * shared by all the lexicons.
  *
  * @author Patrice, Luca
  */
 public class QuantityLexicon {
     private static final Logger LOGGER = LoggerFactory.getLogger(QuantityLexicon.class);
 
-    private static volatile QuantityLexicon instance;
+    public static final String DEFAULT_LANGUAGE = "en";
+
+    // the languages with a unit lexicon
+    public static final List<String> LANGUAGES = Collections.unmodifiableList(Arrays.asList("en", "fr", "de"));
+
+    private static final Map<String, QuantityLexicon> instances = new ConcurrentHashMap<>();
+
+    // map prefix symbol to its power of ten, the same for all the languages
+    private static volatile Map<String, Integer> sharedPrefixPowers = null;
+
     public static final String PREFIX_FILENAME = "prefix.txt";
     public static final String PREFIX_EN_PATH = "en/" + PREFIX_FILENAME;
 
     public static final String UNITS_FILENAME = "units.json";
     public static final String UNITS_EN_PATH = "en/" + UNITS_FILENAME;
 
+    public static final String VALUES_FILENAME = "values.json";
+    public static final String VALUES_EN_PATH = "en/" + VALUES_FILENAME;
+
     private static final String COMPOSED_UNIT_REGEX = "[^/*]";
     private static final String COMPOSED_UNIT_REGEX_WITH_DELIMITER = String.format("((?<=%1$s)|(?=%1$s))", "[/*]{1}");
 
     private Pattern composedUnitPattern = Pattern.compile(COMPOSED_UNIT_REGEX);
     private Pattern composedUnitPatternWithDelimiter = Pattern.compile(COMPOSED_UNIT_REGEX_WITH_DELIMITER);
 
-    // lexical information - for feature generations
+    // matchers of the unit terms over tokens and over raw strings, built on first use from the terms
+    private UnitMatcher unitMatcher = null;
     private FastMatcher unitPattern = null;
+    // terms of the unit matchers, kept for the snapshot
+    private Set<String> unitTerms = null;
     private Set<String> unitTokens = null;
-    private Set<String> unitTokensLowerCase = null;
-
-    // the list of tokens involved for expressing numbers with words
-    // this set depends on the language
-    private Set<String> numberTokens = null;
+    // look-up of the unit tokens, number tokens and prefix symbols, built once the lexicon is loaded
+    private TokenDictionary unitDictionary = null;
+    // the tokens of the numbers expressed with words, which depend on the language
+    private TokenDictionary numberDictionary = null;
+    private TokenDictionary prefixDictionary = null;
 
     private Map<String, String> prefixes = null; // map prefix symbol to prefix string
+    private Map<String, Integer> prefixPowers = null; // map prefix symbol to its power of ten
     private Map<String, List<String>> inflection = null; // map a unit string to its morphological inflections
 
-    // full unit information accessible from the unit names
+    // full unit information accessible from the unit names, the prefixed names being resolved on demand
     // this mapping depends on the language
-    private Map<String, UnitDefinition> name2unit = null;
+    private PrefixedTable<UnitDefinition> name2unit = null;
 
-    // full unit information accessible from the unit notation
+    // full unit information accessible from the unit notation, the prefixed notations being resolved on demand
     // this mapping depends on the language
-    private Map<String, UnitDefinition> notation2unit = null;
+    private PrefixedTable<UnitDefinition> notation2unit = null;
 
     // mapping between measurement types and the SI units for this type, the type here is represented with
     // the name() value of the enum
     private Map<String, UnitDefinition> type2SIUnit = null;
 
     // mapping between inflection (meter, meters) to name (m), considering kilometer a different unit than meter,
-    // altough they are two different representation of the same unit
-    private Map<String, String> inflection2name = null;
+    // altough they are two different representation of the same unit (kilometers -> km is resolved on demand)
+    private PrefixedTable<String> inflection2name = null;
+
+    // checksum of the lexical resources
+    private volatile String version = null;
+
+    private final String language;
 
-    private QuantityLexicon() {
+    // compiled lexicon, null if disabled
+    private final File snapshotFile;
+
+    QuantityLexicon(File snapshotFile) {
+        this(DEFAULT_LANGUAGE, snapshotFile);
+    }
+
+    QuantityLexicon(String language, File snapshotFile) {
+        this.language = language;
+        this.snapshotFile = snapshotFile;
         init();
     }
 
+    /**
+     * @return the lexicon of the default language
+     */
     public static QuantityLexicon getInstance() {
-        if (instance == null) {
-            getNewInstance();
+        return getInstance(DEFAULT_LANGUAGE);
+    }
+
+    /**
+     * @param lang a language code (e.g. fr or fr-FR), null for the default language
+     * @throws IllegalArgumentException if there is no lexicon for the language
+     */
+    public static QuantityLexicon getInstance(String lang) {
+        String language = resolveLanguage(lang);
+        QuantityLexicon lexicon = instances.get(language);
+        if (lexicon == null) {
+            lexicon = getNewInstance(language);
+        }
+        return lexicon;
+    }
+
+    private static synchronized QuantityLexicon getNewInstance(String language) {
+        QuantityLexicon lexicon = instances.get(language);
+        if (lexicon == null) {
+            lexicon = new QuantityLexicon(language, LexiconSnapshot.getFile(language));
+            instances.put(language, lexicon);
+        }
+        return lexicon;
+    }
+
+    /**
+     * @param lang a language code (e.g. fr or fr-FR), null or empty for the default language
+     * @return the language of the lexicon to be used, e.g. fr
+     * @throws IllegalArgumentException if there is no lexicon for the language
+     */
+    public static String resolveLanguage(String lang) {
+        if (isBlank(lang)) {
+            return DEFAULT_LANGUAGE;
+        }
+        String language = lang.trim().split("[-_]")[0].toLowerCase(Locale.ROOT);
+        if (!LANGUAGES.contains(language)) {
+            throw new IllegalArgumentException("Unsupported language: " + lang);
         }
-        return instance;
+        return language;
     }
 
-    private static synchronized void getNewInstance() {
-        instance = new QuantityLexicon();
+    public String getLanguage() {
+        return language;
     }
 
     private void init() {
         unitTokens = new HashSet<>();
-        unitTokensLowerCase = new HashSet<>();
-        unitPattern = new FastMatcher();
+        unitTerms = new LinkedHashSet<>();
 
-        prefixes = loadPrefixes(this.getClass().getClassLoader().getResourceAsStream(PREFIX_EN_PATH));
-        readJsonFile(this.getClass().getClassLoader().getResourceAsStream(UNITS_EN_PATH), "units", l -> processJsonNode(l));
+        prefixes = loadPrefixes(this.getClass().getClassLoader().getResourceAsStream(localizedPath(language, PREFIX_FILENAME)));
+        prefixPowers = getSharedPrefixPowers();
+        createTables();
 
-        numberTokens = WordsToNumber.getInstance().getTokenSet();
+        LexiconSnapshot snapshot = snapshotFile == null ? null
+                : LexiconSnapshot.read(snapshotFile, getVersion(), name2unit, notation2unit, inflection2name);
+        if (snapshot != null) {
+            restore(snapshot);
+        } else {
+            readJsonFile(this.getClass().getClassLoader().getResourceAsStream(language + "/" + UNITS_FILENAME), "units", l -> processJsonNode(l));
+            if (snapshotFile != null) {
+                toSnapshot().write(snapshotFile, getVersion());
+            }
+        }
+
+        unitDictionary = TokenDictionary.of(unitTokens);
+        numberDictionary = TokenDictionary.of(WordsToNumber.getInstance(language).getTokenSet());
+        prefixDictionary = TokenDictionary.of(prefixes.keySet());
+        LOGGER.info("Unit lexicon: " + (name2unit.size() + notation2unit.size() + inflection2name.size())
+                + " names, notations and inflected forms stored, the prefixed forms are resolved on demand.");
+    }
+
+    private void createTables() {
+        List<Map.Entry<String, String>> prefixList = new ArrayList<>();
+        List<Map.Entry<String, String>> lowerCasePrefixList = new ArrayList<>();
+        for (Map.Entry<String, String> prefix : prefixes.entrySet()) {
+            prefixList.add(new AbstractMap.SimpleImmutableEntry<>(prefix.getKey(), prefix.getValue()));
+            lowerCasePrefixList.add(new AbstractMap.SimpleImmutableEntry<>(prefix.getKey(), prefix.getValue().toLowerCase()));
+        }
+        // kilometers -> km and kmeters -> km
+        inflection2name = new PrefixedTable<>(prefixList, PrefixedTable.Expansion.BOTH, (symbol, name) -> symbol + name);
+        // kilometer -> m
+        name2unit = new PrefixedTable<>(lowerCasePrefixList, PrefixedTable.Expansion.NAME, (symbol, unit) -> unit);
+        // km -> m
+        notation2unit = new PrefixedTable<>(prefixList, PrefixedTable.Expansion.SYMBOL, (symbol, unit) -> unit);
+    }
+
+    private LexiconSnapshot toSnapshot() {
+        LexiconSnapshot snapshot = new LexiconSnapshot();
+        snapshot.name2unit = name2unit;
+        snapshot.notation2unit = notation2unit;
+        snapshot.type2SIUnit = type2SIUnit;
+        snapshot.inflection2name = inflection2name;
+        snapshot.inflection = inflection;
+        snapshot.unitTokens = unitTokens;
+        snapshot.unitTerms = unitTerms;
+        return snapshot;
+    }
+
+    private void restore(LexiconSnapshot snapshot) {
+        type2SIUnit = snapshot.type2SIUnit;
+        inflection = snapshot.inflection;
+        for (String word : snapshot.unitTokens) {
+            unitTokens.add(word);
+        }
+        // the expansion of the terms is in the snapshot
+        unitTerms.addAll(snapshot.unitTerms);
+        LOGGER.info("Lexicon loaded from the snapshot " + snapshotFile.getAbsolutePath() + ": "
+                + unitTerms.size() + " unit terms.");
+    }
+
+    /**
+     * Add the term to the terms of the unit matchers, which are tokenized when the matchers are built.
+     */
+    private void loadUnitTerm(String term) {
+        unitTerms.add(term);
+    }
+
+    private synchronized UnitMatcher getUnitMatcher() {
+        if (unitMatcher == null) {
+            UnitMatcher matcher = new UnitMatcher();
+            for (String term : unitTerms) {
+                try {
+                    matcher.add(QuantityAnalyzer.getInstance().tokenize(term));
+                } catch (Exception e) {
+                    LOGGER.error("invalid unit term: " + term);
+                }
+            }
+            matcher.build();
+            unitMatcher = matcher;
+        }
+        return unitMatcher;
+    }
+
+    private synchronized FastMatcher getUnitPattern() {
+        if (unitPattern == null) {
+            FastMatcher matcher = new FastMatcher();
+            for (String term : unitTerms) {
+                try {
+                    matcher.loadTerm(term, QuantityAnalyzer.getInstance());
+                } catch (Exception e) {
+                    LOGGER.error("invalid unit term: " + term);
+                }
+            }
+            unitPattern = matcher;
+        }
+        return unitPattern;
+    }
+
+    private static Map<String, Integer> getSharedPrefixPowers() {
+        if (sharedPrefixPowers == null) {
+            synchronized (QuantityLexicon.class) {
+                if (sharedPrefixPowers == null) {
+                    sharedPrefixPowers = Collections.unmodifiableMap(loadPrefixPowers(
+                            QuantityLexicon.class.getClassLoader().getResourceAsStream(PREFIX_EN_PATH)));
+                }
+            }
+        }
+        return sharedPrefixPowers;
+    }
+
+    /**
+     * @return a checksum of the lexical resources (prefixes, units and values), which changes
+     * whenever one of these files is modified
+     */
+    public String getVersion() {
+        if (version == null) {
+            version = getVersion(language);
+        }
+        return version;
+    }
+
+    /**
+     * @return the checksum of the lexical resources of a language, without loading its lexicon
+     */
+    public static String getVersion(String language) {
+        return LexiconLoader.checksum(localizedPath(language, PREFIX_FILENAME), language + "/" + UNITS_FILENAME,
+                localizedPath(language, VALUES_FILENAME));
     }
 
 
@@ -171,11 +369,15 @@ public class QuantityLexicon {
         // add unit notation map
         List<String> notations = unitDefinition.getNotations();
         if ((notations != null) && (notations.size() > 0)) {
-            for (int j = 0; j < notations.size(); j++) {
-                if (notation2unit == null) {
-                    notation2unit = new HashMap<>();
+            for (String notation : notations) {
+                if (isExpandable(notation)) {
+                    // the prefixed notations (e.g. km for m) are resolved on demand
+                    notation2unit.putWithPrefixes(notation.trim(), unitDefinition);
+                } else {
+                    for (String derivation : derivationalMorphologyExpansion(notation, true)) {
+                        notation2unit.put(derivation.trim(), unitDefinition);
+                    }
                 }
-                notation2unit.put(notations.get(j).trim(), unitDefinition);
             }
         } else {
             notation2unit.put("no_notation", unitDefinition);
@@ -186,50 +388,52 @@ public class QuantityLexicon {
         // add unit names in the first map
         List<String> names = unitDefinition.getNames();
         if (CollectionUtils.isNotEmpty(names)) {
-            if (name2unit == null) {
-                name2unit = new HashMap<>();
-            }
-
-            for (int j = 0; j < names.size(); j++) {
-                name2unit.put(names.get(j).trim().toLowerCase(), unitDefinition);
+            UnitUtilities.System_Type system = unitDefinition.getSystem();
+            boolean prefixed = (system == UnitUtilities.System_Type.SI_BASE) || (system == UnitUtilities.System_Type.SI_DERIVED);
+            for (String name : names) {
+                if (!prefixed) {
+                    name2unit.put(name.trim().toLowerCase(), unitDefinition);
+                } else if (isExpandable(name)) {
+                    // the prefixed names (e.g. kilometer for meter) are resolved on demand
+                    name2unit.putWithPrefixes(name.trim().toLowerCase(), unitDefinition);
+                } else {
+                    for (String derivation : derivationalMorphologyExpansion(name, false)) {
+                        name2unit.put(derivation.trim().toLowerCase(), unitDefinition);
+                    }
+                }
             }
         }
     }
 
+    /**
+     * @return true if the prefixed forms of the unit form are the prefix followed by the form, and
+     * can be resolved on demand (the composed units are expanded on each of their components)
+     */
+    private static boolean isExpandable(String form) {
+        return !isComposedUnit(form) && !form.isEmpty() && !Character.isWhitespace(form.charAt(0));
+    }
+
     private void processInflections(String notation, UnitDefinition unitDefinition, String lemma, List<String> inflections) {
         UnitUtilities.System_Type system = unitDefinition.getSystem();
-        if (inflection2name == null) {
-            inflection2name = new HashMap<>();
-        }
         for (String inflectedForm : inflections) {
             String name = notation;
             if (isBlank(name) /*&& !name.equals(subPiece)*/) {
                 name = lemma;
             }
 
-            // inflected -> name (e.g. meters -> m)
-            inflection2name.put(inflectedForm, name);
-
-
-            for (Map.Entry<String, String> prefix : prefixes.entrySet()) {
-                // complex unit inflected form -> name (kilometers -> km)
-                inflection2name.put(prefix.getValue() + inflectedForm, prefix.getKey() + name);
-
-                // (variation) complex unit inflected form -> name (e.g. kmeter -> km)
-                inflection2name.put(prefix.getKey() + inflectedForm, prefix.getKey() + name);
-            }
+            // inflected -> name (e.g. meters -> m), and on demand
+            // complex unit inflected form -> name (kilometers -> km)
+            // (variation) complex unit inflected form -> name (e.g. kmeter -> km)
+            inflection2name.putWithPrefixes(inflectedForm, name);
 
 
             if ((system == UnitUtilities.System_Type.SI_BASE) || (system == UnitUtilities.System_Type.SI_DERIVED)) {
                 // expansion with derivational morphology, but only for SI units!
+                // the prefixed names are only loaded in the matcher, see populateName2Unit
+                unitDefinition.addName(inflectedForm);
                 List<String> derivations = derivationalMorphologyExpansion(inflectedForm, false);
                 for (String derivation : derivations) {
-                    unitDefinition.addName(derivation);
-                    try {
-                        unitPattern.loadTerm(derivation, QuantityAnalyzer.getInstance());
-                    } catch (Exception e) {
-                        LOGGER.error("invalid unit term: " + derivation);
-                    }
+                    loadUnitTerm(derivation);
                     List<String> subSubPieces = null;
                     try {
                         subSubPieces = QuantityAnalyzer.getInstance().tokenize(derivation);
@@ -243,11 +447,7 @@ public class QuantityLexicon {
                 }
             } else {
                 unitDefinition.addName(inflectedForm);
-                try {
-                    unitPattern.loadTerm(inflectedForm, QuantityAnalyzer.getInstance());
-                } catch (Exception e) {
-                    LOGGER.error("invalid unit term: " + inflectedForm);
-                }
+                loadUnitTerm(inflectedForm);
                 List<String> subsubpieces = null;
                 try {
                     subsubpieces = QuantityAnalyzer.getInstance().tokenize(inflectedForm);
@@ -262,14 +462,11 @@ public class QuantityLexicon {
     }
 
     private void expandAndAdd(UnitDefinition unitDefinition, String subPiece) {
+        // the prefixed notations are only loaded in the matcher, see populateNotation2Unit
+        unitDefinition.addNotation(subPiece);
         List<String> derivations = derivationalMorphologyExpansion(subPiece, true);
         for (String derivation : derivations) {
-            try {
-                unitPattern.loadTerm(derivation, QuantityAnalyzer.getInstance());
-            } catch (Exception e) {
-                LOGGER.error("Invalid unit term: " + derivation);
-            }
-            unitDefinition.addNotation(derivation);
+            loadUnitTerm(derivation);
 
             List<String> subSubPieces = null;
             try {
@@ -289,7 +486,6 @@ public class QuantityLexicon {
             // we don't add pure digit sub-token and token delimiters
             if ((TextUtilities.countDigit(word) != word.length()) && (QuantityAnalyzer.DELIMITERS.indexOf(word) == -1)) {
                 unitTokens.add(word);
-                unitTokensLowerCase.add(word.toLowerCase());
             }
         }
     }
@@ -402,26 +598,20 @@ public class QuantityLexicon {
      * Soft look-up in unit dictionary
      */
     public List<OffsetPosition> inUnitNames(String s) {
-        if (unitPattern == null) {
-            init();
-        }
-        List<OffsetPosition> results = unitPattern.matchToken(s);
+        List<OffsetPosition> results = getUnitPattern().matchToken(s);
         return results;
     }
 
+    /**
+     * @return the positions (first and last token) of the longest unit term ending at each token
+     */
     public List<OffsetPosition> inUnitNames(List<LayoutToken> s) {
-        if (unitPattern == null) {
-            init();
-        }
-        List<OffsetPosition> results = unitPattern.matchLayoutToken(s);
+        List<OffsetPosition> results = getUnitMatcher().matchPositions(s);
         return results;
     }
 
     public List<OffsetPosition> inUnitNamesPairs(List<Pair<String, String>> s) {
-        if (unitPattern == null) {
-            init();
-        }
-        List<OffsetPosition> results = unitPattern.matcherPairs(s);
+        List<OffsetPosition> results = getUnitPattern().matcherPairs(s);
         return results;
     }
 
@@ -429,8 +619,25 @@ public class QuantityLexicon {
         return inflection2name.get(inflection);
     }
 
+    /**
+     * @return the names to which the units are normalized: the notations and the names of the
+     * inflected forms (e.g. km for kilometers)
+     */
+    public Set<String> getUnitNames() {
+        Set<String> names = new HashSet<>(notation2unit.expand().keySet());
+        names.addAll(inflection2name.expand().values());
+        return names;
+    }
+
+    /**
+     * @return the power of ten of the prefix symbol (e.g. 3 for k), or null if it is not a prefix
+     */
+    public Integer getPrefixPower(String prefix) {
+        return prefixPowers.get(prefix);
+    }
+
     public boolean inPrefixDictionary(String s) {
-        return prefixes.containsKey(s);
+        return prefixDictionary.contains(s);
     }
 
     public boolean inPrefixDictionaryCaseInsensitive(String s) {
@@ -442,11 +649,12 @@ public class QuantityLexicon {
     }
 
     public boolean inUnitDictionary(String s) {
-        return unitTokens.contains(s);
+        return unitDictionary.contains(s);
     }
 
     public boolean inUnitDictionaryCaseInsensitive(String s) {
-        return unitTokensLowerCase.contains(s.toLowerCase());
+        // the unit tokens are stored in lower case
+        return unitDictionary.containsIgnoreCase(s);
     }
 
     /**
@@ -505,9 +713,9 @@ public class QuantityLexicon {
         if (token == null) {
             return false;
         }
-        if (numberTokens == null) {
+        if (numberDictionary == null) {
             init();
         }
-        return numberTokens.contains(token.toLowerCase());
+        return numberDictionary.containsIgnoreCase(token);
     }
 }
\ No newline at end of file
@@ -0,0 +1,183 @@
+package org.grobid.core.lexicon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Read-only set of tokens of the lexicon, looked up per token (or per character) during the
+ * feature generation.
+ * <p>
+ * The tokens are stored with a minimal perfect hash (hash and displace): the tokens are hashed
+ * into buckets, and each bucket gets the seed of a second hash which sends its tokens to distinct
+ * slots of a table with exactly one slot per token. A look-up is then two hashes of the query and
+ * one comparison with the token of its slot, directly on the characters of the query: the
+ * case-insensitive look-up folds the characters one at a time instead of creating a lower case
+ * copy of the query.
+ */
+class TokenDictionary {
+
+    // average number of tokens per bucket
+    private static final int BUCKET_SIZE = 3;
+    // tries of seeds for a bucket before giving up, the single token buckets are placed directly
+    private static final int MAX_SEED = 1 << 20;
+
+    private final int size;
+    // seed of each bucket, or -(slot + 1) for a bucket of a single token placed directly
+    private final int[] seeds;
+    // characters of the tokens, the token of slot i is from offsets[i] to offsets[i + 1]
+    private final char[] chars;
+    private final int[] offsets;
+
+    private TokenDictionary(int size, int[] seeds, char[] chars, int[] offsets) {
+        this.size = size;
+        this.seeds = seeds;
+        this.chars = chars;
+        this.offsets = offsets;
+    }
+
+    static TokenDictionary of(Collection<String> tokens) {
+        List<String> keys = new ArrayList<>(new LinkedHashSet<>(tokens));
+        int size = keys.size();
+        if (size == 0) {
+            return new TokenDictionary(0, new int[0], new char[0], new int[]{0});
+        }
+
+        int bucketCount = (size + BUCKET_SIZE - 1) / BUCKET_SIZE;
+        List<List<String>> buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (String key : keys) {
+            buckets.get(bucket(hash(key, 0, false), bucketCount)).add(key);
+        }
+        // the largest buckets first, while the table is still empty
+        Integer[] order = new Integer[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> buckets.get(b).size() - buckets.get(a).size());
+
+        int[] seeds = new int[bucketCount];
+        String[] table = new String[size];
+        int[] slots = new int[BUCKET_SIZE * 8];
+        int free = 0;
+        for (int b : order) {
+            List<String> bucket = buckets.get(b);
+            if (bucket.isEmpty()) {
+                break;
+            }
+            if (bucket.size() == 1) {
+                while (table[free] != null) {
+                    free++;
+                }
+                table[free] = bucket.get(0);
+                seeds[b] = -(free + 1);
+                continue;
+            }
+            if (slots.length < bucket.size()) {
+                slots = new int[bucket.size()];
+            }
+            int seed = 1;
+            while (!place(bucket, seed, table, slots)) {
+                if (++seed > MAX_SEED) {
+                    throw new IllegalStateException("No perfect hash found for the bucket " + bucket);
+                }
+            }
+            for (int i = 0; i < bucket.size(); i++) {
+                table[slots[i]] = bucket.get(i);
+            }
+            seeds[b] = seed;
+        }
+
+        int[] offsets = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            offsets[i + 1] = offsets[i] + table[i].length();
+        }
+        char[] chars = new char[offsets[size]];
+        for (int i = 0; i < size; i++) {
+            table[i].getChars(0, table[i].length(), chars, offsets[i]);
+        }
+        return new TokenDictionary(size, seeds, chars, offsets);
+    }
+
+    /**
+     * Check that the tokens of the bucket go to distinct free slots with this seed.
+     */
+    private static boolean place(List<String> bucket, int seed, String[] table, int[] slots) {
+        for (int i = 0; i < bucket.size(); i++) {
+            int slot = bucket(hash(bucket.get(i), seed, false), table.length);
+            if (table[slot] != null) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (slots[j] == slot) {
+                    return false;
+                }
+            }
+            slots[i] = slot;
+        }
+        return true;
+    }
+
+    boolean contains(CharSequence s) {
+        return lookup(s, false);
+    }
+
+    /**
+     * Look-up with the characters of the query in lower case, which matches the tokens stored in
+     * lower case, as contains(s.toLowerCase()) but one character at a time.
+     */
+    boolean containsIgnoreCase(CharSequence s) {
+        return lookup(s, true);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private boolean lookup(CharSequence s, boolean fold) {
+        if (s == null || size == 0) {
+            return false;
+        }
+        int seed = seeds[bucket(hash(s, 0, fold), seeds.length)];
+        int slot = seed < 0 ? -seed - 1 : bucket(hash(s, seed, fold), size);
+
+        int start = offsets[slot];
+        if (offsets[slot + 1] - start != s.length()) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (chars[start + i] != fold(s.charAt(i), fold)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static char fold(char c, boolean fold) {
+        return fold ? Character.toLowerCase(c) : c;
+    }
+
+    /**
+     * FNV-1a over the characters, with the seed as offset basis, and the final mix of murmur3.
+     */
+    private static int hash(CharSequence s, int seed, boolean fold) {
+        int h = 0x811c9dc5 ^ (seed * 0x9e3779b9);
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ fold(s.charAt(i), fold)) * 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static int bucket(int hash, int count) {
+        return (int) ((hash & 0xffffffffL) % count);
+    }
+}
@@ -0,0 +1,160 @@
+package org.grobid.core.lexicon;
+
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.utilities.OffsetPosition;
+import org.grobid.core.utilities.UnicodeUtil;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton of the unit terms of the lexicon, over the tokens of a text.
+ * <p>
+ * The terms are added as their tokens given by the QuantityAnalyzer (e.g. km / h), and the text is
+ * read in one pass over its LayoutTokens: the tokens are compared case-insensitively, and the
+ * white spaces, which are delimiters of the QuantityAnalyzer, are skipped on both sides, while the
+ * other delimiters (e.g. /) must match.
+ */
+public class UnitMatcher {
+
+    private final Node root = new Node();
+    private volatile boolean built = true;
+    private int size = 0;
+
+    /**
+     * Add a term, given as its tokens.
+     */
+    public void add(List<String> tokens) {
+        Node node = root;
+        int length = 0;
+        for (String token : tokens) {
+            String text = normalize(token);
+            if (text.isEmpty()) {
+                continue;
+            }
+            node = node.children.computeIfAbsent(text, t -> new Node());
+            length++;
+        }
+        if (length == 0) {
+            return;
+        }
+        if (node.length == 0) {
+            size++;
+        }
+        node.length = Math.max(node.length, length);
+        built = false;
+    }
+
+    /**
+     * Compute the failure links, to be called once all the terms are added.
+     */
+    public synchronized void build() {
+        if (built) {
+            return;
+        }
+        Queue<Node> queue = new ArrayDeque<>();
+        root.fail = root;
+        root.longest = 0;
+        for (Node child : root.children.values()) {
+            child.fail = root;
+            child.longest = child.length;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (Map.Entry<String, Node> entry : node.children.entrySet()) {
+                Node child = entry.getValue();
+                Node fail = node.fail;
+                while (fail != root && !fail.children.containsKey(entry.getKey())) {
+                    fail = fail.fail;
+                }
+                Node target = fail.children.get(entry.getKey());
+                child.fail = (target != null && target != child) ? target : root;
+                // the longest term ending at this node, itself or one of its suffixes
+                child.longest = Math.max(child.length, child.fail.longest);
+                queue.add(child);
+            }
+        }
+        built = true;
+    }
+
+    /**
+     * @return for each token, true if it is part of a unit term
+     */
+    public boolean[] match(List<LayoutToken> tokens) {
+        boolean[] flags = new boolean[tokens.size()];
+        scan(tokens, flags, null);
+        return flags;
+    }
+
+    /**
+     * @return the positions (index of the first and of the last token) of the longest unit term
+     * ending at each token
+     */
+    public List<OffsetPosition> matchPositions(List<LayoutToken> tokens) {
+        List<OffsetPosition> positions = new ArrayList<>();
+        scan(tokens, null, positions);
+        return positions;
+    }
+
+    /**
+     * @return the number of terms
+     */
+    public int size() {
+        return size;
+    }
+
+    private void scan(List<LayoutToken> tokens, boolean[] flags, List<OffsetPosition> positions) {
+        if (!built) {
+            build();
+        }
+        // index of the tokens which are not white spaces
+        int[] significant = new int[tokens.size()];
+        int count = 0;
+        Node state = root;
+        for (int i = 0; i < tokens.size(); i++) {
+            String text = normalize(tokens.get(i).getText());
+            if (text.isEmpty()) {
+                continue;
+            }
+            significant[count++] = i;
+
+            while (state != root && !state.children.containsKey(text)) {
+                state = state.fail;
+            }
+            Node next = state.children.get(text);
+            state = next == null ? root : next;
+
+            if (state.longest > 0) {
+                if (flags != null) {
+                    for (int k = 1; k <= state.longest; k++) {
+                        flags[significant[count - k]] = true;
+                    }
+                }
+                if (positions != null) {
+                    positions.add(new OffsetPosition(significant[count - state.longest], i));
+                }
+            }
+        }
+    }
+
+    private static String normalize(String token) {
+        if (token == null) {
+            return "";
+        }
+        return UnicodeUtil.normaliseTextAndRemoveSpaces(token).trim().toLowerCase();
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private Node fail;
+        // number of tokens of the term ending at this node, 0 if none
+        private int length = 0;
+        // number of tokens of the longest term ending at this node or at one of its suffixes
+        private int longest = 0;
+    }
+}
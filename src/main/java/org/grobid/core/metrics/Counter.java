@@ -0,0 +1,30 @@
+package org.grobid.core.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter.
+ */
+public class Counter implements Metric {
+
+    private final LongAdder value = new LongAdder();
+
+    public void inc() {
+        value.increment();
+    }
+
+    public void inc(long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    @Override
+    public void write(Writer writer, String name, String labels) throws IOException {
+        writer.write(name + MetricsRegistry.formatLabels(labels) + " " + get() + "\n");
+    }
+}
@@ -0,0 +1,77 @@
+package org.grobid.core.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram with fixed buckets, exported with cumulative bucket counts like Prometheus expects.
+ */
+public class Histogram implements Metric {
+
+    /**
+     * Buckets for durations, in seconds.
+     */
+    public static final double[] LATENCY_BUCKETS = {0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05,
+            0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30};
+
+    /**
+     * Buckets for sizes (number of texts, of tokens, ...).
+     */
+    public static final double[] SIZE_BUCKETS = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024, 4096};
+
+    private final double[] buckets;
+    private final LongAdder[] counts;
+    private final LongAdder count = new LongAdder();
+    private final DoubleAdder sum = new DoubleAdder();
+
+    public Histogram(double[] buckets) {
+        this.buckets = buckets.clone();
+        counts = new LongAdder[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    public void observe(double value) {
+        for (int i = 0; i < buckets.length; i++) {
+            if (value <= buckets[i]) {
+                counts[i].increment();
+                break;
+            }
+        }
+        count.increment();
+        sum.add(value);
+    }
+
+    /**
+     * Observe the time elapsed since the given System.nanoTime(), in seconds.
+     */
+    public void observeSince(long startNanos) {
+        observe((System.nanoTime() - startNanos) / 1e9);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getSum() {
+        return sum.sum();
+    }
+
+    @Override
+    public void write(Writer writer, String name, String labels) throws IOException {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        long cumulative = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            cumulative += counts[i].sum();
+            writer.write(name + "_bucket{" + prefix + "le=\"" + buckets[i] + "\"} " + cumulative + "\n");
+        }
+        // observations can be recorded while writing, the total can not be lower than the buckets
+        long total = Math.max(cumulative, getCount());
+        writer.write(name + "_bucket{" + prefix + "le=\"+Inf\"} " + total + "\n");
+        writer.write(name + "_sum" + MetricsRegistry.formatLabels(labels) + " " + getSum() + "\n");
+        writer.write(name + "_count" + MetricsRegistry.formatLabels(labels) + " " + total + "\n");
+    }
+}
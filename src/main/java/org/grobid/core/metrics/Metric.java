@@ -0,0 +1,18 @@
+package org.grobid.core.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A metric which can be exported in the Prometheus text format.
+ */
+interface Metric {
+
+    /**
+     * Write the samples of the metric.
+     *
+     * @param labels the labels of the metric, already formatted as name="value" pairs separated
+     *               by a comma, or an empty string
+     */
+    void write(Writer writer, String name, String labels) throws IOException;
+}
@@ -0,0 +1,129 @@
+package org.grobid.core.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the runtime metrics of the quantities service, exported in the Prometheus text
+ * format by the metrics end-point.
+ * <p>
+ * Metrics are identified by their name and optionally by one label. Asking twice for the same
+ * metric gives the same instance, so the metrics can be obtained where they are used without
+ * being shared explicitly.
+ */
+public class MetricsRegistry {
+
+    private static volatile MetricsRegistry instance;
+
+    // sorted by name so that the output is stable
+    private final Map<String, Family> families = new ConcurrentSkipListMap<>();
+
+    public static MetricsRegistry getInstance() {
+        if (instance == null) {
+            getNewInstance();
+        }
+        return instance;
+    }
+
+    private static synchronized void getNewInstance() {
+        if (instance == null) {
+            instance = new MetricsRegistry();
+        }
+    }
+
+    MetricsRegistry() {
+    }
+
+    public Counter counter(String name, String help) {
+        return (Counter) register(name, help, "counter", "", Counter::new);
+    }
+
+    public Counter counter(String name, String help, String labelName, String labelValue) {
+        return (Counter) register(name, help, "counter", label(labelName, labelValue), Counter::new);
+    }
+
+    public Histogram histogram(String name, String help, double[] buckets) {
+        return (Histogram) register(name, help, "histogram", "", () -> new Histogram(buckets));
+    }
+
+    public Histogram histogram(String name, String help, double[] buckets, String labelName, String labelValue) {
+        return (Histogram) register(name, help, "histogram", label(labelName, labelValue), () -> new Histogram(buckets));
+    }
+
+    /**
+     * Register a gauge, whose value is read from the supplier when the metrics are exported.
+     * Registering again the same gauge replaces the supplier.
+     */
+    public void gauge(String name, String help, Supplier<Number> supplier) {
+        family(name, help, "gauge").metrics.put("", new Gauge(supplier));
+    }
+
+    public void gauge(String name, String help, String labelName, String labelValue, Supplier<Number> supplier) {
+        family(name, help, "gauge").metrics.put(label(labelName, labelValue), new Gauge(supplier));
+    }
+
+    /**
+     * Write all the metrics in the Prometheus text exposition format.
+     */
+    public void write(Writer writer) throws IOException {
+        for (Family family : families.values()) {
+            writer.write("# HELP " + family.name + " " + family.help + "\n");
+            writer.write("# TYPE " + family.name + " " + family.type + "\n");
+            for (Map.Entry<String, Metric> entry : family.metrics.entrySet()) {
+                entry.getValue().write(writer, family.name, entry.getKey());
+            }
+        }
+    }
+
+    static String formatLabels(String labels) {
+        return labels.isEmpty() ? "" : "{" + labels + "}";
+    }
+
+    private static String label(String labelName, String labelValue) {
+        String escaped = labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        return labelName + "=\"" + escaped + "\"";
+    }
+
+    private Metric register(String name, String help, String type, String labels, Supplier<Metric> factory) {
+        return family(name, help, type).metrics.computeIfAbsent(labels, k -> factory.get());
+    }
+
+    private Family family(String name, String help, String type) {
+        Family family = families.computeIfAbsent(name, k -> new Family(name, help, type));
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("The metric " + name + " is already registered as a " + family.type);
+        }
+        return family;
+    }
+
+    private static class Family {
+        final String name;
+        final String help;
+        final String type;
+        final ConcurrentMap<String, Metric> metrics = new ConcurrentHashMap<>();
+
+        Family(String name, String help, String type) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+        }
+    }
+
+    private static class Gauge implements Metric {
+        private final Supplier<Number> supplier;
+
+        Gauge(Supplier<Number> supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public void write(Writer writer, String name, String labels) throws IOException {
+            writer.write(name + formatLabels(labels) + " " + supplier.get() + "\n");
+        }
+    }
+}
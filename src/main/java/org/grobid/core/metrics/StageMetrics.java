@@ -0,0 +1,19 @@
+package org.grobid.core.metrics;
+
+/**
+ * Latency histograms of the stages of the quantity extraction, all exported as one metric
+ * labeled with the name of the stage.
+ */
+public class StageMetrics {
+
+    public static final String METRIC = "quantities_stage_duration_seconds";
+
+    /**
+     * @return the histogram of the given stage, to be kept in a static field by the caller
+     */
+    public static Histogram stage(String stage) {
+        return MetricsRegistry.getInstance().histogram(METRIC,
+                "Duration of the stages of the quantity extraction, in seconds.",
+                Histogram.LATENCY_BUCKETS, "stage", stage);
+    }
+}
@@ -0,0 +1,108 @@
+package org.grobid.core.utilities;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * {@link ResultCache} of serialised results with a second tier on disk: the entries evicted from
+ * memory, or cached by a previous run with the same version, are read back from a directory.
+ * <p>
+ * The directory holds at most maxFiles entries, the oldest ones are removed first.
+ */
+public class DiskResultCache extends ResultCache<byte[]> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DiskResultCache.class);
+
+    private static final String EXTENSION = ".cache";
+
+    private final File directory;
+    private final int maxFiles;
+    private final AtomicInteger fileCount;
+
+    public DiskResultCache(String name, long maximumBytes, File directory, int maxFiles, Supplier<String> version) {
+        super(name, maximumBytes, (key, value) -> value.length, version);
+        this.directory = directory;
+        this.maxFiles = maxFiles;
+        if (!directory.exists() && !directory.mkdirs()) {
+            LOGGER.warn("Cannot create the cache directory " + directory.getAbsolutePath());
+        }
+        fileCount = new AtomicInteger(listFiles().length);
+    }
+
+    @Override
+    protected byte[] load(String key) {
+        File file = file(key);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            LOGGER.warn("Cannot read the cached result " + file.getAbsolutePath(), e);
+            return null;
+        }
+    }
+
+    @Override
+    protected void store(String key, byte[] value) {
+        File file = file(key);
+        if (file.exists()) {
+            return;
+        }
+        try {
+            // write then move, so that a concurrent reader never sees a partial file
+            File temp = File.createTempFile("result", ".tmp", directory);
+            Files.write(temp.toPath(), value);
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot write the cached result " + file.getAbsolutePath(), e);
+            return;
+        }
+        if (fileCount.incrementAndGet() > maxFiles) {
+            removeOldestFiles();
+        }
+    }
+
+    @Override
+    protected void clearStore() {
+        for (File file : listFiles()) {
+            FileUtils.deleteQuietly(file);
+        }
+        fileCount.set(0);
+    }
+
+    /**
+     * Remove the oldest files, a tenth of the directory at once to avoid listing it for each new entry.
+     */
+    private synchronized void removeOldestFiles() {
+        File[] files = listFiles();
+        if (files.length <= maxFiles) {
+            fileCount.set(files.length);
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        int toRemove = files.length - maxFiles + Math.max(1, maxFiles / 10);
+        for (int i = 0; i < toRemove && i < files.length; i++) {
+            FileUtils.deleteQuietly(files[i]);
+        }
+        fileCount.set(listFiles().length);
+    }
+
+    private File[] listFiles() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        return files == null ? new File[0] : files;
+    }
+
+    private File file(String key) {
+        return new File(directory, digest(key) + EXTENSION);
+    }
+}
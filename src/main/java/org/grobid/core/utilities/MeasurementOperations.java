@@ -5,6 +5,7 @@ import org.grobid.core.data.Quantity;
 import org.grobid.core.data.Unit;
 import org.grobid.core.data.UnitDefinition;
 import org.grobid.core.data.normalization.UnitNormalizer;
+import org.grobid.core.lexicon.QuantityLexicon;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -19,9 +20,17 @@ import java.util.List;
 public class MeasurementOperations {
     private static final Logger logger = LoggerFactory.getLogger(MeasurementOperations.class);
 
-    UnitNormalizer un = new UnitNormalizer();
+    UnitNormalizer un;
 
     public MeasurementOperations() {
+        this(QuantityLexicon.DEFAULT_LANGUAGE);
+    }
+
+    /**
+     * @param language the language of the lexicon of the units
+     */
+    public MeasurementOperations(String language) {
+        un = new UnitNormalizer(language);
     }
 
     /**
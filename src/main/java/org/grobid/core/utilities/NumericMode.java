@@ -0,0 +1,180 @@
+package org.grobid.core.utilities;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.measure.UnitConverter;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Arithmetic used to compute the numeric values (parsing of the values, conversion to the system
+ * units, bounds of the intervals), set by grobid.quantities.numeric.mode.
+ * <p>
+ * DECIMAL computes with BigDecimal, the default. DOUBLE computes with primitive doubles and
+ * precomputed powers of ten, keeping about 15 significant digits, which is much cheaper: the
+ * operands having more than 15 significant digits or out of the range of the doubles, and the
+ * results which are not finite, are computed with BigDecimal as in the DECIMAL mode.
+ */
+public enum NumericMode {
+    DECIMAL,
+    DOUBLE;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NumericMode.class);
+
+    private static final int DOUBLE_DIGITS = 15;
+    private static final MathContext DOUBLE_CONTEXT = new MathContext(DOUBLE_DIGITS, RoundingMode.HALF_EVEN);
+    private static final int MAX_DOUBLE_EXPONENT = 300;
+
+    // the powers of ten exactly represented by a double
+    private static final double[] POWERS_OF_TEN = new double[23];
+
+    static {
+        POWERS_OF_TEN[0] = 1.0;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10.0;
+        }
+    }
+
+    private static volatile NumericMode current;
+
+    /**
+     * @return the mode set in the properties
+     */
+    public static NumericMode get() {
+        if (current == null) {
+            String mode = QuantitiesProperties.getInstance().get(QuantitiesProperties.NUMERIC_MODE, DECIMAL.name());
+            try {
+                current = NumericMode.valueOf(mode.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                LOGGER.warn("Invalid numeric mode '" + mode + "', using " + DECIMAL);
+                current = DECIMAL;
+            }
+        }
+        return current;
+    }
+
+    public BigDecimal add(BigDecimal first, BigDecimal second) {
+        if (this == DOUBLE && fitsDouble(first) && fitsDouble(second)) {
+            BigDecimal result = toDecimal(first.doubleValue() + second.doubleValue());
+            if (result != null) {
+                return result;
+            }
+        }
+        return first.add(second);
+    }
+
+    public BigDecimal subtract(BigDecimal first, BigDecimal second) {
+        if (this == DOUBLE && fitsDouble(first) && fitsDouble(second)) {
+            BigDecimal result = toDecimal(first.doubleValue() - second.doubleValue());
+            if (result != null) {
+                return result;
+            }
+        }
+        return first.subtract(second);
+    }
+
+    public BigDecimal multiply(BigDecimal first, BigDecimal second) {
+        if (this == DOUBLE && fitsDouble(first) && fitsDouble(second)) {
+            BigDecimal result = toDecimal(first.doubleValue() * second.doubleValue());
+            if (result != null) {
+                return result;
+            }
+        }
+        return first.multiply(second);
+    }
+
+    /**
+     * @return first / second, rounded to 34 significant digits in the DECIMAL mode when the
+     * quotient is not exact
+     */
+    public BigDecimal divide(BigDecimal first, BigDecimal second) {
+        if (this == DOUBLE && fitsDouble(first) && fitsDouble(second)) {
+            BigDecimal result = toDecimal(first.doubleValue() / second.doubleValue());
+            if (result != null) {
+                return result;
+            }
+        }
+        return first.divide(second, MathContext.DECIMAL128);
+    }
+
+    /**
+     * @return base^power, the negative powers being rounded to 10 decimals in the DECIMAL mode
+     */
+    public BigDecimal pow(BigDecimal base, int power) {
+        if (this == DOUBLE && fitsDouble(base)) {
+            double value = base.doubleValue();
+            double result;
+            if (value == 10.0 && Math.abs(power) < POWERS_OF_TEN.length) {
+                result = power < 0 ? 1.0 / POWERS_OF_TEN[-power] : POWERS_OF_TEN[power];
+            } else {
+                result = Math.pow(value, power);
+            }
+            BigDecimal decimal = toDecimal(result);
+            if (decimal != null) {
+                return decimal;
+            }
+        }
+        if (power < 0) {
+            return BigDecimal.ONE.divide(base.pow(-power), 10, RoundingMode.HALF_UP);
+        }
+        return base.pow(power);
+    }
+
+    /**
+     * @return e^power, the negative powers being rounded to 10 decimals in the DECIMAL mode
+     */
+    public BigDecimal exp(int power) {
+        if (this == DOUBLE) {
+            BigDecimal decimal = toDecimal(Math.exp(power));
+            if (decimal != null) {
+                return decimal;
+            }
+        }
+        return pow(new BigDecimal(Math.E), power);
+    }
+
+    /**
+     * Convert the value with a converter of the units of measurement.
+     */
+    public BigDecimal convert(UnitConverter converter, BigDecimal value) {
+        if (this == DOUBLE && fitsDouble(value)) {
+            BigDecimal result = toDecimal(converter.convert(value.doubleValue()));
+            if (result != null) {
+                return result;
+            }
+        }
+        return new BigDecimal(converter.convert(value).toString());
+    }
+
+    /**
+     * @return true if the value can be computed as a double without losing precision
+     */
+    static boolean fitsDouble(BigDecimal value) {
+        if (value.signum() == 0) {
+            return true;
+        }
+        if (value.precision() > DOUBLE_DIGITS) {
+            return false;
+        }
+        // exponent of the most significant digit
+        int exponent = value.precision() - value.scale() - 1;
+        return Math.abs(exponent) <= MAX_DOUBLE_EXPONENT;
+    }
+
+    /**
+     * @return the double rounded to 15 significant digits, or null if it is not finite
+     */
+    static BigDecimal toDecimal(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return null;
+        }
+        BigDecimal decimal = BigDecimal.valueOf(value);
+        if (decimal.precision() <= DOUBLE_DIGITS) {
+            return decimal;
+        }
+        decimal = decimal.round(DOUBLE_CONTEXT).stripTrailingZeros();
+        return decimal.scale() < 0 ? decimal.setScale(0) : decimal;
+    }
+}
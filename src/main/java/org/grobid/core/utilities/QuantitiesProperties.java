@@ -0,0 +1,157 @@
+package org.grobid.core.utilities;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Settings of the quantities module. The default values are read from the file
+ * grobid-quantities.properties in the classpath, each of them can be overridden
+ * with a system property of the same name (e.g. -Dgrobid.quantities.batching.enabled=true).
+ */
+public class QuantitiesProperties {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuantitiesProperties.class);
+
+    public static final String PROPERTIES_PATH = "grobid-quantities.properties";
+
+    // micro-batching of the text requests
+    public static final String BATCHING_ENABLED = "grobid.quantities.batching.enabled";
+    public static final String BATCHING_WINDOW_MS = "grobid.quantities.batching.windowMs";
+    public static final String BATCHING_MAX_TOKENS = "grobid.quantities.batching.maxTokens";
+    public static final String BATCHING_MAX_TEXTS = "grobid.quantities.batching.maxTexts";
+    public static final String BATCHING_MAX_QUEUED = "grobid.quantities.batching.maxQueued";
+    public static final String BATCHING_TIMEOUT_MS = "grobid.quantities.batching.timeoutMs";
+    public static final String BATCHING_WORKERS = "grobid.quantities.batching.workers";
+
+    // asynchronous PDF jobs
+    public static final String JOBS_WORKERS = "grobid.quantities.jobs.workers";
+    public static final String JOBS_QUEUE_SIZE = "grobid.quantities.jobs.queueSize";
+    public static final String JOBS_TTL_SECONDS = "grobid.quantities.jobs.ttlSeconds";
+    public static final String JOBS_RETRY_AFTER_SECONDS = "grobid.quantities.jobs.retryAfterSeconds";
+
+    // admission control of the end-points, followed by the end-point and .maxConcurrent, .maxQueued or .timeoutMs
+    public static final String LIMITS_PREFIX = "grobid.quantities.limits.";
+    public static final String LIMITS_RETRY_AFTER_SECONDS = "grobid.quantities.limits.retryAfterSeconds";
+
+    // batches of measures to normalize, see the parseMeasureBatch end-point
+    public static final String MEASURE_BATCH_CHUNK_SIZE = "grobid.quantities.measureBatch.chunkSize";
+    public static final String MEASURE_BATCH_WORKERS = "grobid.quantities.measureBatch.workers";
+
+    // caches of the results
+    public static final String CACHE_TEXT_ENABLED = "grobid.quantities.cache.text.enabled";
+    public static final String CACHE_TEXT_MAX_QUANTITIES = "grobid.quantities.cache.text.maxQuantities";
+    public static final String CACHE_PDF_ENABLED = "grobid.quantities.cache.pdf.enabled";
+    public static final String CACHE_PDF_MAX_BYTES = "grobid.quantities.cache.pdf.maxBytes";
+    public static final String CACHE_PDF_DIRECTORY = "grobid.quantities.cache.pdf.directory";
+    public static final String CACHE_PDF_MAX_FILES = "grobid.quantities.cache.pdf.maxFiles";
+    public static final String CACHE_UNITS_ENABLED = "grobid.quantities.cache.units.enabled";
+    public static final String CACHE_UNITS_MAX_ENTRIES = "grobid.quantities.cache.units.maxEntries";
+    public static final String CACHE_UNITS_WARMUP_FILE = "grobid.quantities.cache.units.warmupFile";
+    public static final String CACHE_VALUES_ENABLED = "grobid.quantities.cache.values.enabled";
+    public static final String CACHE_VALUES_MAX_ENTRIES = "grobid.quantities.cache.values.maxEntries";
+    public static final String CACHE_CONVERSIONS_MAX_ENTRIES = "grobid.quantities.cache.conversions.maxEntries";
+    public static final String CACHE_UNIT_FAILURES_MAX_ENTRIES = "grobid.quantities.cache.unitFailures.maxEntries";
+
+    // maximum number of units which cannot be normalized logged per minute
+    public static final String UNIT_FAILURES_LOGS_PER_MINUTE = "grobid.quantities.unitFailures.logsPerMinute";
+
+    // compiled unit lexicon, read at start-up instead of expanding the JSON resources
+    public static final String LEXICON_SNAPSHOT_ENABLED = "grobid.quantities.lexicon.snapshot.enabled";
+    public static final String LEXICON_SNAPSHOT_FILE = "grobid.quantities.lexicon.snapshot.file";
+
+    // pools of taggers, the size can be set per model by adding .quantities, .units or .values
+    public static final String TAGGERS_POOL_SIZE = "grobid.quantities.taggers.poolSize";
+    public static final String TAGGERS_TIMEOUT_MS = "grobid.quantities.taggers.timeoutMs";
+
+    // skip the CRF labeling of the segments without digit, number word or unit
+    public static final String PREFILTER_ENABLED = "grobid.quantities.prefilter.enabled";
+
+    // parse the plain numbers without the value CRF
+    public static final String VALUES_SCANNER_ENABLED = "grobid.quantities.values.scanner.enabled";
+
+    // arithmetic of the numeric values, decimal (BigDecimal) or double
+    public static final String NUMERIC_MODE = "grobid.quantities.numeric.mode";
+
+    // warm-up at start-up
+    public static final String WARMUP_ENABLED = "grobid.quantities.warmup.enabled";
+    public static final String WARMUP_ITERATIONS = "grobid.quantities.warmup.iterations";
+    public static final String WARMUP_MAX_SECONDS = "grobid.quantities.warmup.maxSeconds";
+
+    private static volatile QuantitiesProperties instance;
+
+    private final Properties properties = new Properties();
+
+    public static QuantitiesProperties getInstance() {
+        if (instance == null) {
+            getNewInstance();
+        }
+        return instance;
+    }
+
+    private static synchronized void getNewInstance() {
+        instance = new QuantitiesProperties();
+    }
+
+    private QuantitiesProperties() {
+        InputStream is = this.getClass().getClassLoader().getResourceAsStream(PROPERTIES_PATH);
+        if (is == null) {
+            LOGGER.info(PROPERTIES_PATH + " not found in the classpath, using the default settings.");
+            return;
+        }
+        try {
+            properties.load(is);
+        } catch (IOException e) {
+            LOGGER.error("Cannot read " + PROPERTIES_PATH + ", using the default settings.", e);
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
+
+    public String get(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (isBlank(value)) {
+            value = properties.getProperty(key);
+        }
+        return isBlank(value) ? defaultValue : value.trim();
+    }
+
+    public int getInt(String key, int defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Invalid integer value '" + value + "' for " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public long getLong(String key, long defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            LOGGER.warn("Invalid long value '" + value + "' for " + key + ", using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = get(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value);
+    }
+}
@@ -0,0 +1,156 @@
+package org.grobid.core.utilities;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+import org.grobid.core.metrics.Counter;
+import org.grobid.core.metrics.MetricsRegistry;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Size bounded cache of processing results, addressed by the digest of the (normalised) input.
+ * <p>
+ * The entries are also keyed by a version, e.g. a fingerprint of the models and of the lexical
+ * resources: when the version changes, the whole cache is invalidated, so an outdated result is
+ * never served.
+ * <p>
+ * Hits, misses and evictions are exported as metrics, labeled with the name of the cache.
+ *
+ * @param <V> the cached results, which must not be modified once cached
+ */
+public class ResultCache<V> {
+
+    private final Cache<String, V> cache;
+    private final Supplier<String> version;
+    private volatile String currentVersion = null;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    /**
+     * @param maximumSize the maximum number of entries, or the maximum total weight if a weigher is given
+     * @param weigher     the weight of an entry, null to count the entries
+     */
+    public ResultCache(String name, long maximumSize, Weigher<String, V> weigher, Supplier<String> version) {
+        this.version = version;
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        hits = metrics.counter("quantities_cache_hits_total", "Number of results served from the cache.", "cache", name);
+        misses = metrics.counter("quantities_cache_misses_total", "Number of results not found in the cache.", "cache", name);
+        evictions = metrics.counter("quantities_cache_evictions_total", "Number of results evicted from the cache.", "cache", name);
+
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder();
+        if (weigher != null) {
+            builder.maximumWeight(maximumSize).weigher(weigher);
+        } else {
+            builder.maximumSize(maximumSize);
+        }
+        cache = builder
+                .removalListener(notification -> {
+                    if (notification.wasEvicted())
+                        evictions.inc();
+                })
+                .build();
+        metrics.gauge("quantities_cache_size", "Number of results in the cache.", "cache", name, cache::size);
+    }
+
+    public static String digest(String content) {
+        return Hashing.sha256().hashString(content, UTF_8).toString();
+    }
+
+    public static String digest(byte[] content) {
+        return Hashing.sha256().hashBytes(content).toString();
+    }
+
+    public static String digest(File content) throws IOException {
+        return Files.asByteSource(content).hash(Hashing.sha256()).toString();
+    }
+
+    /**
+     * @param digest the digest of the input, see {@link #digest(String)}
+     * @return the cached result, or null
+     */
+    public V get(String digest) {
+        String key = key(digest);
+        V value = cache.getIfPresent(key);
+        if (value == null) {
+            value = load(key);
+            if (value != null) {
+                cache.put(key, value);
+            }
+        }
+        if (value != null) {
+            hits.inc();
+        } else {
+            misses.inc();
+        }
+        return value;
+    }
+
+    /**
+     * @return true if the result is in memory, without counting a hit or a miss
+     */
+    public boolean contains(String digest) {
+        return cache.getIfPresent(key(digest)) != null;
+    }
+
+    public void put(String digest, V value) {
+        if (value == null) {
+            return;
+        }
+        String key = key(digest);
+        cache.put(key, value);
+        store(key, value);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        clearStore();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * Secondary storage lookup when the entry is not in memory, none by default.
+     */
+    protected V load(String key) {
+        return null;
+    }
+
+    /**
+     * Secondary storage of a new entry, none by default.
+     */
+    protected void store(String key, V value) {
+    }
+
+    /**
+     * Empty the secondary storage, none by default.
+     */
+    protected void clearStore() {
+    }
+
+    private String key(String digest) {
+        String current = version.get();
+        if (!current.equals(currentVersion)) {
+            synchronized (this) {
+                if (!current.equals(currentVersion)) {
+                    if (currentVersion != null) {
+                        invalidateAll();
+                    }
+                    currentVersion = current;
+                }
+            }
+        }
+        return current + ":" + digest;
+    }
+}
@@ -0,0 +1,85 @@
+package org.grobid.core.utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Group several CRF feature matrices into a single input, so that they can be labeled with one
+ * call to the tagger, and split the labeled result back into one result per sequence.
+ * <p>
+ * Sequences are separated by a blank line, which is the sequence delimiter of the CRF input
+ * format. The split relies on the fact that each non blank line of the input gives exactly one
+ * non blank line in the labeled output, so a feature matrix containing blank lines
+ * (e.g. from an @newline token) is split back correctly.
+ */
+public class SequenceBatch {
+
+    private final StringBuilder features = new StringBuilder();
+    private final List<Integer> lineCounts = new ArrayList<>();
+
+    /**
+     * Add a feature matrix to the batch.
+     *
+     * @return the index of the sequence in the batch
+     */
+    public int add(String featureMatrix) {
+        int lines = 0;
+        if (!isBlank(featureMatrix)) {
+            for (String line : featureMatrix.split("\n")) {
+                if (!isBlank(line)) {
+                    lines++;
+                }
+            }
+            if (lines > 0) {
+                features.append(featureMatrix);
+                if (!featureMatrix.endsWith("\n")) {
+                    features.append("\n");
+                }
+                features.append("\n");
+            }
+        }
+        lineCounts.add(lines);
+        return lineCounts.size() - 1;
+    }
+
+    public int size() {
+        return lineCounts.size();
+    }
+
+    /**
+     * True if none of the sequences have features, i.e. there is nothing to label.
+     */
+    public boolean isEmpty() {
+        return features.length() == 0;
+    }
+
+    public String getFeatures() {
+        return features.toString();
+    }
+
+    /**
+     * Split the labeled result of the whole batch into the labeled result of each sequence,
+     * in the order they have been added. Sequences without features get an empty result.
+     */
+    public List<String> split(String labeled) {
+        List<String> results = new ArrayList<>();
+        String[] lines = labeled == null ? new String[0] : labeled.split("\n");
+        int position = 0;
+        for (int lineCount : lineCounts) {
+            StringBuilder result = new StringBuilder();
+            int added = 0;
+            while (added < lineCount && position < lines.length) {
+                String line = lines[position++];
+                if (isBlank(line)) {
+                    continue;
+                }
+                result.append(line).append("\n");
+                added++;
+            }
+            results.add(result.toString());
+        }
+        return results;
+    }
+}
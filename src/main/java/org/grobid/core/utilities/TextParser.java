@@ -3,6 +3,8 @@ package org.grobid.core.utilities;
 import org.grobid.core.data.Sentence;
 import org.grobid.core.data.SentenceParse;
 import org.grobid.core.exceptions.GrobidException;
+import org.grobid.core.metrics.Histogram;
+import org.grobid.core.metrics.StageMetrics;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +42,9 @@ import com.googlecode.clearnlp.nlp.NLPLib;
 public class TextParser {
     private static final Logger logger = LoggerFactory.getLogger(TextParser.class);
 
+    private static final Histogram SEGMENT_STAGE = StageMetrics.stage("clearnlp_segment");
+    private static final Histogram PARSE_STAGE = StageMetrics.stage("clearnlp_parse");
+
     public final String language = AbstractReader.LANG_EN;
 
     private static volatile TextParser instance;
@@ -142,10 +147,12 @@ public class TextParser {
 
         Sentence result = null;
 
+        long start = System.nanoTime();
         DEPTree tree = EngineProcess.getDEPTree(tokenizer, taggers,
                 //analyzer, parser, predicater, labeler, sentence);
                 analyzer, parser, sentence);
         EngineProcess.predictSRL(predicater, roleClassifier, labeler, tree);
+        PARSE_STAGE.observeSince(start);
         // we only have the top parse with the ClearParser, no n-best ! and no score.
         SentenceParse parse = new SentenceParse();
         parse.setParseRepresentation(tree.toStringSRL());
@@ -183,7 +190,9 @@ public class TextParser {
 
         // read it with BufferedReader
         BufferedReader br = new BufferedReader(new InputStreamReader(is));
+        long start = System.nanoTime();
         List<List<String>> sentences = segmenter.getSentences(br);
+        SEGMENT_STAGE.observeSince(start);
 
         if ((sentences == null) || (sentences.size() == 0)) {
             // there is some text but not in a state so that a sentence at least can be
@@ -199,8 +208,10 @@ public class TextParser {
         int position = 0;
         for (List<String> tokens : sentences) {
             //DEPTree tree = EngineProcess.getDEPTree(taggers, analyzer, parser, predicater, labeler, tokens);                  
+            start = System.nanoTime();
             DEPTree tree = EngineProcess.getDEPTree(taggers, analyzer, parser, tokens);
             EngineProcess.predictSRL(predicater, roleClassifier, labeler, tree);
+            PARSE_STAGE.observeSince(start);
             // we only have the top parse with the ClearParser, no n-best !
             SentenceParse parse = new SentenceParse();
             parse.setParseRepresentation(tree.toStringSRL());
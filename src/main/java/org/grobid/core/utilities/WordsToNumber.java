@@ -6,7 +6,10 @@ import java.text.ParseException;
 import java.util.Locale;
 import java.util.*;
 import java.io.*;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.grobid.core.lexicon.LexiconLoader;
+import org.grobid.core.lexicon.QuantityLexicon;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,21 +19,25 @@ import com.fasterxml.jackson.databind.*;
 
 /**
  * Convert a number expressed with alphabetical characters into a normalized numerical value.
- * 
+ * <p>
+ * There is one instance per file of number words (e.g. fr/values.json), the languages without
+ * their own file share the instance of the default language.
+ *
  * @author Patrice Lopez
  */
 public class WordsToNumber {
 
     private static final Logger logger = LoggerFactory.getLogger(WordsToNumber.class);
 
-    private static volatile WordsToNumber instance;
+    // instances by path of the number words
+    private static final Map<String, WordsToNumber> instances = new ConcurrentHashMap<>();
 
-    private final String VALUES_PATH = "en/values.json";
+    private final String valuesPath;
 
-    private static List<String> bases = null; 
-    private static List<String> tens = null; 
-    private static List<String> scales = null; 
-    private static String decimalMark = null; 
+    private List<String> bases = null;
+    private List<String> tens = null;
+    private List<String> scales = null;
+    private String decimalMark = null;
 
     private Set<String> numberTokens = null;
  
@@ -38,17 +45,36 @@ public class WordsToNumber {
     private Map<String, ScaleIncrementPair> numWord = null; 
 
     public static WordsToNumber getInstance() {
-        if (instance == null) {
-            getNewInstance();
+        return getInstance(QuantityLexicon.DEFAULT_LANGUAGE);
+    }
+
+    /**
+     * @param language a language code, the number words of the default language are used for a
+     * language without its own number words
+     */
+    public static WordsToNumber getInstance(String language) {
+        if (language == null || !QuantityLexicon.LANGUAGES.contains(language)) {
+            language = QuantityLexicon.DEFAULT_LANGUAGE;
         }
-        return instance;
+        String valuesPath = LexiconLoader.localizedPath(language, QuantityLexicon.VALUES_FILENAME);
+        WordsToNumber wordsToNumber = instances.get(valuesPath);
+        if (wordsToNumber == null) {
+            wordsToNumber = getNewInstance(valuesPath);
+        }
+        return wordsToNumber;
     }
 
-    private static synchronized void getNewInstance() {
-        instance = new WordsToNumber();
+    private static synchronized WordsToNumber getNewInstance(String valuesPath) {
+        WordsToNumber wordsToNumber = instances.get(valuesPath);
+        if (wordsToNumber == null) {
+            wordsToNumber = new WordsToNumber(valuesPath);
+            instances.put(valuesPath, wordsToNumber);
+        }
+        return wordsToNumber;
     }
 
-    private WordsToNumber() {
+    private WordsToNumber(String valuesPath) {
+        this.valuesPath = valuesPath;
         // init the lexicon with the numerical operations
         numWord = new HashMap<String, ScaleIncrementPair>();
         numWord.put("and", new ScaleIncrementPair(1, 0));
@@ -59,7 +85,7 @@ public class WordsToNumber {
     private void init() {
         ObjectMapper mapper = new ObjectMapper();
         try {
-            JsonNode rootNode = mapper.readTree(this.getClass().getClassLoader().getResourceAsStream(VALUES_PATH));
+            JsonNode rootNode = mapper.readTree(this.getClass().getClassLoader().getResourceAsStream(valuesPath));
 
             bases = new ArrayList<String>();
             tens = new ArrayList<String>();
@@ -120,7 +146,7 @@ public class WordsToNumber {
             }
             decimalMark = decimalMarks.get(0);
         } catch(IOException e) {
-            logger.error("Error when reading the values.json file");
+            logger.error("Error when reading the " + valuesPath + " file");
         }
 
     }
@@ -0,0 +1,136 @@
+package org.grobid.service;
+
+import org.grobid.core.metrics.Counter;
+import org.grobid.core.metrics.MetricsRegistry;
+import org.grobid.core.utilities.QuantitiesProperties;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admission control of an end-point: at most maxConcurrent requests are processed at the same
+ * time, at most maxQueued requests wait for their turn, during at most timeoutMs. Any other
+ * request is rejected right away with an {@link EndpointSaturatedException}, which the services
+ * turn into a 503 with a Retry-After header, instead of piling up on the parsers.
+ * <p>
+ * The limits of an end-point are read from the settings grobid.quantities.limits.[endpoint].maxConcurrent,
+ * .maxQueued and .timeoutMs.
+ */
+public class EndpointLimiter {
+
+    public static final String TEXT = "text";
+    public static final String PARSE_MEASURE = "parseMeasure";
+    public static final String PDF = "pdf";
+
+    private static final Map<String, EndpointLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final String endpoint;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long timeoutMs;
+    private final int retryAfterSeconds;
+
+    private final Semaphore permits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter rejected;
+
+    public static EndpointLimiter get(String endpoint) {
+        return limiters.computeIfAbsent(endpoint, EndpointLimiter::fromProperties);
+    }
+
+    private static EndpointLimiter fromProperties(String endpoint) {
+        QuantitiesProperties properties = QuantitiesProperties.getInstance();
+        String prefix = QuantitiesProperties.LIMITS_PREFIX + endpoint;
+        int cores = Runtime.getRuntime().availableProcessors();
+        int defaultConcurrent = PDF.equals(endpoint) ? 2 : cores;
+        int maxConcurrent = properties.getInt(prefix + ".maxConcurrent", defaultConcurrent);
+        return new EndpointLimiter(endpoint,
+                maxConcurrent,
+                properties.getInt(prefix + ".maxQueued", 2 * maxConcurrent),
+                properties.getLong(prefix + ".timeoutMs", PDF.equals(endpoint) ? 30000 : 2000),
+                properties.getInt(QuantitiesProperties.LIMITS_RETRY_AFTER_SECONDS, 1));
+    }
+
+    EndpointLimiter(String endpoint, int maxConcurrent, int maxQueued, long timeoutMs, int retryAfterSeconds) {
+        this.endpoint = endpoint;
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.maxQueued = Math.max(0, maxQueued);
+        this.timeoutMs = timeoutMs;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.permits = new Semaphore(this.maxConcurrent, true);
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.gauge("quantities_endpoint_in_flight", "Number of requests being processed.",
+                "endpoint", endpoint, inFlight::get);
+        metrics.gauge("quantities_endpoint_queued", "Number of requests waiting to be processed.",
+                "endpoint", endpoint, queued::get);
+        metrics.gauge("quantities_endpoint_max_concurrent", "Maximum number of requests processed concurrently.",
+                "endpoint", endpoint, () -> this.maxConcurrent);
+        rejected = metrics.counter("quantities_endpoint_rejected_total", "Number of requests rejected by the admission control.",
+                "endpoint", endpoint);
+    }
+
+    /**
+     * Wait for the right to process a request, the returned permit must be closed once the
+     * request is processed.
+     *
+     * @throws EndpointSaturatedException if the end-point is saturated, i.e. the waiting queue is
+     *                                    full or no slot was freed within the timeout
+     */
+    public Permit acquire() {
+        if (!permits.tryAcquire()) {
+            if (queued.incrementAndGet() > maxQueued) {
+                queued.decrementAndGet();
+                rejected.inc();
+                throw new EndpointSaturatedException("Too many requests waiting for " + endpoint);
+            }
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            } finally {
+                queued.decrementAndGet();
+            }
+            if (!acquired) {
+                rejected.inc();
+                throw new EndpointSaturatedException("No slot freed for " + endpoint + " within " + timeoutMs + " ms");
+            }
+        }
+        inFlight.incrementAndGet();
+        return new Permit();
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public class Permit implements AutoCloseable {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                inFlight.decrementAndGet();
+                permits.release();
+            }
+        }
+    }
+}
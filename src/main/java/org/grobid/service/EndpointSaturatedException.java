@@ -0,0 +1,11 @@
+package org.grobid.service;
+
+/**
+ * Thrown by the {@link EndpointLimiter} when a request cannot be admitted, the services answer
+ * it with a 503 and a Retry-After header.
+ */
+public class EndpointSaturatedException extends RuntimeException {
+    public EndpointSaturatedException(String s) {
+        super(s);
+    }
+}
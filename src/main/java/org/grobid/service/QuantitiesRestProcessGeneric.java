@@ -1,13 +1,23 @@
 package org.grobid.service;
 
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import javax.ws.rs.core.Response.Status;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.grobid.core.metrics.MetricsRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * 
  * @author Achraf
@@ -47,6 +57,70 @@ public class QuantitiesRestProcessGeneric {
 		return response;
 	}
 	
+	/**
+	 * Returns a string containing true once the warm-up of the service is finished, and false
+	 * with a service unavailable status before, so that no traffic is routed to a cold service.
+	 * 
+	 * @return returns a response object containing the string true if service
+	 *         is ready.
+	 */
+	public static Response isReady() {
+		Response response = null;
+		try {
+			LOGGER.debug("called isReady()...");
+
+			QuantityWarmUp warmUp = QuantityWarmUp.getInstance();
+			if (warmUp.isReady()) {
+				response = Response.status(Status.OK).entity(Boolean.TRUE.toString()).build();
+			} else {
+				String retVal = Boolean.FALSE.toString();
+				if (warmUp.getFailure() != null) {
+					retVal += ", warm-up failed: " + warmUp.getFailure();
+				}
+				response = Response.status(Status.SERVICE_UNAVAILABLE).entity(retVal).build();
+			}
+		} catch (Exception e) {
+			LOGGER.error("", e);
+			response = Response.status(Status.INTERNAL_SERVER_ERROR).build();
+		}
+		return response;
+	}
+
+	/**
+	 * Returns a bad request status for a language without unit lexicon.
+	 * 
+	 * @return returns a response object with the supported languages
+	 */
+	public static Response unsupportedLanguage(String lang) {
+		LOGGER.error("Unsupported language: " + lang);
+		return Response.status(Status.BAD_REQUEST)
+				.entity("Unsupported language: " + lang + ", expected one of " + QuantityLexicon.LANGUAGES)
+				.build();
+	}
+
+	/**
+	 * Returns the runtime metrics of the service in the Prometheus text format.
+	 * 
+	 * @return returns a response object streaming the metrics
+	 */
+	public static Response metrics() {
+		Response response = null;
+		try {
+			StreamingOutput output = outputStream -> {
+				Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+				MetricsRegistry.getInstance().write(writer);
+				writer.flush();
+			};
+			response = Response.status(Status.OK).entity(output)
+					.header(HttpHeaders.CONTENT_TYPE, "text/plain; version=0.0.4; charset=utf-8")
+					.build();
+		} catch (Exception e) {
+			LOGGER.error("Cannot export the metrics. ", e);
+			response = Response.status(Status.INTERNAL_SERVER_ERROR).build();
+		}
+		return response;
+	}
+
 	/**
 	 * Returns the description of how to use the grobid-service in a human
 	 * readable way (html).
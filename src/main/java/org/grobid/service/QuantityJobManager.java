@@ -0,0 +1,243 @@
+package org.grobid.service;
+
+import org.grobid.core.data.Measurement;
+import org.grobid.core.document.Document;
+import org.grobid.core.engines.QuantityParser;
+import org.grobid.core.main.LibraryLoader;
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.grobid.core.metrics.Counter;
+import org.grobid.core.metrics.Histogram;
+import org.grobid.core.metrics.MetricsRegistry;
+import org.grobid.core.utilities.IOUtilities;
+import org.grobid.core.utilities.Pair;
+import org.grobid.core.utilities.QuantitiesProperties;
+import org.grobid.core.utilities.ResultCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous processing of the PDF annotation requests.
+ * <p>
+ * The PDF are processed by a bounded pool of workers, fed by a bounded queue: when the queue is
+ * full the submission is rejected, so that the clients can retry later instead of piling up
+ * requests. The JSON result of a job is kept in memory until it is older than the configured
+ * time to live.
+ */
+public class QuantityJobManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuantityJobManager.class);
+
+    public enum Status {
+        QUEUED, RUNNING, DONE, FAILED
+    }
+
+    private static volatile QuantityJobManager instance;
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService cleaner;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int retryAfterSeconds;
+
+    private final Counter submitted;
+    private final Counter rejected;
+    private final Counter failed;
+    private final Histogram durations;
+
+    public static QuantityJobManager getInstance() {
+        if (instance == null) {
+            getNewInstance();
+        }
+        return instance;
+    }
+
+    private static synchronized void getNewInstance() {
+        if (instance == null) {
+            instance = new QuantityJobManager();
+        }
+    }
+
+    private QuantityJobManager() {
+        QuantitiesProperties properties = QuantitiesProperties.getInstance();
+        int workers = Math.max(1, properties.getInt(QuantitiesProperties.JOBS_WORKERS, 2));
+        int queueSize = Math.max(1, properties.getInt(QuantitiesProperties.JOBS_QUEUE_SIZE, 20));
+        ttlMillis = TimeUnit.SECONDS.toMillis(properties.getLong(QuantitiesProperties.JOBS_TTL_SECONDS, 3600));
+        retryAfterSeconds = properties.getInt(QuantitiesProperties.JOBS_RETRY_AFTER_SECONDS, 30);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(runnable, "quantities-pdf-job-" + threadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quantities-pdf-job-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, Math.min(ttlMillis, 60000));
+        cleaner.scheduleAtFixedRate(this::removeExpiredJobs, period, period, TimeUnit.MILLISECONDS);
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        submitted = metrics.counter("quantities_pdf_jobs_submitted_total", "Number of PDF jobs accepted.");
+        rejected = metrics.counter("quantities_pdf_jobs_rejected_total", "Number of PDF jobs rejected because the queue was full.");
+        failed = metrics.counter("quantities_pdf_jobs_failed_total", "Number of PDF jobs which failed.");
+        durations = metrics.histogram("quantities_pdf_jobs_duration_seconds", "Processing time of the PDF jobs.", Histogram.LATENCY_BUCKETS);
+        metrics.gauge("quantities_pdf_jobs_queued", "Number of PDF jobs waiting for a worker.", () -> executor.getQueue().size());
+        metrics.gauge("quantities_pdf_jobs_running", "Number of PDF jobs being processed.", executor::getActiveCount);
+        metrics.gauge("quantities_pdf_jobs_retained", "Number of PDF jobs kept in memory.", jobs::size);
+
+        LOGGER.info("PDF jobs: " + workers + " worker(s), queue of " + queueSize + ", results kept " + ttlMillis + " ms.");
+    }
+
+    /**
+     * Queue the processing of a PDF. The file is deleted once the job is finished.
+     *
+     * @return the new job
+     * @throws RejectedExecutionException if the queue is full, the file is then deleted
+     */
+    public Job submit(File pdfFile) {
+        return submit(pdfFile, QuantityLexicon.DEFAULT_LANGUAGE);
+    }
+
+    /**
+     * Queue the processing of a PDF with the lexicon of a language.
+     *
+     * @param language a language with a lexicon, see {@link QuantityLexicon#resolveLanguage(String)}
+     */
+    public Job submit(File pdfFile, String language) {
+        Job job = new Job(UUID.randomUUID().toString());
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, pdfFile, language));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            IOUtilities.removeTempFile(pdfFile);
+            rejected.inc();
+            throw e;
+        }
+        submitted.inc();
+        return job;
+    }
+
+    /**
+     * @return the job, or null if it does not exist or has expired
+     */
+    public Job getJob(String id) {
+        return id == null ? null : jobs.get(id);
+    }
+
+    /**
+     * Seconds a client should wait before submitting again after a rejection.
+     */
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    private void run(Job job, File pdfFile, String language) {
+        job.status = Status.RUNNING;
+        job.started = System.currentTimeMillis();
+        byte[] result = null;
+        String error = null;
+        try {
+            ResultCache<byte[]> pdfCache = QuantityProcessFile.getPDFCache();
+            String digest = null;
+            if (pdfCache != null) {
+                digest = QuantityProcessFile.pdfCacheKey(pdfFile, language);
+                result = pdfCache.get(digest);
+            }
+
+            if (result == null) {
+                LibraryLoader.load();
+                Pair<List<Measurement>, Document> extractedEntities = QuantityParser.getInstance(language).extractQuantitiesPDF(pdfFile);
+
+                result = QuantityProcessFile.renderPDFAnnotations(extractedEntities.getB().getPages(),
+                        extractedEntities.getA());
+                if (pdfCache != null) {
+                    pdfCache.put(digest, result);
+                }
+            }
+        } catch (Throwable t) {
+            LOGGER.error("The PDF job " + job.getId() + " failed. ", t);
+            error = t.getMessage() != null ? t.getMessage() : t.getClass().getName();
+            failed.inc();
+        } finally {
+            IOUtilities.removeTempFile(pdfFile);
+        }
+
+        // the status is set last, a finished job must have its end time for the expiration
+        job.finished = System.currentTimeMillis();
+        durations.observe((job.finished - job.started) / 1000.0);
+        job.result = result;
+        job.error = error;
+        job.status = result != null ? Status.DONE : Status.FAILED;
+    }
+
+    private void removeExpiredJobs() {
+        long now = System.currentTimeMillis();
+        jobs.values().removeIf(job -> job.isFinished() && (now - job.finished) > ttlMillis);
+    }
+
+    public static class Job {
+        private final String id;
+        private final long submitted = System.currentTimeMillis();
+        private volatile Status status = Status.QUEUED;
+        private volatile long started;
+        private volatile long finished;
+        private volatile byte[] result;
+        private volatile String error;
+
+        Job(String id) {
+            this.id = id;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public boolean isFinished() {
+            return status == Status.DONE || status == Status.FAILED;
+        }
+
+        public long getSubmitted() {
+            return submitted;
+        }
+
+        /**
+         * @return the processing time in milliseconds, 0 if the job is not finished
+         */
+        public long getRuntime() {
+            return isFinished() ? finished - started : 0;
+        }
+
+        /**
+         * @return the JSON annotations without the runtime, as in the cache of the PDF annotations,
+         * null until the job is done
+         */
+        public byte[] getResult() {
+            return result;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
@@ -17,6 +17,11 @@ public interface QuantityPaths {
      */
     String PATH_QUANTITY_TEXT= "processQuantityText";
 
+    /**
+     * path extension for extracting quantities from a batch of texts (JSON array or NDJSON).
+     */
+    String PATH_QUANTITY_TEXT_BATCH= "processQuantityTextBatch";
+
     /**
      * path extension for extracting quantities from an XML file.
      */
@@ -28,13 +33,43 @@ public interface QuantityPaths {
      */
     String PATH_ANNOTATE_QUANTITY_PDF= "annotateQuantityPDF";
 
+    /**
+     * path extension for submitting an asynchronous PDF annotation job.
+     */
+    String PATH_ANNOTATE_QUANTITY_PDF_JOBS = PATH_ANNOTATE_QUANTITY_PDF + "/jobs";
+
+    /**
+     * path extension for the status of an asynchronous PDF annotation job.
+     */
+    String PATH_ANNOTATE_QUANTITY_PDF_JOB = PATH_ANNOTATE_QUANTITY_PDF_JOBS + "/{id}";
+
+    /**
+     * path extension for the result of an asynchronous PDF annotation job.
+     */
+    String PATH_ANNOTATE_QUANTITY_PDF_JOB_RESULT = PATH_ANNOTATE_QUANTITY_PDF_JOB + "/result";
+
     /**
      * path extension for parsing quantities from a non or partially structured measure.
      */
     String PATH_PARSE_MEASURE = "parseMeasure";
 
+    /**
+     * path extension for parsing a batch of measures, as a JSON array or NDJSON.
+     */
+    String PATH_PARSE_MEASURE_BATCH = "parseMeasureBatch";
+
     /**
 	 * path extension for is alive request.
 	 */
     String PATH_IS_ALIVE = "isalive";
+
+    /**
+     * path extension for is ready request, i.e. the warm-up is finished.
+     */
+    String PATH_IS_READY = "isReady";
+
+    /**
+     * path extension for the runtime metrics, in the Prometheus text format.
+     */
+    String PATH_METRICS = "metrics";
 }
@@ -1,24 +1,40 @@
 package org.grobid.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.grobid.core.data.Measurement;
 import org.grobid.core.document.Document;
 import org.grobid.core.engines.Engine;
+import org.grobid.core.engines.QuantitiesVersion;
 import org.grobid.core.engines.QuantityParser;
 import org.grobid.core.engines.config.GrobidAnalysisConfig;
 import org.grobid.core.factory.GrobidFactory;
 import org.grobid.core.layout.Page;
+import org.grobid.core.lexicon.QuantityLexicon;
 import org.grobid.core.main.LibraryLoader;
 import org.grobid.core.utilities.IOUtilities;
+import org.grobid.core.utilities.DiskResultCache;
 import org.grobid.core.utilities.Pair;
+import org.grobid.core.utilities.QuantitiesProperties;
+import org.grobid.core.utilities.ResultCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * 
@@ -29,6 +45,8 @@ public class QuantityProcessFile {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(QuantityProcessFile.class);
 
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
 
     /**
      * Uploads the origin PDF, process it and return PDF annotations for references in JSON.
@@ -37,78 +55,240 @@ public class QuantityProcessFile {
      * @return a response object containing the JSON annotations
      */
     public static Response processPDFAnnotation(final InputStream inputStream) {
+        return processPDFAnnotation(inputStream, null);
+    }
+
+    /**
+     * @param lang the language of the PDF, null for the default language
+     */
+    public static Response processPDFAnnotation(final InputStream inputStream, String lang) {
         LOGGER.debug(methodLogIn()); 
         Response response = null;
         File originFile = null;
-        QuantityParser parser = QuantityParser.getInstance();
+        String language;
+        try {
+            language = QuantityLexicon.resolveLanguage(lang);
+        } catch (IllegalArgumentException e) {
+            return QuantitiesRestProcessGeneric.unsupportedLanguage(lang);
+        }
+        EndpointLimiter limiter = EndpointLimiter.get(EndpointLimiter.PDF);
+        EndpointLimiter.Permit permit = null;
 
         try {
-            LibraryLoader.load();
+            // the upload is read before waiting for a slot, so that a slot is never held by a slow client
             originFile = IOUtilities.writeInputFile(inputStream);
 
             if (originFile == null) {
                 response = Response.status(Status.INTERNAL_SERVER_ERROR).build();
             } else {
+                permit = limiter.acquire();
+                LibraryLoader.load();
+                QuantityParser parser = QuantityParser.getInstance(language);
                 long start = System.currentTimeMillis();
-                Pair<List<Measurement>, Document> extractedEntities = parser.extractQuantitiesPDF(originFile);
-                long end = System.currentTimeMillis();
-
-                Document doc = extractedEntities.getB();
-                List<Measurement> measurements = extractedEntities.getA();
-                StringBuilder json = new StringBuilder();
-                json.append("{ ");
-
-                // page height and width
-                json.append("\"pages\":[");
-                List<Page> pages = doc.getPages();
-                boolean first = true;
-                for(Page page : pages) {
-                    if (first) 
-                        first = false;
-                    else
-                        json.append(", ");    
-                    json.append("{\"page_height\":" + page.getHeight());
-                    json.append(", \"page_width\":" + page.getWidth() + "}");
-                }
+                ResultCache<byte[]> pdfCache = getPDFCache();
+                String digest = pdfCache == null ? null : pdfCacheKey(originFile, language);
+                byte[] cached = pdfCache == null ? null : pdfCache.get(digest);
 
-                json.append("], \"measurements\":[");
-                first = true;
-                for(Measurement entity : measurements) {
-                    if (!first)
-                        json.append(", ");
-                    else
-                        first = false;
-                    json.append(entity.toJson());
-                }
-                
-                json.append("]");
-                json.append(", \"runtime\" :" + (end-start));
-                json.append("}");
+                if (cached != null) {
+                    response = Response
+                            .ok()
+                            .type("application/json")
+                            .entity(QuantityResponseWriter.pdfAnnotations(cached, System.currentTimeMillis() - start))
+                            .build();
+                } else {
+                    Pair<List<Measurement>, Document> extractedEntities = parser.extractQuantitiesPDF(originFile);
+                    long end = System.currentTimeMillis();
 
-                if (json != null) {
+                    Document doc = extractedEntities.getB();
+                    List<Measurement> measurements = extractedEntities.getA();
+
+                    Object entity;
+                    if (pdfCache == null) {
+                        entity = QuantityResponseWriter.pdfAnnotations(doc.getPages(), measurements, end - start);
+                    } else {
+                        byte[] annotations = renderPDFAnnotations(doc.getPages(), measurements);
+                        pdfCache.put(digest, annotations);
+                        entity = QuantityResponseWriter.pdfAnnotations(annotations, end - start);
+                    }
                     response = Response
                             .ok()
                             .type("application/json")
-                            .entity(json.toString())
+                            .entity(entity)
                             .build();
                 }
-                else {
-                    response = Response.status(Status.NO_CONTENT).build();
-                }
             }
+        } catch (EndpointSaturatedException esExp) {
+            LOGGER.warn(esExp.getMessage() + ". Sending service unavailable.");
+            response = Response.status(Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, limiter.getRetryAfterSeconds())
+                    .build();
         } catch (NoSuchElementException nseExp) {
             LOGGER.error("Could not get an instance of QuantityParser. Sending service unavailable.");
-            response = Response.status(Status.SERVICE_UNAVAILABLE).build();
+            response = Response.status(Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, limiter.getRetryAfterSeconds())
+                    .build();
         } catch (Exception exp) {
             LOGGER.error("An unexpected exception occurs. ", exp);
             response = Response.status(Status.INTERNAL_SERVER_ERROR).entity(exp.getMessage()).build();
         } finally {
+            if (permit != null)
+                permit.close();
             IOUtilities.removeTempFile(originFile);
         }
         LOGGER.debug(methodLogOut());
         return response;
     }
 
+    /**
+     * Uploads the origin PDF and queue its annotation, the result is then retrieved with the id
+     * of the job.
+     *
+     * @param inputStream the data of origin PDF
+     * @return 202 with the status of the new job, or 503 with a Retry-After header if the queue of jobs is full
+     */
+    public static Response submitPDFAnnotation(final InputStream inputStream) {
+        return submitPDFAnnotation(inputStream, null);
+    }
+
+    /**
+     * @param lang the language of the PDF, null for the default language
+     */
+    public static Response submitPDFAnnotation(final InputStream inputStream, String lang) {
+        String language;
+        try {
+            language = QuantityLexicon.resolveLanguage(lang);
+        } catch (IllegalArgumentException e) {
+            return QuantitiesRestProcessGeneric.unsupportedLanguage(lang);
+        }
+        QuantityJobManager jobManager = QuantityJobManager.getInstance();
+        try {
+            File originFile = IOUtilities.writeInputFile(inputStream);
+            if (originFile == null) {
+                return Response.status(Status.INTERNAL_SERVER_ERROR).build();
+            }
+
+            QuantityJobManager.Job job = jobManager.submit(originFile, language);
+            return Response.status(Status.ACCEPTED)
+                    .entity(jobStatus(job))
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON + "; charset=UTF-8")
+                    .header(HttpHeaders.LOCATION, QuantityPaths.PATH_ANNOTATE_QUANTITY_PDF_JOBS + "/" + job.getId())
+                    .build();
+        } catch (RejectedExecutionException reExp) {
+            LOGGER.warn("The queue of PDF jobs is full. Sending service unavailable.");
+            return Response.status(Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, jobManager.getRetryAfterSeconds())
+                    .build();
+        } catch (Exception exp) {
+            LOGGER.error("An unexpected exception occurs. ", exp);
+            return Response.status(Status.INTERNAL_SERVER_ERROR).entity(exp.getMessage()).build();
+        }
+    }
+
+    /**
+     * @return the status of a PDF job, 404 if the job does not exist or has expired
+     */
+    public static Response getPDFAnnotationJob(String id) {
+        QuantityJobManager.Job job = QuantityJobManager.getInstance().getJob(id);
+        if (job == null) {
+            return Response.status(Status.NOT_FOUND).build();
+        }
+        return Response.ok()
+                .entity(jobStatus(job))
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON + "; charset=UTF-8")
+                .build();
+    }
+
+    /**
+     * @return the JSON annotations of a finished PDF job, same as {@link #processPDFAnnotation(InputStream)},
+     * 202 with the status of the job if it is not finished, 500 if it failed and 404 if the job does
+     * not exist or has expired
+     */
+    public static Response getPDFAnnotationJobResult(String id) {
+        QuantityJobManager.Job job = QuantityJobManager.getInstance().getJob(id);
+        if (job == null) {
+            return Response.status(Status.NOT_FOUND).build();
+        }
+        switch (job.getStatus()) {
+            case DONE:
+                return Response.ok()
+                        .type("application/json")
+                        .entity(QuantityResponseWriter.pdfAnnotations(job.getResult(), job.getRuntime()))
+                        .build();
+            case FAILED:
+                return Response.status(Status.INTERNAL_SERVER_ERROR).entity(job.getError()).build();
+            default:
+                return Response.status(Status.ACCEPTED)
+                        .entity(jobStatus(job))
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON + "; charset=UTF-8")
+                        .header(HttpHeaders.RETRY_AFTER, 1)
+                        .build();
+        }
+    }
+
+    /**
+     * { "id" : ..., "status" : ..., "submitted" : ..., "runtime" : ..., "error" : ... }
+     */
+    private static String jobStatus(QuantityJobManager.Job job) {
+        ObjectNode status = MAPPER.createObjectNode();
+        status.put("id", job.getId());
+        status.put("status", job.getStatus().name());
+        status.put("submitted", job.getSubmitted());
+        if (job.isFinished()) {
+            status.put("runtime", job.getRuntime());
+        }
+        if (job.getError() != null) {
+            status.put("error", job.getError());
+        }
+        return status.toString();
+    }
+
+    /**
+     * @return the JSON annotations of a PDF, as returned by {@link #processPDFAnnotation(InputStream)}
+     * but without the runtime, which differs for each response: the cached annotations are then
+     * written with {@link QuantityResponseWriter#pdfAnnotations(byte[], long)}
+     */
+    static byte[] renderPDFAnnotations(List<Page> pages, List<Measurement> measurements) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Writer writer = new OutputStreamWriter(output, UTF_8);
+        QuantityResponseWriter.writePDFAnnotationsWithoutRuntime(writer, pages, measurements);
+        writer.flush();
+        return output.toByteArray();
+    }
+
+    /**
+     * @return the cache of the PDF annotations, keyed by the digest of the PDF, null if disabled
+     */
+    static ResultCache<byte[]> getPDFCache() {
+        return PDFCacheHolder.INSTANCE;
+    }
+
+    /**
+     * @return the key of the annotations of the PDF in the cache, the digest of the PDF followed
+     * by the language when it is not the default one
+     */
+    static String pdfCacheKey(File pdfFile, String language) throws IOException {
+        String digest = ResultCache.digest(pdfFile);
+        return QuantityLexicon.DEFAULT_LANGUAGE.equals(language) ? digest : digest + ":" + language;
+    }
+
+    private static class PDFCacheHolder {
+        private static final ResultCache<byte[]> INSTANCE = createPDFCache();
+
+        private static ResultCache<byte[]> createPDFCache() {
+            QuantitiesProperties properties = QuantitiesProperties.getInstance();
+            if (!properties.getBoolean(QuantitiesProperties.CACHE_PDF_ENABLED, true)) {
+                return null;
+            }
+            long maxBytes = properties.getLong(QuantitiesProperties.CACHE_PDF_MAX_BYTES, 64L * 1024 * 1024);
+            String directory = properties.get(QuantitiesProperties.CACHE_PDF_DIRECTORY, null);
+            if (directory == null) {
+                return new ResultCache<>("pdf", maxBytes, (key, value) -> value.length, QuantitiesVersion::get);
+            }
+            return new DiskResultCache("pdf", maxBytes, new File(directory),
+                    properties.getInt(QuantitiesProperties.CACHE_PDF_MAX_FILES, 1000), QuantitiesVersion::get);
+        }
+    }
+
     /**
      * @return
      */
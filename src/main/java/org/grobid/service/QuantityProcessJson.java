@@ -6,6 +6,8 @@ import org.grobid.core.data.Measurement;
 import org.grobid.core.data.Quantity;
 import org.grobid.core.data.Unit;
 import org.grobid.core.engines.QuantityParser;
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.grobid.core.utilities.QuantitiesProperties;
 import org.grobid.core.utilities.UnitUtilities;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,9 +16,20 @@ import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
 
 /**
  * @author Patrice
@@ -24,16 +37,36 @@ import java.util.NoSuchElementException;
 public class QuantityProcessJson {
     private static final Logger LOGGER = LoggerFactory.getLogger(QuantityProcessJson.class);
 
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // workers normalizing the chunks of the batches of measures
+    private static volatile ExecutorService batchExecutor;
+
     public static Response parseMeasure(String json) {
+        return parseMeasure(json, null);
+    }
+
+    /**
+     * @param lang the language of the units, null for the default language
+     */
+    public static Response parseMeasure(String json, String lang) {
         LOGGER.debug(methodLogIn());
         Response response = null;
+        String language;
+        try {
+            language = QuantityLexicon.resolveLanguage(lang);
+        } catch (IllegalArgumentException e) {
+            return QuantitiesRestProcessGeneric.unsupportedLanguage(lang);
+        }
+        EndpointLimiter limiter = EndpointLimiter.get(EndpointLimiter.PARSE_MEASURE);
+        EndpointLimiter.Permit permit = null;
 
         try {
+            permit = limiter.acquire();
             // try to parse the json query
-            ObjectMapper mapper = new ObjectMapper();
-            QuantityParser quantityParser = QuantityParser.getInstance();
+            QuantityParser quantityParser = QuantityParser.getInstance(language);
 
-            JsonNode jsonAnnotation = mapper.readTree(json);
+            JsonNode jsonAnnotation = MAPPER.readTree(json);
             if ((jsonAnnotation == null) || (jsonAnnotation.isMissingNode())) {
                 LOGGER.error("JSON input appears empty.");
                 response = Response.status(Status.BAD_REQUEST)
@@ -43,99 +76,36 @@ public class QuantityProcessJson {
                             .build();
             } else {
                 long start = System.currentTimeMillis();
-                // get the provided parameters
-                String fromValue = null;
-                String toValue = null;
-                String unitValue = null;
-                String typeValue = null;
-                JsonNode from = jsonAnnotation.findPath("from");
-                if ((from != null) && (!from.isMissingNode()))
-                    fromValue = from.textValue();
-
-                JsonNode to = jsonAnnotation.findPath("to");
-                if ((to != null) && (!to.isMissingNode()))
-                    toValue = to.textValue();
-
-                JsonNode unit = jsonAnnotation.findPath("unit");
-                if ((unit != null) && (!unit.isMissingNode()))
-                    unitValue = unit.textValue();
-
-                JsonNode type = jsonAnnotation.findPath("type");
-                if ((type != null) && (!type.isMissingNode()))
-                    typeValue = type.textValue();
-
-                UnitUtilities.Measurement_Type theType = null;
-                String atomicValue = null;
-                if ( ( (fromValue == null) || (fromValue.length() == 0) ) &&
-                     ( (toValue == null) || (toValue.length() == 0) ) ) {
-                    response = Response.status(Status.NO_CONTENT).build();
-                } else if ( (fromValue == null) || (fromValue.length() == 0) ) {
-                    atomicValue = toValue;
-                    theType = UnitUtilities.Measurement_Type.VALUE;
-                } else if ( (toValue == null) || (toValue.length() ==0) ) {
-                    atomicValue = fromValue;
-                    theType = UnitUtilities.Measurement_Type.VALUE;
-                } else 
-                    theType = UnitUtilities.Measurement_Type.INTERVAL_MIN_MAX;
-
-                if (theType != null) {
-                    Measurement measurement = new Measurement(theType);
-                    
-                    if (theType == UnitUtilities.Measurement_Type.VALUE) {
-                        Quantity quantity = new Quantity();
-                        quantity.setRawValue(atomicValue);
-                        quantity.setRawUnit(new Unit(unitValue));
-                        // note: there is no way to enforce the measurement type here
-                        // it will be infered from the raw unit
-                        measurement.setAtomicQuantity(quantity); 
-                    } else if (theType == UnitUtilities.Measurement_Type.INTERVAL_MIN_MAX) {
-                        Quantity quantityLeast = new Quantity();
-                        Quantity quantityMost = new Quantity();
-                        quantityLeast.setRawValue(fromValue);
-                        quantityLeast.setRawUnit(new Unit(unitValue));
-                        quantityMost.setRawValue(toValue);
-                        quantityMost.setRawUnit(new Unit(unitValue));
-                        measurement.setQuantityLeast(quantityLeast); 
-                        measurement.setQuantityMost(quantityMost); 
-                    }
+                Measurement measurement = toMeasurement(jsonAnnotation, new HashMap<>());
+
+                if (measurement != null) {
                     List<Measurement> measurements = new ArrayList<Measurement>();
                     measurements.add(measurement);
                     measurements = quantityParser.normalizeMeasurements(measurements);
 
                     long end = System.currentTimeMillis();
 
-                    StringBuilder jsonBuilder = null;
-                    
-                    jsonBuilder = new StringBuilder();
-                    jsonBuilder.append("{ ");
-                    jsonBuilder.append("\"runtime\" : " + (end - start));
-                    jsonBuilder.append(", \"measurements\" : [ ");
-                    boolean first = true;
-                    for (Measurement measure : measurements) {
-                        if (first)
-                            first = false;
-                        else
-                            jsonBuilder.append(", ");
-                        jsonBuilder.append(measure.toJson());
-                    }
-                    jsonBuilder.append("] }");
-
-                    response = Response.status(Status.NO_CONTENT).build();
-
-                    if (jsonBuilder != null) {
-                        //System.out.println(jsonBuilder.toString());
-                        response = Response.status(Status.OK).entity(jsonBuilder.toString())
+                    response = Response.status(Status.OK)
+                            .entity(QuantityResponseWriter.measurements(end - start, measurements))
                             .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON+"; charset=UTF-8" )
                             .header("Access-Control-Allow-Origin", "*")
                             .header("Access-Control-Allow-Methods", "GET, POST, DELETE, PUT")
                             .build();
-                    }
                 } else
                     response = Response.status(Status.NO_CONTENT).build();
             }
+        } catch (EndpointSaturatedException esExp) {
+            LOGGER.warn(esExp.getMessage() + ". Sending service unavailable.");
+            response = Response.status(Status.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, limiter.getRetryAfterSeconds())
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON+"; charset=UTF-8" )
+                            .header("Access-Control-Allow-Origin", "*")
+                            .header("Access-Control-Allow-Methods", "GET, POST, DELETE, PUT")
+                            .build();
         } catch (NoSuchElementException nseExp) {
             LOGGER.error("Could not get an engine from the pool within configured time. Sending service unavailable.", nseExp);
             response = Response.status(Status.SERVICE_UNAVAILABLE)
+                            .header(HttpHeaders.RETRY_AFTER, limiter.getRetryAfterSeconds())
                             .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON+"; charset=UTF-8" )
                             .header("Access-Control-Allow-Origin", "*")
                             .header("Access-Control-Allow-Methods", "GET, POST, DELETE, PUT")
@@ -151,11 +121,215 @@ public class QuantityProcessJson {
                             .header("Access-Control-Allow-Origin", "*")
                             .header("Access-Control-Allow-Methods", "GET, POST, DELETE, PUT")
                             .build();
+        } finally {
+            if (permit != null)
+                permit.close();
         }
         LOGGER.debug(methodLogOut());
         return response;
     }
 
+    /**
+     * Normalize a batch of measures given as a JSON array or as NDJSON (one JSON object per line).
+     * Each element has the fields of {@link #parseMeasure(String)} and an optional client id. The
+     * identical units are parsed once for the whole batch, the measures are normalized by chunks in
+     * parallel and the results are returned in the same order as the input.
+     */
+    public static Response parseMeasureBatch(String input) {
+        return parseMeasureBatch(input, null);
+    }
+
+    /**
+     * @param lang the language of the units, null for the default language
+     */
+    public static Response parseMeasureBatch(String input, String lang) {
+        Response response = null;
+        String language;
+        try {
+            language = QuantityLexicon.resolveLanguage(lang);
+        } catch (IllegalArgumentException e) {
+            return QuantitiesRestProcessGeneric.unsupportedLanguage(lang);
+        }
+        EndpointLimiter limiter = EndpointLimiter.get(EndpointLimiter.PARSE_MEASURE);
+        EndpointLimiter.Permit permit = null;
+
+        try {
+            List<String> ids = new ArrayList<>();
+            List<Measurement> measures;
+            try {
+                measures = readMeasureBatch(input, ids);
+            } catch (IOException e) {
+                LOGGER.error("Invalid batch of measures. ", e);
+                return Response.status(Status.BAD_REQUEST).build();
+            }
+
+            if (measures.isEmpty()) {
+                return Response.status(Status.NO_CONTENT).build();
+            }
+
+            permit = limiter.acquire();
+            long start = System.currentTimeMillis();
+            List<Measurement> measurements = measures.stream()
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            QuantitiesProperties properties = QuantitiesProperties.getInstance();
+            QuantityParser.getInstance(language).normalizeMeasurements(measurements,
+                    properties.getInt(QuantitiesProperties.MEASURE_BATCH_CHUNK_SIZE, 256), getBatchExecutor());
+
+            List<List<Measurement>> results = new ArrayList<>();
+            for (Measurement measure : measures) {
+                results.add(measure == null ? null : Collections.singletonList(measure));
+            }
+            long end = System.currentTimeMillis();
+
+            response = Response.status(Status.OK)
+                    .entity(QuantityResponseWriter.batchMeasurements(end - start, ids, results))
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON + "; charset=UTF-8")
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, DELETE, PUT")
+                    .build();
+        } catch (EndpointSaturatedException esExp) {
+            LOGGER.warn(esExp.getMessage() + ". Sending service unavailable.");
+            response = Response.status(Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, limiter.getRetryAfterSeconds())
+                    .build();
+        } catch (NoSuchElementException nseExp) {
+            LOGGER.error("Could not get an engine from the pool within configured time. Sending service unavailable.", nseExp);
+            response = Response.status(Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, limiter.getRetryAfterSeconds())
+                    .build();
+        } catch (Exception e) {
+            LOGGER.error("An unexpected exception occurs. ", e);
+            String message = "Error in " + e.getStackTrace()[0].toString();
+            if (e.getCause() != null) {
+                message = e.getCause().getMessage();
+            }
+            response = Response.status(Status.INTERNAL_SERVER_ERROR).entity(message).build();
+        } finally {
+            if (permit != null)
+                permit.close();
+        }
+        return response;
+    }
+
+    /**
+     * Read the client ids and the measures of a batch, either a JSON array or NDJSON. The measures
+     * having the same unit string share the same raw unit, so that it is parsed only once.
+     *
+     * @return the measures in the order of the batch, null for a measure without value
+     */
+    protected static List<Measurement> readMeasureBatch(String input, List<String> ids) throws IOException {
+        List<Measurement> measures = new ArrayList<>();
+        if (isBlank(input)) {
+            return measures;
+        }
+        Map<String, Unit> units = new HashMap<>();
+        String trimmed = input.trim();
+        if (trimmed.startsWith("[")) {
+            for (JsonNode node : MAPPER.readTree(trimmed)) {
+                addMeasure(node, ids, measures, units);
+            }
+        } else {
+            for (String line : trimmed.split("\n")) {
+                if (isBlank(line)) {
+                    continue;
+                }
+                addMeasure(MAPPER.readTree(line), ids, measures, units);
+            }
+        }
+        return measures;
+    }
+
+    private static void addMeasure(JsonNode node, List<String> ids, List<Measurement> measures,
+                                   Map<String, Unit> units) throws IOException {
+        if (!node.isObject()) {
+            throw new IOException("Unexpected element in the batch of measures: " + node);
+        }
+        JsonNode id = node.get("id");
+        ids.add(((id == null) || id.isNull()) ? null : id.asText());
+        measures.add(toMeasurement(node, units));
+    }
+
+    /**
+     * Build the measurement of a measure { "from" : ..., "to" : ..., "unit" : ..., "type" : ... }.
+     *
+     * @param units the raw units already created, by unit string
+     * @return the measurement, or null if the measure has no value
+     */
+    protected static Measurement toMeasurement(JsonNode jsonAnnotation, Map<String, Unit> units) {
+        // get the provided parameters
+        String fromValue = null;
+        String toValue = null;
+        String unitValue = null;
+        JsonNode from = jsonAnnotation.findPath("from");
+        if ((from != null) && (!from.isMissingNode()))
+            fromValue = from.textValue();
+
+        JsonNode to = jsonAnnotation.findPath("to");
+        if ((to != null) && (!to.isMissingNode()))
+            toValue = to.textValue();
+
+        JsonNode unit = jsonAnnotation.findPath("unit");
+        if ((unit != null) && (!unit.isMissingNode()))
+            unitValue = unit.textValue();
+
+        // note: the type is not used, there is no way to enforce the measurement type here,
+        // it will be infered from the raw unit
+
+        UnitUtilities.Measurement_Type theType;
+        String atomicValue = null;
+        if ( ( (fromValue == null) || (fromValue.length() == 0) ) &&
+             ( (toValue == null) || (toValue.length() == 0) ) ) {
+            return null;
+        } else if ( (fromValue == null) || (fromValue.length() == 0) ) {
+            atomicValue = toValue;
+            theType = UnitUtilities.Measurement_Type.VALUE;
+        } else if ( (toValue == null) || (toValue.length() ==0) ) {
+            atomicValue = fromValue;
+            theType = UnitUtilities.Measurement_Type.VALUE;
+        } else
+            theType = UnitUtilities.Measurement_Type.INTERVAL_MIN_MAX;
+
+        // the raw unit is only read by the normalisation, it can be shared by the quantities
+        Unit rawUnit = unitValue == null ? new Unit(null) : units.computeIfAbsent(unitValue, Unit::new);
+        Measurement measurement = new Measurement(theType);
+        if (theType == UnitUtilities.Measurement_Type.VALUE) {
+            Quantity quantity = new Quantity();
+            quantity.setRawValue(atomicValue);
+            quantity.setRawUnit(rawUnit);
+            measurement.setAtomicQuantity(quantity);
+        } else {
+            Quantity quantityLeast = new Quantity();
+            Quantity quantityMost = new Quantity();
+            quantityLeast.setRawValue(fromValue);
+            quantityLeast.setRawUnit(rawUnit);
+            quantityMost.setRawValue(toValue);
+            quantityMost.setRawUnit(rawUnit);
+            measurement.setQuantityLeast(quantityLeast);
+            measurement.setQuantityMost(quantityMost);
+        }
+        return measurement;
+    }
+
+    private static ExecutorService getBatchExecutor() {
+        if (batchExecutor == null) {
+            createBatchExecutor();
+        }
+        return batchExecutor;
+    }
+
+    private static synchronized void createBatchExecutor() {
+        if (batchExecutor == null) {
+            int workers = Math.max(1, QuantitiesProperties.getInstance().getInt(QuantitiesProperties.MEASURE_BATCH_WORKERS, 2));
+            AtomicInteger threadCount = new AtomicInteger();
+            batchExecutor = Executors.newFixedThreadPool(workers, runnable -> {
+                Thread thread = new Thread(runnable, "quantities-measure-batch-" + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
     private static String methodLogIn() {
         return ">> " + QuantityProcessJson.class.getName() + "." + Thread.currentThread().getStackTrace()[1].getMethodName();
     }
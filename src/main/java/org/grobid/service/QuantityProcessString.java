@@ -1,7 +1,11 @@
 package org.grobid.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.grobid.core.data.Measurement;
+import org.grobid.core.engines.QuantityBatchScheduler;
 import org.grobid.core.engines.QuantityParser;
+import org.grobid.core.lexicon.QuantityLexicon;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -9,8 +13,13 @@ import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
 
 /**
  * @author Patrice
@@ -18,47 +27,138 @@ import java.util.NoSuchElementException;
 public class QuantityProcessString {
     private static final Logger LOGGER = LoggerFactory.getLogger(QuantityProcessString.class);
 
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
 
     public static Response processText(String text) {
+        return processText(text, null);
+    }
+
+    /**
+     * @param lang the language of the text, null for the default language
+     */
+    public static Response processText(String text, String lang) {
         Response response = null;
+        String language;
+        try {
+            language = QuantityLexicon.resolveLanguage(lang);
+        } catch (IllegalArgumentException e) {
+            return QuantitiesRestProcessGeneric.unsupportedLanguage(lang);
+        }
+        EndpointLimiter limiter = EndpointLimiter.get(EndpointLimiter.TEXT);
+        EndpointLimiter.Permit permit = null;
 
         try {
+            permit = limiter.acquire();
             LOGGER.debug(">> set raw text for stateless quantity service'...");
             LOGGER.debug(text);
             long start = System.currentTimeMillis();
-            QuantityParser quantityParser = QuantityParser.getInstance();
-            List<Measurement> measurements = quantityParser.process(text);
+            List<Measurement> measurements;
+            // the batching of the requests is done for the default language only
+            if (QuantityBatchScheduler.isEnabled() && QuantityLexicon.DEFAULT_LANGUAGE.equals(language)) {
+                measurements = QuantityBatchScheduler.getInstance().process(text);
+            } else {
+                measurements = QuantityParser.getInstance(language).process(text);
+            }
             long end = System.currentTimeMillis();
 
-            StringBuilder jsonBuilder = null;
             if (measurements != null) {
-                jsonBuilder = new StringBuilder();
-                jsonBuilder.append("{ ");
-                jsonBuilder.append("\"runtime\" : " + (end - start));
-                jsonBuilder.append(", \"measurements\" : [ ");
-                boolean first = true;
-                for (Measurement measurement : measurements) {
-                    if (first)
-                        first = false;
-                    else
-                        jsonBuilder.append(", ");
-                    jsonBuilder.append(measurement.toJson());
-                }
-                jsonBuilder.append("] }");
-            } else
-                response = Response.status(Status.NO_CONTENT).build();
-
-            if (jsonBuilder != null) {
-                //System.out.println(jsonBuilder.toString());
-                response = Response.status(Status.OK).entity(jsonBuilder.toString())
+                response = Response.status(Status.OK)
+                        .entity(QuantityResponseWriter.measurements(end - start, measurements))
                         .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON + "; charset=UTF-8")
                         .header("Access-Control-Allow-Origin", "*")
                         .header("Access-Control-Allow-Methods", "GET, POST, DELETE, PUT")
                         .build();
+            } else
+                response = Response.status(Status.NO_CONTENT).build();
+        } catch (EndpointSaturatedException esExp) {
+            LOGGER.warn(esExp.getMessage() + ". Sending service unavailable.");
+            response = Response.status(Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, limiter.getRetryAfterSeconds())
+                    .build();
+        } catch (NoSuchElementException nseExp) {
+            LOGGER.error("Could not get an engine from the pool within configured time. Sending service unavailable.", nseExp);
+            response = Response.status(Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, limiter.getRetryAfterSeconds())
+                    .build();
+        } catch (RejectedExecutionException reExp) {
+            LOGGER.warn(reExp.getMessage() + " Sending service unavailable.");
+            response = Response.status(Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, limiter.getRetryAfterSeconds())
+                    .build();
+        } catch (Exception e) {
+            LOGGER.error("An unexpected exception occurs. ", e);
+            String message = "Error in " + e.getStackTrace()[0].toString();
+            if (e.getCause() != null) {
+                message = e.getCause().getMessage();
             }
+            response = Response.status(Status.INTERNAL_SERVER_ERROR).entity(message).build();
+        } finally {
+            if (permit != null)
+                permit.close();
+        }
+        return response;
+    }
+
+    /**
+     * Process a batch of texts given as a JSON array or as NDJSON (one JSON value per line).
+     * Each element is either a string or an object { "id" : ..., "text" : ... }. All the texts are
+     * labeled in a single CRF pass and the results are returned in the same order as the input.
+     */
+    public static Response processTextBatch(String input) {
+        return processTextBatch(input, null);
+    }
+
+    /**
+     * @param lang the language of the texts, null for the default language
+     */
+    public static Response processTextBatch(String input, String lang) {
+        Response response = null;
+        String language;
+        try {
+            language = QuantityLexicon.resolveLanguage(lang);
+        } catch (IllegalArgumentException e) {
+            return QuantitiesRestProcessGeneric.unsupportedLanguage(lang);
+        }
+        EndpointLimiter limiter = EndpointLimiter.get(EndpointLimiter.TEXT);
+        EndpointLimiter.Permit permit = null;
+
+        try {
+            List<String> ids = new ArrayList<>();
+            List<String> texts = new ArrayList<>();
+            try {
+                readBatch(input, ids, texts);
+            } catch (IOException e) {
+                LOGGER.error("Invalid batch of texts. ", e);
+                return Response.status(Status.BAD_REQUEST).build();
+            }
+
+            if (texts.isEmpty()) {
+                return Response.status(Status.NO_CONTENT).build();
+            }
+
+            permit = limiter.acquire();
+            long start = System.currentTimeMillis();
+            QuantityParser quantityParser = QuantityParser.getInstance(language);
+            List<List<Measurement>> results = quantityParser.processTexts(texts);
+            long end = System.currentTimeMillis();
+
+            response = Response.status(Status.OK)
+                    .entity(QuantityResponseWriter.batchMeasurements(end - start, ids, results))
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON + "; charset=UTF-8")
+                    .header("Access-Control-Allow-Origin", "*")
+                    .header("Access-Control-Allow-Methods", "GET, POST, DELETE, PUT")
+                    .build();
+        } catch (EndpointSaturatedException esExp) {
+            LOGGER.warn(esExp.getMessage() + ". Sending service unavailable.");
+            response = Response.status(Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, limiter.getRetryAfterSeconds())
+                    .build();
         } catch (NoSuchElementException nseExp) {
             LOGGER.error("Could not get an engine from the pool within configured time. Sending service unavailable.", nseExp);
-            response = Response.status(Status.SERVICE_UNAVAILABLE).build();
+            response = Response.status(Status.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, limiter.getRetryAfterSeconds())
+                    .build();
         } catch (Exception e) {
             LOGGER.error("An unexpected exception occurs. ", e);
             String message = "Error in " + e.getStackTrace()[0].toString();
@@ -66,10 +166,50 @@ public class QuantityProcessString {
                 message = e.getCause().getMessage();
             }
             response = Response.status(Status.INTERNAL_SERVER_ERROR).entity(message).build();
+        } finally {
+            if (permit != null)
+                permit.close();
         }
         return response;
     }
 
+    /**
+     * Read the client ids and the texts of a batch, either a JSON array or NDJSON.
+     */
+    protected static void readBatch(String input, List<String> ids, List<String> texts) throws IOException {
+        if (isBlank(input)) {
+            return;
+        }
+        String trimmed = input.trim();
+        if (trimmed.startsWith("[")) {
+            JsonNode root = MAPPER.readTree(trimmed);
+            for (JsonNode node : root) {
+                addBatchElement(node, ids, texts);
+            }
+        } else {
+            for (String line : trimmed.split("\n")) {
+                if (isBlank(line)) {
+                    continue;
+                }
+                addBatchElement(MAPPER.readTree(line), ids, texts);
+            }
+        }
+    }
+
+    private static void addBatchElement(JsonNode node, List<String> ids, List<String> texts) throws IOException {
+        if (node.isTextual()) {
+            ids.add(null);
+            texts.add(node.textValue());
+        } else if (node.isObject()) {
+            JsonNode id = node.get("id");
+            ids.add(((id == null) || id.isNull()) ? null : id.asText());
+            JsonNode text = node.get("text");
+            texts.add(((text == null) || text.isNull()) ? null : text.asText());
+        } else {
+            throw new IOException("Unexpected element in the batch of texts: " + node);
+        }
+    }
+
     /*public static Response parseTextMeasure(String text) {
         LOGGER.debug(methodLogIn());
         Response response = null;
@@ -0,0 +1,157 @@
+package org.grobid.service;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.grobid.core.data.Measurement;
+import org.grobid.core.layout.Page;
+
+import javax.ws.rs.core.StreamingOutput;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Serialise the JSON responses of the quantity services directly to the response output stream,
+ * one measurement at a time, instead of concatenating the whole document in memory first.
+ * <p>
+ * The produced JSON is identical, byte for byte, to the one previously built with StringBuilder
+ * in the process* classes.
+ */
+public class QuantityResponseWriter {
+
+    /**
+     * Response of the text services: { "runtime" : ..., "measurements" : [ ... ] }
+     */
+    public static StreamingOutput measurements(final long runtime, final List<Measurement> measurements) {
+        return output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, UTF_8));
+            writeMeasurements(writer, runtime, measurements);
+            writer.flush();
+        };
+    }
+
+    /**
+     * Response of the batch text service: { "runtime" : ..., "results" : [ { "id" : ..., "measurements" : [ ... ] }, ... ] }
+     */
+    public static StreamingOutput batchMeasurements(final long runtime, final List<String> ids,
+                                                    final List<List<Measurement>> results) {
+        return output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, UTF_8));
+            writeBatchMeasurements(writer, runtime, ids, results);
+            writer.flush();
+        };
+    }
+
+    /**
+     * Response of the PDF annotation service: { "pages":[ ... ], "measurements":[ ... ], "runtime" : ... }
+     */
+    public static StreamingOutput pdfAnnotations(final List<Page> pages,
+                                                 final List<Measurement> measurements,
+                                                 final long runtime) {
+        return output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, UTF_8));
+            writePDFAnnotations(writer, pages, measurements, runtime);
+            writer.flush();
+        };
+    }
+
+    /**
+     * Response of the PDF annotation service from annotations written beforehand, without the
+     * runtime, by {@link #writePDFAnnotationsWithoutRuntime(Writer, List, List)}.
+     */
+    public static StreamingOutput pdfAnnotations(final byte[] annotations, final long runtime) {
+        return output -> {
+            output.write(annotations);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, UTF_8));
+            writePDFAnnotationsRuntime(writer, runtime);
+            writer.flush();
+        };
+    }
+
+    public static void writeMeasurements(Writer writer, long runtime, List<Measurement> measurements) throws IOException {
+        writer.write("{ ");
+        writer.write("\"runtime\" : " + runtime);
+        writer.write(", \"measurements\" : [ ");
+        writeMeasurementList(writer, measurements);
+        writer.write("] }");
+    }
+
+    public static void writeBatchMeasurements(Writer writer, long runtime, List<String> ids,
+                                              List<List<Measurement>> results) throws IOException {
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        writer.write("{ ");
+        writer.write("\"runtime\" : " + runtime);
+        writer.write(", \"results\" : [ ");
+        for (int i = 0; i < results.size(); i++) {
+            if (i > 0)
+                writer.write(", ");
+            writer.write("{ ");
+            String id = ids.get(i);
+            if (id != null) {
+                writer.write("\"id\" : \"");
+                writer.write(encoder.quoteAsString(id));
+                writer.write("\", ");
+            }
+            writer.write("\"measurements\" : [ ");
+            List<Measurement> measurements = results.get(i);
+            if (measurements != null)
+                writeMeasurementList(writer, measurements);
+            writer.write("] }");
+        }
+        writer.write("] }");
+    }
+
+    public static void writePDFAnnotations(Writer writer, List<Page> pages,
+                                           List<Measurement> measurements, long runtime) throws IOException {
+        writePDFAnnotationsWithoutRuntime(writer, pages, measurements);
+        writePDFAnnotationsRuntime(writer, runtime);
+    }
+
+    /**
+     * Beginning of the response of the PDF annotation service, up to the runtime: { "pages":[ ... ], "measurements":[ ... ]
+     */
+    public static void writePDFAnnotationsWithoutRuntime(Writer writer, List<Page> pages,
+                                                         List<Measurement> measurements) throws IOException {
+        writer.write("{ ");
+        writePages(writer, pages);
+        writer.write(", \"measurements\":[");
+        writeMeasurementList(writer, measurements);
+        writer.write("]");
+    }
+
+    private static void writePDFAnnotationsRuntime(Writer writer, long runtime) throws IOException {
+        writer.write(", \"runtime\" :" + runtime);
+        writer.write("}");
+    }
+
+    /**
+     * page height and width
+     */
+    private static void writePages(Writer writer, List<Page> pages) throws IOException {
+        writer.write("\"pages\":[");
+        boolean first = true;
+        for (Page page : pages) {
+            if (first)
+                first = false;
+            else
+                writer.write(", ");
+            writer.write("{\"page_height\":" + page.getHeight());
+            writer.write(", \"page_width\":" + page.getWidth() + "}");
+        }
+        writer.write("]");
+    }
+
+    private static void writeMeasurementList(Writer writer, List<Measurement> measurements) throws IOException {
+        boolean first = true;
+        for (Measurement measurement : measurements) {
+            if (first)
+                first = false;
+            else
+                writer.write(", ");
+            writer.write(measurement.toJson());
+        }
+    }
+}
@@ -30,6 +30,9 @@ public class QuantityRestService implements QuantityPaths {
     private static final String XML = "xml";
     private static final String PDF = "pdf";
     private static final String INPUT = "input";
+    private static final String ID = "id";
+    private static final String LANG = "lang";
+    private static final String NDJSON = "application/x-ndjson";
 
     public QuantityRestService() {
         LOGGER.info("Init Servlet QuantityRestService.");
@@ -39,6 +42,7 @@ public class QuantityRestService implements QuantityPaths {
             LibraryLoader.load();
             GrobidProperties.getInstance();
             QuantityLexicon.getInstance();
+            QuantityWarmUp.getInstance().start();
         } catch (final Exception exp) {
             LOGGER.error("GROBID Quantities initialisation failed: ", exp);
         }
@@ -49,33 +53,73 @@ public class QuantityRestService implements QuantityPaths {
     @Path(PATH_QUANTITY_TEXT)
     @Produces(MediaType.APPLICATION_JSON + ";charset=utf-8")
     @POST
-    public Response processText_post(@FormParam(TEXT) String text) {
+    public Response processText_post(@FormParam(TEXT) String text, @FormParam(LANG) String lang) {
         LOGGER.info(text);
-        return QuantityProcessString.processText(text);
+        return QuantityProcessString.processText(text, lang);
     }
 
     @Path(PATH_QUANTITY_TEXT)
     @Produces(MediaType.APPLICATION_JSON + ";charset=utf-8")
     @GET
-    public Response processText_get(@QueryParam(TEXT) String text) {
+    public Response processText_get(@QueryParam(TEXT) String text, @QueryParam(LANG) String lang) {
         LOGGER.info(text);
-        return QuantityProcessString.processText(text);
+        return QuantityProcessString.processText(text, lang);
+    }
+
+    @Path(PATH_QUANTITY_TEXT_BATCH)
+    @Consumes({MediaType.APPLICATION_JSON, NDJSON, MediaType.TEXT_PLAIN})
+    @Produces(MediaType.APPLICATION_JSON + ";charset=utf-8")
+    @POST
+    public Response processTextBatch_post(@QueryParam(LANG) String lang, String texts) {
+        return QuantityProcessString.processTextBatch(texts, lang);
     }
 
     @Path(PATH_PARSE_MEASURE)
     @Produces(MediaType.APPLICATION_JSON + ";charset=utf-8")
     @POST
-    public Response parseMeasure_post(String json) {
+    public Response parseMeasure_post(@QueryParam(LANG) String lang, String json) {
         LOGGER.info("parseMeasure_post: " + json);
-        return QuantityProcessJson.parseMeasure(json);
+        return QuantityProcessJson.parseMeasure(json, lang);
+    }
+
+    @Path(PATH_PARSE_MEASURE_BATCH)
+    @Consumes({MediaType.APPLICATION_JSON, NDJSON, MediaType.TEXT_PLAIN})
+    @Produces(MediaType.APPLICATION_JSON + ";charset=utf-8")
+    @POST
+    public Response parseMeasureBatch_post(@QueryParam(LANG) String lang, String measures) {
+        return QuantityProcessJson.parseMeasureBatch(measures, lang);
     }
 
     @Path(PATH_ANNOTATE_QUANTITY_PDF)
     @Consumes(MediaType.MULTIPART_FORM_DATA)
     @Produces("application/json")
     @POST
-    public Response processPDFAnnotation(@FormDataParam(INPUT) InputStream inputStream) {
-        return QuantityProcessFile.processPDFAnnotation(inputStream);
+    public Response processPDFAnnotation(@FormDataParam(INPUT) InputStream inputStream,
+                                         @FormDataParam(LANG) String lang) {
+        return QuantityProcessFile.processPDFAnnotation(inputStream, lang);
+    }
+
+    @Path(PATH_ANNOTATE_QUANTITY_PDF_JOBS)
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Produces(MediaType.APPLICATION_JSON + ";charset=utf-8")
+    @POST
+    public Response submitPDFAnnotation(@FormDataParam(INPUT) InputStream inputStream,
+                                        @FormDataParam(LANG) String lang) {
+        return QuantityProcessFile.submitPDFAnnotation(inputStream, lang);
+    }
+
+    @Path(PATH_ANNOTATE_QUANTITY_PDF_JOB)
+    @Produces(MediaType.APPLICATION_JSON + ";charset=utf-8")
+    @GET
+    public Response getPDFAnnotationJob(@PathParam(ID) String id) {
+        return QuantityProcessFile.getPDFAnnotationJob(id);
+    }
+
+    @Path(PATH_ANNOTATE_QUANTITY_PDF_JOB_RESULT)
+    @Produces("application/json")
+    @GET
+    public Response getPDFAnnotationJobResult(@PathParam(ID) String id) {
+        return QuantityProcessFile.getPDFAnnotationJobResult(id);
     }
 
     /**
@@ -87,4 +131,24 @@ public class QuantityRestService implements QuantityPaths {
     public Response isAlive() {
         return QuantitiesRestProcessGeneric.isAlive();
     }
+
+    /**
+     * @see org.grobid.service.QuantitiesRestProcessGeneric#isReady()
+     */
+    @Path(PATH_IS_READY)
+    @Produces(MediaType.TEXT_PLAIN)
+    @GET
+    public Response isReady() {
+        return QuantitiesRestProcessGeneric.isReady();
+    }
+
+    /**
+     * @see org.grobid.service.QuantitiesRestProcessGeneric#metrics()
+     */
+    @Path(PATH_METRICS)
+    @Produces(MediaType.TEXT_PLAIN)
+    @GET
+    public Response metrics() {
+        return QuantitiesRestProcessGeneric.metrics();
+    }
 }
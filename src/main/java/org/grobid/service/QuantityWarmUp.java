@@ -0,0 +1,188 @@
+package org.grobid.service;
+
+import org.apache.commons.io.IOUtils;
+import org.grobid.core.data.normalization.UnitCache;
+import org.grobid.core.data.normalization.UnitNormalizer;
+import org.grobid.core.engines.QuantityParser;
+import org.grobid.core.engines.UnitParser;
+import org.grobid.core.engines.ValueParser;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.grobid.core.metrics.MetricsRegistry;
+import org.grobid.core.utilities.QuantitiesProperties;
+import org.grobid.core.utilities.TextParser;
+import org.grobid.core.utilities.WordsToNumber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Warm-up of the service, run in background when the servlet starts: all the lazily initialised
+ * resources (lexicon, CRF models, ClearNLP models, unit providers of the normaliser) are loaded,
+ * the frequent units are parsed into the {@link UnitCache}, and a small synthetic corpus is
+ * processed several times, so that the hot code is JIT compiled before the first real request.
+ * <p>
+ * The service is ready once the warm-up is finished, see {@link QuantitiesRestProcessGeneric#isReady()}.
+ */
+public class QuantityWarmUp {
+    private static final Logger LOGGER = LoggerFactory.getLogger(QuantityWarmUp.class);
+
+    private static final String CORPUS_PATH = "warmup/sentences.txt";
+    private static final String UNITS_PATH = "warmup/units.txt";
+
+    private static volatile QuantityWarmUp instance;
+
+    private volatile boolean started = false;
+    private volatile boolean ready = false;
+    private volatile String failure = null;
+
+    public static QuantityWarmUp getInstance() {
+        if (instance == null) {
+            getNewInstance();
+        }
+        return instance;
+    }
+
+    private static synchronized void getNewInstance() {
+        if (instance == null) {
+            instance = new QuantityWarmUp();
+        }
+    }
+
+    private QuantityWarmUp() {
+        MetricsRegistry.getInstance().gauge("quantities_ready", "1 once the warm-up is finished, 0 before.",
+                () -> ready ? 1 : 0);
+    }
+
+    /**
+     * Start the warm-up in background, only the first call has an effect.
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        Thread thread = new Thread(this::run, "quantities-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return the reason of the failure of the warm-up, or null
+     */
+    public String getFailure() {
+        return failure;
+    }
+
+    private void run() {
+        long start = System.currentTimeMillis();
+        try {
+            LOGGER.info("Warm-up: loading the resources and the models.");
+            QuantityLexicon.getInstance();
+            WordsToNumber.getInstance();
+            UnitParser.getInstance();
+            ValueParser.getInstance();
+            QuantityParser parser = QuantityParser.getInstance();
+            TextParser textParser = TextParser.getInstance();
+
+            QuantitiesProperties properties = QuantitiesProperties.getInstance();
+            if (UnitCache.isEnabled()) {
+                List<String> units = readUnits(properties.get(QuantitiesProperties.CACHE_UNITS_WARMUP_FILE, null));
+                int loaded = new UnitNormalizer().warmUpCache(units);
+                LOGGER.info("Warm-up: " + loaded + " frequent units loaded in the cache.");
+            }
+
+            if (properties.getBoolean(QuantitiesProperties.WARMUP_ENABLED, true)) {
+                int iterations = properties.getInt(QuantitiesProperties.WARMUP_ITERATIONS, 30);
+                long deadline = start + TimeUnit.SECONDS.toMillis(properties.getLong(QuantitiesProperties.WARMUP_MAX_SECONDS, 120));
+
+                List<String> sentences = readCorpus();
+                List<List<LayoutToken>> segments = new ArrayList<>();
+                for (String sentence : sentences) {
+                    List<LayoutToken> tokens = parser.tokenizeText(sentence);
+                    if (tokens != null) {
+                        segments.add(tokens);
+                    }
+                }
+
+                int iteration = 0;
+                while (iteration < iterations && System.currentTimeMillis() < deadline) {
+                    // one segment at a time, then all in one batch, bypassing the cache of results
+                    for (List<LayoutToken> segment : segments) {
+                        parser.process(segment);
+                    }
+                    parser.processBatch(segments);
+                    for (String sentence : sentences) {
+                        textParser.parseText(sentence);
+                    }
+                    iteration++;
+                }
+                LOGGER.info("Warm-up: " + iteration + " iteration(s) over " + sentences.size() + " sentences.");
+            }
+
+            ready = true;
+            LOGGER.info("Warm-up finished in " + (System.currentTimeMillis() - start) + " ms, the service is ready.");
+        } catch (Throwable t) {
+            failure = t.getMessage() != null ? t.getMessage() : t.getClass().getName();
+            LOGGER.error("The warm-up failed, the service is not ready. ", t);
+        }
+    }
+
+    private List<String> readCorpus() throws Exception {
+        List<String> sentences = new ArrayList<>();
+        InputStream is = this.getClass().getClassLoader().getResourceAsStream(CORPUS_PATH);
+        if (is == null) {
+            LOGGER.warn("Warm-up corpus " + CORPUS_PATH + " not found.");
+            return sentences;
+        }
+        try {
+            for (String line : IOUtils.readLines(is, UTF_8)) {
+                if (isNotBlank(line)) {
+                    sentences.add(line.trim());
+                }
+            }
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+        return sentences;
+    }
+
+    /**
+     * Read the list of frequent units, one per line, from the given file or by default from the classpath.
+     */
+    private List<String> readUnits(String path) throws Exception {
+        List<String> units = new ArrayList<>();
+        InputStream is;
+        if (isNotBlank(path)) {
+            is = new FileInputStream(path);
+        } else {
+            is = this.getClass().getClassLoader().getResourceAsStream(UNITS_PATH);
+        }
+        if (is == null) {
+            LOGGER.warn("List of frequent units " + UNITS_PATH + " not found.");
+            return units;
+        }
+        try {
+            for (String line : IOUtils.readLines(is, UTF_8)) {
+                if (isNotBlank(line)) {
+                    units.add(line.trim());
+                }
+            }
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+        return units;
+    }
+}
@@ -25,4 +25,23 @@ public class MeasurementTest {
         assertThat(measurement.isValid(), is(true));
     }
 
+    @Test
+    public void testCopy_shouldBeIndependentAndKeepTheSharedUnits() {
+        Unit unit = new Unit("km");
+        unit.setOffsetStart(8);
+        Measurement measurement = new Measurement(UnitUtilities.Measurement_Type.INTERVAL_MIN_MAX);
+        measurement.setQuantityLeast(new Quantity("2", unit));
+        measurement.setQuantityMost(new Quantity("5", unit));
+
+        Measurement copy = new Measurement(measurement);
+        copy.getQuantityLeast().setRawValue("3");
+        copy.getQuantityLeast().getRawUnit().setOffsetStart(10);
+
+        assertThat(measurement.getQuantityLeast().getRawValue(), is("2"));
+        assertThat(unit.getOffsetStart(), is(8));
+        assertThat(copy.getType(), is(UnitUtilities.Measurement_Type.INTERVAL_MIN_MAX));
+        assertThat(copy.getQuantityMost().getRawValue(), is("5"));
+        assertSame(copy.getQuantityLeast().getRawUnit(), copy.getQuantityMost().getRawUnit());
+    }
+
 }
\ No newline at end of file
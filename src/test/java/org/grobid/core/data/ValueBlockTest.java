@@ -4,6 +4,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.*;
 
 public class ValueBlockTest {
@@ -58,4 +60,23 @@ public class ValueBlockTest {
         target.setExp("-5");
         assertThat(target.toJson(), is("{ \"type\" : \"EXPONENT\", \"formatted\" : \"1\" }"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCopy_shouldNotShareTheBlocks() {
+        target = new ValueBlock();
+        target.setNumber("1.5");
+        target.setBase("10");
+        target.setPow("3");
+        target.setRawTaggedValue("<number>1.5</number> x <base>10</base><pow>3</pow>");
+
+        ValueBlock copy = new ValueBlock(target);
+        target.setNumber("2");
+        target.getPow().getOffsets().start = 12;
+
+        assertThat(copy.getNumber().getValue(), is("1.5"));
+        assertThat(copy.getBase().getValue(), is("10"));
+        assertThat(copy.getPow().getOffsets().start, is(not(12)));
+        assertThat(copy.getRawTaggedValue(), is(target.getRawTaggedValue()));
+        assertThat(copy.getExp(), is(nullValue()));
+    }
+}
@@ -0,0 +1,98 @@
+package org.grobid.core.data.normalization;
+
+import org.grobid.core.data.UnitBlock;
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.grobid.core.utilities.NumericMode;
+import org.grobid.core.utilities.UnitUtilities;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import tec.uom.se.unit.Units;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.closeTo;
+import static org.junit.Assert.assertThat;
+
+public class UnitAlgebraTest {
+
+    private static UnitAlgebra target;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        QuantityLexicon quantityLexicon = QuantityLexicon.getInstance();
+        UnitConversionTable conversionTable = new UnitConversionTable(Collections.emptyList(), quantityLexicon, 1000);
+        target = new UnitAlgebra(quantityLexicon, conversionTable, quantityLexicon.getUnitNames());
+    }
+
+    @Test
+    public void testToVector() throws Exception {
+        assertThat(UnitAlgebra.toVector(Units.METRE.getDimension()), is(DimensionVector.of(1, 0, 0, 0, 0, 0, 0)));
+        assertThat(UnitAlgebra.toVector(Units.NEWTON.getDimension()), is(DimensionVector.of(1, 1, -2, 0, 0, 0, 0)));
+        assertThat(UnitAlgebra.toVector(Units.KELVIN.getDimension()), is(DimensionVector.of(0, 0, 0, 0, 1, 0, 0)));
+    }
+
+    @Test
+    public void testCompose_energy() throws Exception {
+        UnitAlgebra.AlgebraicUnit output = target.compose(Arrays.asList(
+                new UnitBlock(null, "kg", null), new UnitBlock(null, "m", "2"), new UnitBlock(null, "s", "-2")));
+
+        assertThat(output.getDimension(), is(DimensionVector.of(2, 1, -2, 0, 0, 0, 0)));
+        assertThat(output.getScale(), closeTo(1.0, 1e-9));
+        assertThat(target.getSIName(output.getDimension()), is("J"));
+        assertThat(target.findSIUnit(output.getDimension()).getType(), is(UnitUtilities.Unit_Type.ENERGY));
+    }
+
+    @Test
+    public void testCompose_prefixesAndInflections() throws Exception {
+        UnitAlgebra.AlgebraicUnit output = target.compose(Arrays.asList(
+                new UnitBlock("k", "meters", null), new UnitBlock(null, "h", "-1")));
+
+        assertThat(output.getScale(), closeTo(1000.0 / 3600.0, 1e-9));
+        assertThat(target.getSIName(output.getDimension()), is("m/s"));
+    }
+
+    @Test
+    public void testCompose_inflectionsOfTheLanguage() throws Exception {
+        QuantityLexicon french = QuantityLexicon.getInstance("fr");
+        UnitAlgebra frenchAlgebra = new UnitAlgebra(french, new UnitConversionTable(Collections.emptyList(), french, 1000),
+                french.getUnitNames());
+
+        UnitAlgebra.AlgebraicUnit output = frenchAlgebra.compose(Arrays.asList(
+                new UnitBlock("k", "mètres", null), new UnitBlock(null, "h", "-1")));
+
+        assertThat(output.getScale(), closeTo(1000.0 / 3600.0, 1e-9));
+        assertThat(frenchAlgebra.getSIName(output.getDimension()), is("m/s"));
+        // the inflections of the other languages are unknown
+        assertThat(target.compose(Arrays.asList(new UnitBlock("k", "mètres", null), new UnitBlock(null, "h", "-1"))), is(nullValue()));
+    }
+
+    @Test
+    public void testToSI_decimal_shouldBeExact() throws Exception {
+        UnitAlgebra.AlgebraicUnit output = target.compose(Arrays.asList(
+                new UnitBlock("k", "m", null), new UnitBlock(null, "h", "-1")));
+
+        assertThat(output.toSI(new BigDecimal("36"), NumericMode.DECIMAL).compareTo(BigDecimal.TEN), is(0));
+        // 3.6 * 0.2777777777777778 is not 1 with the scale as a double
+        assertThat(output.toSI(new BigDecimal("3.6"), NumericMode.DECIMAL).compareTo(BigDecimal.ONE), is(0));
+    }
+
+    @Test
+    public void testCompose_withoutSIUnit() throws Exception {
+        UnitAlgebra.AlgebraicUnit output = target.compose(Arrays.asList(
+                new UnitBlock(null, "mol", null), new UnitBlock(null, "l", "-1")));
+
+        assertThat(output.getScale(), closeTo(1000.0, 1e-6));
+        assertThat(target.getSIName(output.getDimension()), is("mol/m^3"));
+    }
+
+    @Test
+    public void testCompose_shouldRejectUnknownAndDimensionlessUnits() throws Exception {
+        assertThat(target.compose(Arrays.asList(new UnitBlock(null, "blorp", null))), is(nullValue()));
+        assertThat(target.compose(Arrays.asList(new UnitBlock(null, "m", "x"))), is(nullValue()));
+        assertThat(target.compose(Arrays.asList(new UnitBlock(null, "m", null), new UnitBlock(null, "m", "-1"))), is(nullValue()));
+    }
+}
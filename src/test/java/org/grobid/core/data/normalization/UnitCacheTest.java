@@ -0,0 +1,54 @@
+package org.grobid.core.data.normalization;
+
+import org.grobid.core.data.UnitBlock;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class UnitCacheTest {
+
+    @Test
+    public void testGet_afterPut_shouldDependOnTheAttachment() throws Exception {
+        UnitCache target = new UnitCache(10, () -> "v1");
+        target.put("pH", true, new UnitCache.ParsedUnit(Arrays.asList(new UnitBlock("pH")), "pH", null));
+
+        assertThat(target.get("pH", true).getName(), is("pH"));
+        assertThat(target.get("pH", false), is(nullValue()));
+        assertThat(target.contains("pH", true), is(true));
+        assertThat(target.contains("pH", false), is(false));
+    }
+
+    @Test
+    public void testGet_versionChanged_shouldInvalidate() throws Exception {
+        AtomicReference<String> version = new AtomicReference<>("v1");
+        UnitCache target = new UnitCache(10, version::get);
+        target.put("mm", false, new UnitCache.ParsedUnit(Arrays.asList(new UnitBlock("m", "m", null)), "mm", null));
+
+        version.set("v2");
+
+        assertThat(target.get("mm", false), is(nullValue()));
+    }
+
+    @Test
+    public void testParsedUnit_shouldNotBeModifiedByTheCallers() throws Exception {
+        List<UnitBlock> blocks = new ArrayList<>();
+        blocks.add(new UnitBlock("m", "g", null));
+        blocks.add(new UnitBlock("k", "g", "-1"));
+        UnitCache.ParsedUnit target = new UnitCache.ParsedUnit(blocks, "mg/kg", null);
+
+        blocks.get(0).setBase("m");
+        target.getProductBlocks().get(1).setPow("2");
+        target.getProductBlocks().add(new UnitBlock("s"));
+
+        assertThat(target.getProductBlocks().size(), is(2));
+        assertThat(target.getProductBlocks().get(0).getBase(), is("g"));
+        assertThat(target.getProductBlocks().get(1).getPow(), is("-1"));
+    }
+}
@@ -0,0 +1,73 @@
+package org.grobid.core.data.normalization;
+
+import org.grobid.core.data.UnitDefinition;
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.grobid.core.utilities.UnitUtilities;
+import org.junit.Before;
+import org.junit.Test;
+
+import tec.uom.se.unit.Units;
+
+import javax.measure.format.UnitFormat;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.easymock.EasyMock.anyString;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class UnitConversionTableTest {
+
+    private UnitConversionTable target;
+
+    @Before
+    public void setUp() throws Exception {
+        UnitDefinition kilometer = new UnitDefinition();
+        kilometer.setType(UnitUtilities.Unit_Type.LENGTH);
+        kilometer.setSystem(UnitUtilities.System_Type.SI_BASE);
+
+        QuantityLexicon mockQuantityLexicon = createMock(QuantityLexicon.class);
+        expect(mockQuantityLexicon.getUnitByNotation("km")).andReturn(kilometer).anyTimes();
+        expect(mockQuantityLexicon.getUnitByNotation(anyString())).andReturn(null).anyTimes();
+        expect(mockQuantityLexicon.getUnitbyName(anyString())).andReturn(null).anyTimes();
+        replay(mockQuantityLexicon);
+
+        target = new UnitConversionTable(Arrays.asList("km", "notAUnit"), mockQuantityLexicon, 10);
+    }
+
+    @Test
+    public void testResolve_lexiconUnit() throws Exception {
+        UnitConversionTable.ResolvedUnit output = target.resolve("km", UnitUtilities.System_Type.SI_BASE);
+
+        assertThat(output.getSystemUnit().toString(), is("m"));
+        assertThat(new BigDecimal(output.getConverter().convert(new BigDecimal(2)).toString()).doubleValue(), is(2000.0));
+        assertThat(target.size(), is(2));
+    }
+
+    @Test
+    public void testResolve_unknownName_shouldReturnNull() throws Exception {
+        assertThat(target.resolve("notAUnit", null), is(nullValue()));
+        assertThat(target.resolve("anotherUnknownUnit", UnitUtilities.System_Type.NON_SI), is(nullValue()));
+        assertThat(target.resolve("anotherUnknownUnit", UnitUtilities.System_Type.NON_SI), is(nullValue()));
+    }
+
+    @Test
+    public void testParse_nullUnit_shouldTryTheNextFormat() throws Exception {
+        UnitFormat nullFormat = createMock(UnitFormat.class);
+        expect(nullFormat.parse(anyString())).andReturn(null).anyTimes();
+        UnitFormat meterFormat = createMock(UnitFormat.class);
+        expect(meterFormat.parse("m")).andReturn(Units.METRE).anyTimes();
+        replay(nullFormat, meterFormat);
+
+        UnitConversionTable.ResolvedUnit output = UnitConversionTable.parse("m", Arrays.asList(nullFormat, meterFormat));
+        assertThat(output.getSystemUnit().toString(), is("m"));
+
+        output = UnitConversionTable.parse("m", Collections.singletonList(nullFormat));
+        assertThat(UnitConversionTable.isResolved(output), is(false));
+    }
+}
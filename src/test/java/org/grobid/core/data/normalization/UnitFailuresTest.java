@@ -0,0 +1,46 @@
+package org.grobid.core.data.normalization;
+
+import org.grobid.core.metrics.Counter;
+import org.grobid.core.metrics.MetricsRegistry;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class UnitFailuresTest {
+
+    @Test
+    public void testReport_shouldReportEachUnitOnce() throws Exception {
+        UnitFailures target = new UnitFailures(10, 10, () -> "v1");
+
+        assertThat(target.hasFailed("xyz"), is(false));
+        assertThat(target.report("xyz", "xyz"), is(true));
+        assertThat(target.report("xyz", "xyz"), is(false));
+        assertThat(target.hasFailed("xyz"), is(true));
+        assertThat(target.report("abc", "abc"), is(true));
+    }
+
+    @Test
+    public void testReport_nullUnit() throws Exception {
+        UnitFailures target = new UnitFailures(10, 0, () -> "v1");
+
+        assertThat(target.report(null, null), is(false));
+        assertThat(target.hasFailed(null), is(false));
+    }
+
+    @Test
+    public void testReport_shouldNotCountCacheHitsOrMisses() throws Exception {
+        UnitFailures target = new UnitFailures(10, 0, () -> "v1");
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        Counter hits = metrics.counter("quantities_cache_hits_total", "", "cache", "unit_failures");
+        Counter misses = metrics.counter("quantities_cache_misses_total", "", "cache", "unit_failures");
+        long hitsBefore = hits.get();
+        long missesBefore = misses.get();
+
+        target.report("xyz", "xyz");
+        target.report("xyz", "xyz");
+
+        assertThat(hits.get(), is(hitsBefore));
+        assertThat(misses.get(), is(missesBefore));
+    }
+}
@@ -1,5 +1,6 @@
 package org.grobid.core.data.normalization;
 
+import org.grobid.core.data.Unit;
 import org.grobid.core.data.UnitBlock;
 import org.grobid.core.engines.UnitParser;
 import org.grobid.core.lexicon.QuantityLexicon;
@@ -11,6 +12,7 @@ import org.junit.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.easymock.EasyMock.*;
 import static org.hamcrest.CoreMatchers.is;
@@ -39,6 +41,8 @@ public class UnitNormalizerTest {
 
         mockQuantityLexicon = createMock(QuantityLexicon.class);
         target.setQuantityLexicon(mockQuantityLexicon);
+
+        target.setUnitCache(null);
     }
 
     /*@Test
@@ -182,5 +186,52 @@ public class UnitNormalizerTest {
         verify(mockQuantityLexicon);
     }
 
+    @Test
+    public void testTagUnits_shouldLabelOnlyTheUnknownUnitsInOneCall() throws Exception {
+        Unit known = new Unit();
+        known.setRawName("meters");
+        Unit unknown1 = new Unit();
+        unknown1.setRawName("km/h");
+        Unit unknown2 = new Unit();
+        unknown2.setRawName("mm2");
+        unknown2.setUnitRightAttachment(true);
+
+        expect(mockQuantityLexicon.getNameByInflection("meters")).andReturn("m");
+        expect(mockQuantityLexicon.getNameByInflection("km/h")).andReturn(null);
+        expect(mockQuantityLexicon.getNameByInflection("mm2")).andReturn(null);
+        final List<UnitBlock> blocks1 = Arrays.asList(new UnitBlock("k", "m", null), new UnitBlock(null, "h", "-1"));
+        final List<UnitBlock> blocks2 = Arrays.asList(new UnitBlock("m", "m", "2"));
+        expect(mockUnitParser.tagUnits(Arrays.asList("km/h", "mm2"), Arrays.asList(false, true)))
+                .andReturn(Arrays.asList(blocks1, blocks2));
+
+        replay(mockQuantityLexicon, mockUnitParser);
+        final Map<Unit, List<UnitBlock>> result = target.tagUnits(Arrays.asList(known, unknown1, unknown2, null));
+        verify(mockQuantityLexicon, mockUnitParser);
+
+        assertThat(result.size(), is(2));
+        assertThat(result.get(unknown1), is(blocks1));
+        assertThat(result.get(unknown2), is(blocks2));
+    }
+
+    @Test
+    public void testParseUnit_withCache_shouldParseTheUnitOnce() throws Exception {
+        target.setUnitCache(new UnitCache(10, () -> "v1"));
+
+        expect(mockQuantityLexicon.getNameByInflection("km/h")).andReturn(null).once();
+        expect(mockUnitParser.tagUnit("km/h", false))
+                .andReturn(Arrays.asList(new UnitBlock("k", "m", null), new UnitBlock(null, "h", "-1"))).once();
+        expect(mockQuantityLexicon.getNameByInflection("h")).andReturn("h").anyTimes();
+        expect(mockQuantityLexicon.getUnitByNotation(anyString())).andReturn(null).anyTimes();
+        expect(mockQuantityLexicon.getUnitbyName(anyString())).andReturn(null).anyTimes();
 
-}
\ No newline at end of file
+        replay(mockQuantityLexicon, mockUnitParser);
+        final Unit first = target.parseUnit(new Unit("km/h"));
+        first.getProductBlocks().get(0).setPrefix("M");
+        final Unit second = target.parseUnit(new Unit("km/h"));
+        verify(mockQuantityLexicon, mockUnitParser);
+
+        assertThat(second.getRawName(), is(first.getRawName()));
+        assertThat(second.getProductBlocks(), hasSize(2));
+        assertThat(second.getProductBlocks().get(0).getPrefix(), is("k"));
+    }
+}
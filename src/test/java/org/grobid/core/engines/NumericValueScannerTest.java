@@ -0,0 +1,123 @@
+package org.grobid.core.engines;
+
+import org.apache.commons.io.FileUtils;
+import org.grobid.core.data.ValueBlock;
+import org.junit.Test;
+
+import java.io.File;
+import java.text.NumberFormat;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class NumericValueScannerTest {
+
+    private static final Pattern VALUE = Pattern.compile("<value>(.*?)</value>", Pattern.DOTALL);
+    private static final Pattern TAG = Pattern.compile("<[^>]+>");
+
+    @Test
+    public void testIsPlainNumber() throws Exception {
+        assertTrue(NumericValueScanner.isPlainNumber("12"));
+        assertTrue(NumericValueScanner.isPlainNumber("3.75"));
+        assertTrue(NumericValueScanner.isPlainNumber("-4"));
+        assertTrue(NumericValueScanner.isPlainNumber("−0.167"));
+        assertTrue(NumericValueScanner.isPlainNumber("1,200"));
+        assertTrue(NumericValueScanner.isPlainNumber("135,000.5"));
+        assertTrue(NumericValueScanner.isPlainNumber("2500"));
+    }
+
+    @Test
+    public void testIsPlainNumber_otherValues() throws Exception {
+        assertFalse(NumericValueScanner.isPlainNumber(null));
+        assertFalse(NumericValueScanner.isPlainNumber(""));
+        assertFalse(NumericValueScanner.isPlainNumber("-"));
+        assertFalse(NumericValueScanner.isPlainNumber("twenty"));
+        assertFalse(NumericValueScanner.isPlainNumber("5."));
+        assertFalse(NumericValueScanner.isPlainNumber(".5"));
+        assertFalse(NumericValueScanner.isPlainNumber("1,20"));
+        assertFalse(NumericValueScanner.isPlainNumber("1,2000"));
+        assertFalse(NumericValueScanner.isPlainNumber("1234,567"));
+        assertFalse(NumericValueScanner.isPlainNumber("7.5, 300"));
+        assertFalse(NumericValueScanner.isPlainNumber("2.5e-3"));
+        assertFalse(NumericValueScanner.isPlainNumber("1.2 × 10−4"));
+        assertFalse(NumericValueScanner.isPlainNumber("10-20"));
+        assertFalse(NumericValueScanner.isPlainNumber("∼45"));
+    }
+
+    @Test
+    public void testIsPlainNumber_years() throws Exception {
+        assertFalse(NumericValueScanner.isPlainNumber("1986"));
+        assertFalse(NumericValueScanner.isPlainNumber("2014"));
+        assertTrue(NumericValueScanner.isPlainNumber("1,986"));
+        assertTrue(NumericValueScanner.isPlainNumber("-1986"));
+    }
+
+    @Test
+    public void testScan() throws Exception {
+        ValueBlock output = NumericValueScanner.scan("-3.75");
+
+        assertThat(output.getRawValue(), is("-3.75"));
+        assertThat(output.getNumberAsString(), is("-3.75"));
+        assertThat(output.getNumber().getOffsets().start, is(0));
+        assertThat(output.getNumber().getOffsets().end, is(5));
+        assertThat(output.getRawTaggedValue(), is("<number>-3.75</number>"));
+        assertThat(output.getType(), is(ValueBlock.Type.NUMBER));
+        assertThat(NumericValueScanner.scan("twenty"), is(nullValue()));
+    }
+
+    @Test
+    public void testScan_sign_shouldBeParsable() throws Exception {
+        NumberFormat format = NumberFormat.getInstance(Locale.ENGLISH);
+
+        ValueBlock output = NumericValueScanner.scan("+4");
+        assertThat(output.getRawValue(), is("+4"));
+        assertThat(output.getRawTaggedValue(), is("<number>+4</number>"));
+        assertThat(format.parse(output.getNumberAsString()).toString(), is("4"));
+
+        output = NumericValueScanner.scan("−0.167");
+        assertThat(output.getRawValue(), is("−0.167"));
+        assertThat(format.parse(output.getNumberAsString()).toString(), is("-0.167"));
+    }
+
+    /**
+     * The values recognised by the scanner must be annotated as a single number in the corpus,
+     * apart from a few annotation errors.
+     */
+    @Test
+    public void testScan_annotatedCorpus() throws Exception {
+        File corpus = new File("resources/dataset/values/corpus");
+        assumeTrue(corpus.isDirectory());
+
+        Collection<File> files = FileUtils.listFiles(corpus, new String[]{"xml"}, true);
+        int scanned = 0;
+        int agreeing = 0;
+        for (File file : files) {
+            Matcher values = VALUE.matcher(FileUtils.readFileToString(file, UTF_8));
+            while (values.find()) {
+                String annotated = values.group(1);
+                ValueBlock output = NumericValueScanner.scan(TAG.matcher(annotated).replaceAll(""));
+                if (output == null) {
+                    continue;
+                }
+                scanned++;
+                if (output.getRawTaggedValue().equals(annotated)) {
+                    agreeing++;
+                }
+            }
+        }
+
+        assertThat(scanned, greaterThan(0));
+        assertThat((double) agreeing / scanned, greaterThanOrEqualTo(0.99));
+    }
+}
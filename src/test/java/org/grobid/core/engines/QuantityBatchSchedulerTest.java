@@ -0,0 +1,141 @@
+package org.grobid.core.engines;
+
+import org.grobid.core.data.Measurement;
+import org.grobid.core.data.Quantity;
+import org.grobid.core.data.Unit;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.utilities.UnitUtilities;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.anyString;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class QuantityBatchSchedulerTest {
+
+    private QuantityParser mockQuantityParser;
+    private List<List<QuantityParser.Segment>> batches;
+
+    @Before
+    public void setUp() throws Exception {
+        batches = Collections.synchronizedList(new ArrayList<>());
+        mockQuantityParser = createNiceMock(QuantityParser.class);
+        expect(mockQuantityParser.tokenizeText(anyString()))
+                .andAnswer(() -> Collections.singletonList(new LayoutToken((String) getCurrentArguments()[0])))
+                .anyTimes();
+        expect(mockQuantityParser.prepareSegment(anyObject())).andAnswer(() -> {
+            @SuppressWarnings("unchecked")
+            List<LayoutToken> tokens = (List<LayoutToken>) getCurrentArguments()[0];
+            return new QuantityParser.Segment(tokens, tokens.get(0).getText());
+        }).anyTimes();
+        // the labeled result of each segment is its text, labeled by the worker thread
+        mockQuantityParser.labelSegments(anyObject());
+        expectLastCall().andAnswer(() -> {
+            @SuppressWarnings("unchecked")
+            List<QuantityParser.Segment> segments = (List<QuantityParser.Segment>) getCurrentArguments()[0];
+            batches.add(new ArrayList<>(segments));
+            for (QuantityParser.Segment segment : segments) {
+                segment.setLabeled(segment.getTokens().get(0).getText() + " " + Thread.currentThread().getName());
+            }
+            return null;
+        }).anyTimes();
+        // the measurement of each segment holds its labeled result and the thread which extracted it
+        expect(mockQuantityParser.extractSegments(anyObject())).andAnswer(() -> {
+            @SuppressWarnings("unchecked")
+            List<QuantityParser.Segment> segments = (List<QuantityParser.Segment>) getCurrentArguments()[0];
+            List<List<Measurement>> results = new ArrayList<>();
+            for (QuantityParser.Segment segment : segments) {
+                Measurement measurement = new Measurement(UnitUtilities.Measurement_Type.VALUE);
+                measurement.setAtomicQuantity(new Quantity(segment.getLabeled(), new Unit(Thread.currentThread().getName())));
+                results.add(Collections.singletonList(measurement));
+            }
+            return results;
+        }).anyTimes();
+        replay(mockQuantityParser);
+    }
+
+    @Test
+    public void testProcess_concurrentTexts_shouldBeLabeledTogetherAndExtractedByEachCaller() throws Exception {
+        // the window is long enough for the three texts, the batch is full with the third one
+        QuantityBatchScheduler target = new QuantityBatchScheduler(mockQuantityParser, 10000, 1000, 3, 10, 5000, 1);
+        List<String> texts = Arrays.asList("first", "second", "third");
+
+        ExecutorService callers = Executors.newFixedThreadPool(texts.size(), runnable -> new Thread(runnable, "caller"));
+        try {
+            List<Future<List<Measurement>>> results = new ArrayList<>();
+            for (String text : texts) {
+                results.add(callers.submit(() -> target.process(text)));
+            }
+
+            for (int i = 0; i < texts.size(); i++) {
+                List<Measurement> measurements = results.get(i).get(5, TimeUnit.SECONDS);
+                assertThat(measurements.size(), is(1));
+                Quantity quantity = measurements.get(0).getQuantityAtomic();
+                // labeled by the worker, extracted by the caller
+                assertThat(quantity.getRawValue(), is(texts.get(i) + " quantities-batching-0"));
+                assertThat(quantity.getRawUnit().getRawName(), is("caller"));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertThat(batches.size(), is(1));
+        assertThat(batches.get(0).size(), is(3));
+    }
+
+    @Test
+    public void testProcess_queueFull_shouldRejectTheText() throws Exception {
+        // no worker, the first text stays in the queue
+        QuantityBatchScheduler target = new QuantityBatchScheduler(mockQuantityParser, 1, 1000, 3, 1, 60000, 0);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            CompletionService<List<Measurement>> results = new ExecutorCompletionService<>(callers);
+            results.submit(() -> target.process("first"));
+            results.submit(() -> target.process("second"));
+
+            Future<List<Measurement>> rejected = results.poll(5, TimeUnit.SECONDS);
+            assertThat(rejected, is(notNullValue()));
+            try {
+                rejected.get();
+                fail("The second text should have been rejected.");
+            } catch (ExecutionException e) {
+                assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertThat(batches.size(), is(0));
+    }
+
+    @Test(expected = RejectedExecutionException.class)
+    public void testProcess_notLabeledWithinTimeout_shouldRejectTheText() throws Exception {
+        // no worker, the text is never labeled
+        QuantityBatchScheduler target = new QuantityBatchScheduler(mockQuantityParser, 1, 1000, 3, 10, 50, 0);
+
+        target.process("first");
+    }
+}
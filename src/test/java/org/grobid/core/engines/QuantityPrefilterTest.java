@@ -0,0 +1,95 @@
+package org.grobid.core.engines;
+
+import org.apache.commons.io.FileUtils;
+import org.grobid.core.analyzers.QuantityAnalyzer;
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.lexicon.QuantityLexicon;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class QuantityPrefilterTest {
+
+    private static final Pattern PARAGRAPH = Pattern.compile("<p>(.*?)</p>", Pattern.DOTALL);
+    private static final Pattern TAG = Pattern.compile("<[^>]+>");
+
+    private QuantityPrefilter target;
+
+    @Before
+    public void setUp() {
+        target = new QuantityPrefilter(QuantityLexicon.getInstance());
+    }
+
+    @Test
+    public void testMayContainQuantity_digits() throws Exception {
+        assertTrue(target.mayContainQuantity(tokenize("The sample was heated during 10min.")));
+        assertTrue(target.mayContainQuantity(tokenize("Add ½ cup of water.")));
+    }
+
+    @Test
+    public void testMayContainQuantity_numberWords() throws Exception {
+        assertTrue(target.mayContainQuantity(tokenize("We present Seven-year observations.")));
+        assertTrue(target.mayContainQuantity(tokenize("There are thousands or millions of them.")));
+    }
+
+    @Test
+    public void testMayContainQuantity_units() throws Exception {
+        assertTrue(target.mayContainQuantity(tokenize("It lasted years.")));
+    }
+
+    @Test
+    public void testMayContainQuantity_noQuantity() throws Exception {
+        assertFalse(target.mayContainQuantity(tokenize("The results are discussed in a separate section.")));
+        assertFalse(target.mayContainQuantity(null));
+    }
+
+    /**
+     * Every annotated paragraph containing a measure must pass the filter, otherwise the filter
+     * would lower the recall.
+     */
+    @Test
+    public void testMayContainQuantity_annotatedCorpus() throws Exception {
+        File dataset = new File("resources/dataset/quantities");
+        assumeTrue(dataset.isDirectory());
+
+        Collection<File> files = FileUtils.listFiles(dataset, new String[]{"xml"}, true);
+        List<String> missed = new ArrayList<>();
+        int measures = 0;
+        for (File file : files) {
+            Matcher paragraphs = PARAGRAPH.matcher(FileUtils.readFileToString(file, UTF_8));
+            while (paragraphs.find()) {
+                String paragraph = paragraphs.group(1);
+                if (!paragraph.contains("<measure")) {
+                    continue;
+                }
+                measures++;
+                String text = TAG.matcher(paragraph).replaceAll("");
+                if (!target.mayContainQuantity(tokenize(text))) {
+                    missed.add(file.getName() + ": " + text);
+                }
+            }
+        }
+
+        assertThat(measures, greaterThan(0));
+        assertThat(missed, empty());
+    }
+
+    private static List<LayoutToken> tokenize(String text) throws Exception {
+        QuantityAnalyzer analyzer = QuantityAnalyzer.getInstance();
+        return analyzer.retokenizeLayoutTokens(analyzer.tokenizeWithLayoutToken(text));
+    }
+}
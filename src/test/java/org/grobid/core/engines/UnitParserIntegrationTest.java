@@ -8,6 +8,7 @@ import org.junit.Ignore;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.is;
@@ -27,6 +28,20 @@ public class UnitParserIntegrationTest {
         target = UnitParser.getInstance();
     }
 
+    @Test
+    public void testTagUnits_sameAsOneByOne() throws Exception {
+        List<String> inputs = Arrays.asList("fm/g2", "km/h", "", "fm/g2", "km/h");
+        List<Boolean> isUnitLeft = Arrays.asList(false, false, false, false, true);
+        List<List<UnitBlock>> outputs = target.tagUnits(inputs, isUnitLeft);
+
+        assertThat(outputs.size(), is(inputs.size()));
+        for (int i = 0; i < inputs.size(); i++) {
+            List<UnitBlock> expected = target.tagUnit(inputs.get(i), isUnitLeft.get(i));
+            assertThat(String.valueOf(outputs.get(i)), is(String.valueOf(expected)));
+        }
+        assertNotSame(outputs.get(0), outputs.get(3));
+    }
+
     @Test
     public void testTagUnit1() throws Exception {
 
@@ -1,5 +1,6 @@
 package org.grobid.core.engines;
 
+import org.apache.commons.io.FileUtils;
 import org.grobid.core.data.Value;
 import org.grobid.core.data.ValueBlock;
 import org.grobid.core.main.LibraryLoader;
@@ -7,11 +8,21 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.io.File;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
 
@@ -48,6 +59,82 @@ public class ValueParserIntegrationTest {
         assertThat(output.getExp(), is("-1"));
     }
 
+    @Test
+    public void testTagValues_sameAsOneByOne() throws Exception {
+        List<String> inputs = Arrays.asList("0.3 x 10-7", "", "10 e -1", "twenty", "2.5");
+        List<ValueBlock> outputs = target.tagValues(inputs);
+
+        assertThat(outputs.size(), is(inputs.size()));
+        for (int i = 0; i < inputs.size(); i++) {
+            ValueBlock expected = target.tagValue(inputs.get(i));
+            if (expected == null) {
+                assertThat(outputs.get(i), is(nullValue()));
+            } else {
+                assertThat(outputs.get(i).getRawTaggedValue(), is(expected.getRawTaggedValue()));
+            }
+        }
+    }
+
+    @Test
+    public void testParseValue_cached_shouldReturnCopies() throws Exception {
+        Value first = target.parseValue("1.5 x 10^3");
+        first.getStructure().setNumber("2");
+        first.setNumeric(BigDecimal.ONE);
+
+        Value second = target.parseValue("1.5 x 10^3");
+
+        assertThat(second, is(not(first)));
+        assertThat(second.getStructure().getNumberAsString(), is("1.5"));
+        assertThat(second.getNumeric(), is(not(BigDecimal.ONE)));
+    }
+
+    /**
+     * The plain numbers of the corpus must get the same structure from the scanner as from the CRF.
+     */
+    @Test
+    public void testScan_sameAsTagValues() throws Exception {
+        Pattern value = Pattern.compile("<value>(.*?)</value>", Pattern.DOTALL);
+        List<String> inputs = new ArrayList<>();
+        for (File file : FileUtils.listFiles(new File("resources/dataset/values/corpus"), new String[]{"xml"}, true)) {
+            Matcher values = value.matcher(FileUtils.readFileToString(file, UTF_8));
+            while (values.find()) {
+                String input = values.group(1).replaceAll("<[^>]+>", "");
+                if (NumericValueScanner.scan(input) != null) {
+                    inputs.add(input);
+                }
+            }
+        }
+        List<ValueBlock> outputs = target.tagValues(inputs);
+
+        int agreeing = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            ValueBlock scanned = NumericValueScanner.scan(inputs.get(i));
+            if (scanned.getRawTaggedValue().equals(outputs.get(i).getRawTaggedValue())) {
+                agreeing++;
+            } else {
+                System.out.println(inputs.get(i) + " -> " + outputs.get(i).getRawTaggedValue());
+            }
+        }
+
+        assertThat(inputs.size(), is(greaterThan(0)));
+        assertThat((double) agreeing / inputs.size(), is(greaterThanOrEqualTo(0.99)));
+    }
+
+    @Test
+    public void testParseValue_plainNumber_sameAsTheCrf() throws Exception {
+        Value output = target.parseValue("-1,200.5");
+        ValueBlock labeled = target.tagValue("-1,200.5");
+
+        assertThat(output.getStructure().getRawTaggedValue(), is(labeled.getRawTaggedValue()));
+        assertThat(output.getNumeric(), is(target.parseValueBlock(labeled, Locale.ENGLISH)));
+    }
+
+    @Test
+    public void testParseValue_plainNumber_withSign() throws Exception {
+        assertThat(target.parseValue("+4").getNumeric(), is(new BigDecimal("4")));
+        assertThat(target.parseValue("−0.167").getNumeric(), is(new BigDecimal("-0.167")));
+    }
+
     @Test
     @Ignore
     public void testParseValue_esponential_1() throws Exception {
@@ -0,0 +1,160 @@
+package org.grobid.core.lexicon;
+
+import org.grobid.core.data.UnitDefinition;
+import org.grobid.core.utilities.UnitUtilities;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class LexiconSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final List<Map.Entry<String, String>> PREFIXES = Collections.singletonList(
+            new AbstractMap.SimpleImmutableEntry<>("k", "kilo"));
+
+    private static PrefixedTable<UnitDefinition> unitTable() {
+        return new PrefixedTable<>(PREFIXES, PrefixedTable.Expansion.SYMBOL, (symbol, unit) -> unit);
+    }
+
+    private static PrefixedTable<String> nameTable() {
+        return new PrefixedTable<>(PREFIXES, PrefixedTable.Expansion.BOTH, (symbol, name) -> symbol + name);
+    }
+
+    private LexiconSnapshot createSnapshot() {
+        UnitDefinition meter = new UnitDefinition();
+        meter.setType(UnitUtilities.Unit_Type.LENGTH);
+        meter.setSystem(UnitUtilities.System_Type.SI_BASE);
+        meter.addNotation("m");
+        meter.addName("meter");
+
+        LexiconSnapshot snapshot = new LexiconSnapshot();
+        snapshot.name2unit = unitTable();
+        snapshot.name2unit.put("meter", meter);
+        snapshot.notation2unit = unitTable();
+        snapshot.notation2unit.putWithPrefixes("m", meter);
+        snapshot.type2SIUnit = new HashMap<>();
+        snapshot.type2SIUnit.put(UnitUtilities.Unit_Type.LENGTH.getName(), meter);
+        snapshot.inflection2name = nameTable();
+        snapshot.inflection2name.putWithPrefixes("meters", "m");
+        snapshot.inflection = new HashMap<>();
+        snapshot.inflection.put("meter", Arrays.asList("meter", "meters"));
+        snapshot.unitTokens = new HashSet<>(Arrays.asList("m", "km", "meter"));
+        snapshot.unitTerms = new LinkedHashSet<>(Arrays.asList("m", "km", "meter", "kilometers"));
+        return snapshot;
+    }
+
+    @Test
+    public void testWriteRead() throws Exception {
+        File file = new File(folder.getRoot(), "lexicon.bin");
+        createSnapshot().write(file, "abc");
+
+        LexiconSnapshot output = LexiconSnapshot.read(file, "abc", unitTable(), unitTable(), nameTable());
+
+        assertThat(output, is(notNullValue()));
+        UnitDefinition meter = output.notation2unit.get("km");
+        assertThat(meter.getType(), is(UnitUtilities.Unit_Type.LENGTH));
+        assertThat(meter.getSystem(), is(UnitUtilities.System_Type.SI_BASE));
+        assertThat(meter.getNotations(), is(Collections.singletonList("m")));
+        assertThat(meter.getNames(), is(Collections.singletonList("meter")));
+        // the definitions are shared as in the lexicon
+        assertThat(output.name2unit.get("meter"), is(sameInstance(meter)));
+        assertThat(output.type2SIUnit.get(UnitUtilities.Unit_Type.LENGTH.getName()), is(sameInstance(meter)));
+        assertThat(output.inflection2name.get("kilometers"), is("km"));
+        assertThat(output.inflection2name.get("kmeters"), is("km"));
+        assertThat(output.inflection.get("meter"), is(Arrays.asList("meter", "meters")));
+        assertThat(output.unitTokens.contains("meter"), is(true));
+        assertThat(output.unitTerms.size(), is(4));
+    }
+
+    @Test
+    public void testRead_otherChecksum_shouldReturnNull() throws Exception {
+        File file = new File(folder.getRoot(), "lexicon.bin");
+        createSnapshot().write(file, "abc");
+
+        assertThat(LexiconSnapshot.read(file, "def", unitTable(), unitTable(), nameTable()), is(nullValue()));
+    }
+
+    @Test
+    public void testRead_invalidFile_shouldReturnNull() throws Exception {
+        File file = folder.newFile("lexicon.bin");
+        Files.write(file.toPath(), "not a lexicon".getBytes(UTF_8));
+
+        assertThat(LexiconSnapshot.read(file, "abc", unitTable(), unitTable(), nameTable()), is(nullValue()));
+        assertThat(LexiconSnapshot.read(new File(folder.getRoot(), "missing.bin"), "abc", unitTable(), unitTable(), nameTable()),
+                is(nullValue()));
+    }
+
+    @Test
+    public void testQuantityLexicon_fromSnapshot_sameAsCompiled() throws Exception {
+        File file = new File(folder.getRoot(), "lexicon.bin");
+        QuantityLexicon compiled = new QuantityLexicon(file);
+        assertThat(file.exists(), is(true));
+
+        QuantityLexicon restored = new QuantityLexicon(file);
+
+        assertThat(restored.getUnitNames(), is(compiled.getUnitNames()));
+        assertThat(restored.getNameByInflection("kilometers"), is(compiled.getNameByInflection("kilometers")));
+        assertThat(restored.getUnitByNotation("km").getType(), is(compiled.getUnitByNotation("km").getType()));
+        assertThat(restored.inUnitDictionary("meter"), is(true));
+        assertThat(restored.inUnitNames("The distance is 10 km.").size(), is(compiled.inUnitNames("The distance is 10 km.").size()));
+    }
+
+    @Test
+    public void testRead_modifiedContent_shouldReturnNull() throws Exception {
+        File file = new File(folder.getRoot(), "lexicon.bin");
+        createSnapshot().write(file, "abc");
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        // a byte of the last string, the unit terms
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(file.toPath(), bytes);
+
+        assertThat(LexiconSnapshot.read(file, "abc", unitTable(), unitTable(), nameTable()), is(nullValue()));
+    }
+
+    @Test
+    public void testRead_writableByOthers_shouldReturnNull() throws Exception {
+        File file = new File(folder.getRoot(), "lexicon.bin");
+        createSnapshot().write(file, "abc");
+        Assume.assumeTrue(file.toPath().getFileSystem().supportedFileAttributeViews().contains("posix"));
+        Files.setPosixFilePermissions(file.toPath(), PosixFilePermissions.fromString("rw-rw-rw-"));
+
+        assertThat(LexiconSnapshot.read(file, "abc", unitTable(), unitTable(), nameTable()), is(nullValue()));
+    }
+
+    @Test
+    public void testGetFile_disabledByDefault() throws Exception {
+        assertThat(LexiconSnapshot.getFile(), is(nullValue()));
+        assertThat(LexiconSnapshot.getFile("fr"), is(nullValue()));
+    }
+
+    @Test
+    public void testGetFile_language() throws Exception {
+        File file = new File(folder.getRoot(), "grobid-quantities-lexicon.bin");
+
+        assertThat(LexiconSnapshot.getFile(file, "en"), is(file));
+        assertThat(LexiconSnapshot.getFile(file, "fr").getName(), is("grobid-quantities-lexicon.fr.bin"));
+        assertThat(LexiconSnapshot.getFile(file, "fr").getParentFile(), is(file.getParentFile()));
+    }
+}
@@ -0,0 +1,79 @@
+package org.grobid.core.lexicon;
+
+import org.junit.Test;
+
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class PrefixedTableTest {
+
+    private static final List<Map.Entry<String, String>> PREFIXES = Arrays.asList(
+            new AbstractMap.SimpleImmutableEntry<>("k", "kilo"),
+            new AbstractMap.SimpleImmutableEntry<>("m", "milli"),
+            new AbstractMap.SimpleImmutableEntry<>("d", "deci"),
+            new AbstractMap.SimpleImmutableEntry<>("da", "deca"));
+
+    @Test
+    public void testGet_prefixedForm() throws Exception {
+        PrefixedTable<String> target = new PrefixedTable<>(PREFIXES, PrefixedTable.Expansion.BOTH, (symbol, name) -> symbol + name);
+        target.putWithPrefixes("meters", "m");
+
+        assertThat(target.get("meters"), is("m"));
+        assertThat(target.get("kilometers"), is("km"));
+        assertThat(target.get("kmeters"), is("km"));
+        assertThat(target.get("dameters"), is("dam"));
+        assertThat(target.get("kilo"), is(nullValue()));
+        assertThat(target.get("xmeters"), is(nullValue()));
+        assertThat(target.size(), is(1));
+    }
+
+    @Test
+    public void testGet_severalCandidates_shouldReturnTheLastPut() throws Exception {
+        PrefixedTable<String> target = new PrefixedTable<>(PREFIXES, PrefixedTable.Expansion.SYMBOL, (symbol, name) -> symbol + name);
+        // min is a unit, and milli-in
+        target.put("min", "minute");
+        target.putWithPrefixes("in", "inch");
+        assertThat(target.get("min"), is("minch"));
+
+        target.put("min", "minute");
+        assertThat(target.get("min"), is("minute"));
+
+        // dam is deca-m and deci-am
+        target.putWithPrefixes("m", "meter");
+        target.putWithPrefixes("am", "are");
+        assertThat(target.get("dam"), is("dare"));
+    }
+
+    @Test
+    public void testExpand_sameAsTheEagerMap() throws Exception {
+        PrefixedTable<String> target = new PrefixedTable<>(PREFIXES, PrefixedTable.Expansion.BOTH, (symbol, name) -> symbol + name);
+        Map<String, String> expected = new HashMap<>();
+        String[][] forms = {{"m", "meter"}, {"min", "minute"}, {"in", "inch"}, {"am", "are"}, {"m", "mile"}};
+        for (int i = 0; i < forms.length; i++) {
+            String form = forms[i][0];
+            String value = forms[i][1];
+            expected.put(form, value);
+            if (i % 2 == 0) {
+                target.putWithPrefixes(form, value);
+                for (Map.Entry<String, String> prefix : PREFIXES) {
+                    expected.put(prefix.getValue() + form, prefix.getKey() + value);
+                    expected.put(prefix.getKey() + form, prefix.getKey() + value);
+                }
+            } else {
+                target.put(form, value);
+            }
+        }
+
+        assertThat(target.expand(), is(expected));
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            assertThat(target.get(entry.getKey()), is(entry.getValue()));
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.grobid.core.lexicon;
 import org.grobid.core.data.RegexValueHolder;
 import org.grobid.core.data.Unit;
 import org.grobid.core.utilities.OffsetPosition;
+import org.grobid.core.utilities.UnitUtilities;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -13,6 +14,8 @@ import java.util.Set;
 
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.*;
 
 /**
@@ -135,6 +138,24 @@ public class QuantityLexiconTest {
         assertThat(output, is("km"));
     }
 
+    @Test
+    public void testLookupNameByInflection_symbolVariation_shouldWork() throws Exception {
+        assertThat(target.getNameByInflection("kmeters"), is("km"));
+        assertThat(target.getNameByInflection("xkilometer"), is(nullValue()));
+    }
+
+    @Test
+    public void testGetUnitByNotation_prefixedNotation_shouldWork() throws Exception {
+        assertThat(target.getUnitByNotation("km"), is(target.getUnitByNotation("m")));
+        assertThat(target.getUnitByNotation("km").getType(), is(UnitUtilities.Unit_Type.LENGTH));
+    }
+
+    @Test
+    public void testGetUnitByName_prefixedName_shouldWork() throws Exception {
+        assertThat(target.getUnitbyName("Kilometers"), is(target.getUnitbyName("meters")));
+        assertThat(target.getUnitbyName("Kilometers").getType(), is(UnitUtilities.Unit_Type.LENGTH));
+    }
+
     @Test
     public void testDerivationalMorphologyExpansion_simpleNotation() throws Exception {
         List<String> output = target.derivationalMorphologyExpansion("m", true);
@@ -206,4 +227,32 @@ public class QuantityLexiconTest {
         assertThat(out.get(0).getStart(), is(0));
         assertThat(out.get(0).getEnd(), is(4));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testResolveLanguage() throws Exception {
+        assertThat(QuantityLexicon.resolveLanguage(null), is("en"));
+        assertThat(QuantityLexicon.resolveLanguage(""), is("en"));
+        assertThat(QuantityLexicon.resolveLanguage("fr"), is("fr"));
+        assertThat(QuantityLexicon.resolveLanguage("de-DE"), is("de"));
+        assertThat(QuantityLexicon.resolveLanguage("FR_fr"), is("fr"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testResolveLanguage_unsupported_shouldThrowException() throws Exception {
+        QuantityLexicon.resolveLanguage("xx");
+    }
+
+    @Test
+    public void testGetInstance_french() throws Exception {
+        QuantityLexicon french = QuantityLexicon.getInstance("fr");
+
+        assertThat(french.getLanguage(), is("fr"));
+        assertThat(QuantityLexicon.getInstance("fr-FR"), is(sameInstance(french)));
+        assertThat(target.getLanguage(), is("en"));
+        assertThat(french.getNameByInflection("mètres"), is("m"));
+        assertThat(french.getNameByInflection("kilomètres"), is("km"));
+        assertThat(target.getNameByInflection("mètres"), is(nullValue()));
+        // the powers of the prefixes are shared by the languages
+        assertThat(french.getPrefixPower("k"), is(target.getPrefixPower("k")));
+    }
+}
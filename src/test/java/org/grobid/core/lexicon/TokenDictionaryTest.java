@@ -0,0 +1,79 @@
+package org.grobid.core.lexicon;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class TokenDictionaryTest {
+
+    @Test
+    public void testContains() throws Exception {
+        TokenDictionary target = TokenDictionary.of(Arrays.asList("m", "km", "meter", "µm", "Ω", "m"));
+
+        assertThat(target.size(), is(5));
+        assertThat(target.contains("km"), is(true));
+        assertThat(target.contains(new StringBuilder("meter")), is(true));
+        assertThat(target.contains("µm"), is(true));
+        assertThat(target.contains("Km"), is(false));
+        assertThat(target.contains("kmeter"), is(false));
+        assertThat(target.contains(""), is(false));
+        assertThat(target.contains(null), is(false));
+    }
+
+    @Test
+    public void testContainsIgnoreCase_shouldMatchTheTokensInLowerCase() throws Exception {
+        TokenDictionary target = TokenDictionary.of(Arrays.asList("meter", "Ω"));
+
+        assertThat(target.containsIgnoreCase("METER"), is(true));
+        assertThat(target.containsIgnoreCase("Meter"), is(true));
+        // as contains(s.toLowerCase()), a token with upper case characters is not matched
+        assertThat(target.containsIgnoreCase("Ω"), is(false));
+    }
+
+    @Test
+    public void testContains_empty() throws Exception {
+        TokenDictionary target = TokenDictionary.of(Collections.emptyList());
+
+        assertThat(target.size(), is(0));
+        assertThat(target.contains("m"), is(false));
+    }
+
+    @Test
+    public void testContains_sameAsHashSet() throws Exception {
+        Random random = new Random(42);
+        Set<String> tokens = new HashSet<>();
+        while (tokens.size() < 5000) {
+            tokens.add(randomToken(random));
+        }
+        TokenDictionary target = TokenDictionary.of(tokens);
+
+        for (String token : tokens) {
+            assertThat(target.contains(token), is(true));
+        }
+        List<String> queries = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            queries.add(randomToken(random));
+        }
+        for (String query : queries) {
+            assertThat(target.contains(query), is(tokens.contains(query)));
+            assertThat(target.containsIgnoreCase(query.toUpperCase()), is(tokens.contains(query)));
+        }
+    }
+
+    private static String randomToken(Random random) {
+        char[] chars = new char[1 + random.nextInt(4)];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
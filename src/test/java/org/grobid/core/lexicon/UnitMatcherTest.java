@@ -0,0 +1,75 @@
+package org.grobid.core.lexicon;
+
+import org.grobid.core.layout.LayoutToken;
+import org.grobid.core.utilities.OffsetPosition;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class UnitMatcherTest {
+
+    private UnitMatcher target;
+
+    @Before
+    public void setUp() throws Exception {
+        target = new UnitMatcher();
+        target.add(Arrays.asList("km", "/", "h"));
+        target.add(Arrays.asList("h"));
+        target.add(Arrays.asList("meter"));
+        target.build();
+    }
+
+    private static List<LayoutToken> tokens(String... texts) {
+        List<LayoutToken> tokens = new ArrayList<>();
+        for (String text : texts) {
+            tokens.add(new LayoutToken(text));
+        }
+        return tokens;
+    }
+
+    @Test
+    public void testMatch_caseInsensitive() throws Exception {
+        boolean[] output = target.match(tokens("10", " ", "Meter", "s"));
+
+        assertThat(output[0], is(false));
+        assertThat(output[2], is(true));
+        assertThat(output[3], is(false));
+    }
+
+    @Test
+    public void testMatch_spacesBetweenTokens_shouldBeSkipped() throws Exception {
+        boolean[] output = target.match(tokens("10", " ", "km", " ", "/", " ", "h"));
+
+        assertThat(output[0], is(false));
+        assertThat(output[2], is(true));
+        assertThat(output[4], is(true));
+        assertThat(output[6], is(true));
+    }
+
+    @Test
+    public void testMatch_partialTerm_shouldFallBackToTheSuffix() throws Exception {
+        boolean[] output = target.match(tokens("km", "/", "s", " ", "h"));
+
+        assertThat(output[0], is(false));
+        assertThat(output[1], is(false));
+        assertThat(output[2], is(false));
+        assertThat(output[4], is(true));
+    }
+
+    @Test
+    public void testMatchPositions() throws Exception {
+        List<OffsetPosition> output = target.matchPositions(tokens("5", " ", "km", "/", "h", " ", "and", " ", "2", " ", "h"));
+
+        assertThat(output.size(), is(2));
+        assertThat(output.get(0).start, is(2));
+        assertThat(output.get(0).end, is(4));
+        assertThat(output.get(1).start, is(10));
+        assertThat(output.get(1).end, is(10));
+    }
+}
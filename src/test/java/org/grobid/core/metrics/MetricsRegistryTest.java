@@ -0,0 +1,77 @@
+package org.grobid.core.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class MetricsRegistryTest {
+
+    private MetricsRegistry target;
+
+    @Before
+    public void setUp() throws Exception {
+        target = new MetricsRegistry();
+    }
+
+    @Test
+    public void testCounter_sameName_shouldReturnSameInstance() throws Exception {
+        Counter counter = target.counter("test_total", "help");
+        counter.inc();
+
+        assertThat(target.counter("test_total", "help"), is(sameInstance(counter)));
+        assertThat(target.counter("test_total", "help").get(), is(1L));
+    }
+
+    @Test
+    public void testWrite_counterWithLabel() throws Exception {
+        target.counter("test_total", "Some help.", "stage", "units").inc(3);
+
+        StringWriter writer = new StringWriter();
+        target.write(writer);
+
+        assertThat(writer.toString(), is("# HELP test_total Some help.\n" +
+                "# TYPE test_total counter\n" +
+                "test_total{stage=\"units\"} 3\n"));
+    }
+
+    @Test
+    public void testWrite_histogram_shouldCumulateBuckets() throws Exception {
+        Histogram histogram = target.histogram("test_size", "Some help.", new double[]{1, 10});
+        histogram.observe(1);
+        histogram.observe(5);
+        histogram.observe(50);
+
+        StringWriter writer = new StringWriter();
+        target.write(writer);
+
+        assertThat(writer.toString(), is("# HELP test_size Some help.\n" +
+                "# TYPE test_size histogram\n" +
+                "test_size_bucket{le=\"1.0\"} 1\n" +
+                "test_size_bucket{le=\"10.0\"} 2\n" +
+                "test_size_bucket{le=\"+Inf\"} 3\n" +
+                "test_size_sum 56.0\n" +
+                "test_size_count 3\n"));
+    }
+
+    @Test
+    public void testWrite_gauge_shouldReadSupplier() throws Exception {
+        target.gauge("test_queue", "Some help.", () -> 42);
+
+        StringWriter writer = new StringWriter();
+        target.write(writer);
+
+        assertThat(writer.toString(), containsString("test_queue 42\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegister_differentType_shouldThrowException() throws Exception {
+        target.counter("test_metric", "help");
+        target.histogram("test_metric", "help", Histogram.SIZE_BUCKETS);
+    }
+}
@@ -0,0 +1,65 @@
+package org.grobid.core.utilities;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class NumericModeTest {
+
+    @Test
+    public void testAdd_double_shouldRoundTo15Digits() throws Exception {
+        BigDecimal output = NumericMode.DOUBLE.add(new BigDecimal("0.1"), new BigDecimal("0.2"));
+
+        assertThat(output, is(new BigDecimal("0.3")));
+        assertThat(NumericMode.DECIMAL.add(new BigDecimal("0.1"), new BigDecimal("0.2")), is(new BigDecimal("0.3")));
+    }
+
+    @Test
+    public void testSubtract_tooPrecise_shouldUseBigDecimal() throws Exception {
+        BigDecimal first = new BigDecimal("1.00000000000000001");
+
+        assertThat(NumericMode.DOUBLE.subtract(first, BigDecimal.ONE), is(new BigDecimal("0.00000000000000001")));
+    }
+
+    @Test
+    public void testDivide_decimal_shouldRoundOnlyTheInexactQuotients() throws Exception {
+        assertThat(NumericMode.DECIMAL.divide(new BigDecimal("36000"), new BigDecimal("3600")), is(new BigDecimal("10")));
+        assertThat(NumericMode.DECIMAL.divide(BigDecimal.ONE, new BigDecimal("3")).precision(), is(34));
+        assertThat(NumericMode.DOUBLE.divide(BigDecimal.ONE, new BigDecimal("3")), is(new BigDecimal("0.333333333333333")));
+    }
+
+    @Test
+    public void testPow_powersOfTen() throws Exception {
+        assertThat(NumericMode.DOUBLE.pow(BigDecimal.TEN, -7).compareTo(new BigDecimal("1E-7")), is(0));
+        assertThat(NumericMode.DOUBLE.pow(BigDecimal.TEN, 3).compareTo(new BigDecimal("1000")), is(0));
+        assertThat(NumericMode.DECIMAL.pow(BigDecimal.TEN, -7).compareTo(new BigDecimal("1E-7")), is(0));
+        assertThat(NumericMode.DECIMAL.pow(BigDecimal.TEN, 3), is(new BigDecimal("1000")));
+    }
+
+    @Test
+    public void testExp_bothModesShouldAgree() throws Exception {
+        BigDecimal decimal = NumericMode.DECIMAL.exp(2);
+        BigDecimal output = NumericMode.DOUBLE.exp(2);
+
+        assertThat(output.subtract(decimal).abs().compareTo(new BigDecimal("1E-12")) < 0, is(true));
+    }
+
+    @Test
+    public void testFitsDouble() throws Exception {
+        assertThat(NumericMode.fitsDouble(BigDecimal.ZERO), is(true));
+        assertThat(NumericMode.fitsDouble(new BigDecimal("123456.789")), is(true));
+        assertThat(NumericMode.fitsDouble(new BigDecimal("1234567890.123456789")), is(false));
+        assertThat(NumericMode.fitsDouble(new BigDecimal("1E+400")), is(false));
+    }
+
+    @Test
+    public void testToDecimal() throws Exception {
+        assertThat(NumericMode.toDecimal(2000.0000000000002), is(new BigDecimal("2000")));
+        assertThat(NumericMode.toDecimal(Double.NaN), is(nullValue()));
+        assertThat(NumericMode.toDecimal(Double.POSITIVE_INFINITY), is(nullValue()));
+    }
+}
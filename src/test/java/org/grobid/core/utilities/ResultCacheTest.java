@@ -0,0 +1,64 @@
+package org.grobid.core.utilities;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class ResultCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testGet_afterPut_shouldReturnValue() throws Exception {
+        ResultCache<String> target = new ResultCache<>("test", 10, null, () -> "v1");
+        target.put(ResultCache.digest("some text"), "result");
+
+        assertThat(target.get(ResultCache.digest("some text")), is("result"));
+        assertThat(target.get(ResultCache.digest("other text")), is(nullValue()));
+    }
+
+    @Test
+    public void testGet_versionChanged_shouldInvalidate() throws Exception {
+        AtomicReference<String> version = new AtomicReference<>("v1");
+        ResultCache<String> target = new ResultCache<>("test", 10, null, version::get);
+        target.put(ResultCache.digest("some text"), "result");
+
+        version.set("v2");
+
+        assertThat(target.get(ResultCache.digest("some text")), is(nullValue()));
+        assertThat(target.size(), is(0L));
+    }
+
+    @Test
+    public void testDiskTier_evictedFromMemory_shouldBeReadFromDisk() throws Exception {
+        File directory = folder.newFolder();
+        // room for a single entry in memory
+        DiskResultCache target = new DiskResultCache("test", 4, directory, 10, () -> "v1");
+        target.put("a", new byte[]{1, 2, 3});
+        target.put("b", new byte[]{4, 5, 6});
+
+        assertThat(target.get("a"), is(new byte[]{1, 2, 3}));
+        assertThat(target.get("b"), is(new byte[]{4, 5, 6}));
+    }
+
+    @Test
+    public void testDiskTier_versionChanged_shouldClearDirectory() throws Exception {
+        File directory = folder.newFolder();
+        AtomicReference<String> version = new AtomicReference<>("v1");
+        DiskResultCache target = new DiskResultCache("test", 100, directory, 10, version::get);
+        target.put("a", new byte[]{1, 2, 3});
+
+        version.set("v2");
+
+        assertThat(target.get("a"), is(nullValue()));
+        assertThat(directory.list().length, is(0));
+    }
+}
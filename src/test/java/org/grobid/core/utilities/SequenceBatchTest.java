@@ -0,0 +1,59 @@
+package org.grobid.core.utilities;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+
+public class SequenceBatchTest {
+
+    @Test
+    public void testAdd_shouldSeparateSequencesWithBlankLine() throws Exception {
+        SequenceBatch target = new SequenceBatch();
+        target.add("a f1\nb f2\n");
+        target.add("c f3\n");
+
+        assertThat(target.getFeatures(), is("a f1\nb f2\n\nc f3\n\n"));
+        assertThat(target.size(), is(2));
+    }
+
+    @Test
+    public void testSplit_shouldReturnOneResultPerSequence() throws Exception {
+        SequenceBatch target = new SequenceBatch();
+        target.add("a f1\nb f2\n");
+        target.add(null);
+        target.add("c f3\n");
+
+        List<String> results = target.split("a f1 <L1>\nb f2 <L2>\n\nc f3 <L3>\n\n");
+
+        assertThat(results, hasSize(3));
+        assertThat(results.get(0), is("a f1 <L1>\nb f2 <L2>\n"));
+        assertThat(results.get(1), is(""));
+        assertThat(results.get(2), is("c f3 <L3>\n"));
+    }
+
+    @Test
+    public void testSplit_blankLinesInsideSequence_shouldBeIgnored() throws Exception {
+        SequenceBatch target = new SequenceBatch();
+        target.add("a f1\n\nb f2\n");
+        target.add("c f3\n");
+
+        List<String> results = target.split("a f1 <L1>\n\nb f2 <L2>\n\nc f3 <L3>\n");
+
+        assertThat(results.get(0), is("a f1 <L1>\nb f2 <L2>\n"));
+        assertThat(results.get(1), is("c f3 <L3>\n"));
+    }
+
+    @Test
+    public void testIsEmpty_onlyBlankSequences_shouldReturnTrue() throws Exception {
+        SequenceBatch target = new SequenceBatch();
+        target.add("");
+        target.add("  \n");
+
+        assertThat(target.isEmpty(), is(true));
+        assertThat(target.split(""), hasSize(2));
+    }
+}
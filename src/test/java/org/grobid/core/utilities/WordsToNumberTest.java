@@ -12,6 +12,7 @@ import java.util.Map;
 import java.math.BigDecimal;
 import java.util.Locale;
 
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.Matchers.startsWith;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
@@ -47,5 +48,11 @@ public class WordsToNumberTest {
         input = "point zero eight five eight zero two";
         number = wordsToNumber.normalize(input, Locale.ENGLISH);
         System.out.println(input + ": " + number.toString());
-    }    
-}
\ No newline at end of file
+    }
+
+    @Test
+    public void testGetInstance_languageWithoutNumberWords_shouldUseTheDefaultOne() throws Exception {
+        assertThat(WordsToNumber.getInstance("de"), sameInstance(wordsToNumber));
+        assertThat(WordsToNumber.getInstance("xx"), sameInstance(wordsToNumber));
+    }
+}
@@ -0,0 +1,64 @@
+package org.grobid.service;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class EndpointLimiterTest {
+
+    @Test
+    public void testAcquire_underLimit_shouldCountInFlight() throws Exception {
+        EndpointLimiter target = new EndpointLimiter("test", 2, 0, 10, 1);
+
+        EndpointLimiter.Permit first = target.acquire();
+        EndpointLimiter.Permit second = target.acquire();
+        assertThat(target.getInFlight(), is(2));
+
+        first.close();
+        // closing twice must not release twice
+        first.close();
+        second.close();
+        assertThat(target.getInFlight(), is(0));
+    }
+
+    @Test(expected = EndpointSaturatedException.class)
+    public void testAcquire_saturatedWithoutQueue_shouldFailFast() throws Exception {
+        EndpointLimiter target = new EndpointLimiter("test", 1, 0, 10000, 1);
+
+        target.acquire();
+        target.acquire();
+    }
+
+    @Test(expected = EndpointSaturatedException.class)
+    public void testAcquire_timeout_shouldThrowException() throws Exception {
+        EndpointLimiter target = new EndpointLimiter("test", 1, 1, 10, 1);
+
+        target.acquire();
+        target.acquire();
+    }
+
+    @Test
+    public void testAcquire_slotFreed_shouldAdmitWaitingRequest() throws Exception {
+        EndpointLimiter target = new EndpointLimiter("test", 1, 1, 10000, 1);
+        EndpointLimiter.Permit permit = target.acquire();
+
+        CountDownLatch admitted = new CountDownLatch(1);
+        Thread waiting = new Thread(() -> {
+            target.acquire().close();
+            admitted.countDown();
+        });
+        waiting.start();
+
+        while (target.getQueued() == 0) {
+            Thread.sleep(1);
+        }
+        permit.close();
+
+        assertThat(admitted.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(target.getQueued(), is(0));
+    }
+}
@@ -0,0 +1,52 @@
+package org.grobid.service;
+
+import org.grobid.core.data.Measurement;
+import org.grobid.core.utilities.UnitUtilities;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class QuantityProcessJsonTest {
+
+    @Test
+    public void testReadMeasureBatch_jsonArray() throws Exception {
+        List<String> ids = new ArrayList<>();
+        List<Measurement> output = QuantityProcessJson.readMeasureBatch(
+                "[{\"id\": \"m1\", \"from\": \"10\", \"unit\": \"km\"}, {\"from\": \"2\", \"to\": \"5\", \"unit\": \"km\"}]", ids);
+
+        assertThat(output.size(), is(2));
+        assertThat(ids.get(0), is("m1"));
+        assertThat(ids.get(1), is(nullValue()));
+        assertThat(output.get(0).getType(), is(UnitUtilities.Measurement_Type.VALUE));
+        assertThat(output.get(0).getQuantityAtomic().getRawValue(), is("10"));
+        assertThat(output.get(1).getType(), is(UnitUtilities.Measurement_Type.INTERVAL_MIN_MAX));
+        assertThat(output.get(1).getQuantityLeast().getRawValue(), is("2"));
+        assertThat(output.get(1).getQuantityMost().getRawValue(), is("5"));
+    }
+
+    @Test
+    public void testReadMeasureBatch_ndjson_shouldShareTheIdenticalUnits() throws Exception {
+        List<String> ids = new ArrayList<>();
+        List<Measurement> output = QuantityProcessJson.readMeasureBatch(
+                "{\"id\": \"m1\", \"from\": \"10\", \"unit\": \"km\"}\n\n{\"id\": \"m2\", \"from\": \"3\", \"unit\": \"km\"}\n{\"id\": \"m3\", \"unit\": \"km\"}", ids);
+
+        assertThat(output.size(), is(3));
+        assertThat(ids.get(2), is("m3"));
+        assertThat(output.get(0).getQuantityAtomic().getRawUnit(),
+                is(sameInstance(output.get(1).getQuantityAtomic().getRawUnit())));
+        // no value
+        assertThat(output.get(2), is(nullValue()));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadMeasureBatch_notAnObject_shouldThrowException() throws Exception {
+        QuantityProcessJson.readMeasureBatch("[\"10 km\"]", new ArrayList<>());
+    }
+}
@@ -0,0 +1,98 @@
+package org.grobid.service;
+
+import org.grobid.core.data.Measurement;
+import org.grobid.core.data.Quantity;
+import org.grobid.core.data.Unit;
+import org.grobid.core.utilities.UnitUtilities;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class QuantityResponseWriterTest {
+
+    private List<Measurement> getMeasurements() {
+        Measurement atomic = new Measurement(UnitUtilities.Measurement_Type.VALUE);
+        Quantity quantity = new Quantity("12", new Unit("°C"));
+        quantity.setOffsetStart(4);
+        quantity.setOffsetEnd(6);
+        atomic.setAtomicQuantity(quantity);
+
+        Measurement interval = new Measurement(UnitUtilities.Measurement_Type.INTERVAL_MIN_MAX);
+        interval.setQuantityLeast(new Quantity("2", new Unit("µm")));
+        interval.setQuantityMost(new Quantity("3 \"quoted\"", new Unit("µm")));
+
+        return Arrays.asList(atomic, interval);
+    }
+
+    /**
+     * The StringBuilder based serialisation used before the streaming writer
+     */
+    private String legacyMeasurementsJson(long runtime, List<Measurement> measurements) {
+        StringBuilder jsonBuilder = new StringBuilder();
+        jsonBuilder.append("{ ");
+        jsonBuilder.append("\"runtime\" : " + runtime);
+        jsonBuilder.append(", \"measurements\" : [ ");
+        boolean first = true;
+        for (Measurement measurement : measurements) {
+            if (first)
+                first = false;
+            else
+                jsonBuilder.append(", ");
+            jsonBuilder.append(measurement.toJson());
+        }
+        jsonBuilder.append("] }");
+        return jsonBuilder.toString();
+    }
+
+    @Test
+    public void testWriteMeasurements_shouldMatchLegacyOutput() throws Exception {
+        List<Measurement> measurements = getMeasurements();
+        StringWriter writer = new StringWriter();
+
+        QuantityResponseWriter.writeMeasurements(writer, 42, measurements);
+
+        assertThat(writer.toString(), is(legacyMeasurementsJson(42, measurements)));
+    }
+
+    @Test
+    public void testWriteMeasurements_empty_shouldMatchLegacyOutput() throws Exception {
+        StringWriter writer = new StringWriter();
+
+        QuantityResponseWriter.writeMeasurements(writer, 0, new ArrayList<>());
+
+        assertThat(writer.toString(), is("{ \"runtime\" : 0, \"measurements\" : [ ] }"));
+    }
+
+    @Test
+    public void testStreamingOutput_shouldWriteUtf8Bytes() throws Exception {
+        List<Measurement> measurements = getMeasurements();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        QuantityResponseWriter.measurements(7, measurements).write(output);
+
+        assertThat(output.toByteArray(), is(legacyMeasurementsJson(7, measurements).getBytes(UTF_8)));
+    }
+
+    @Test
+    public void testPdfAnnotations_fromAnnotationsWithoutRuntime_shouldMatchWritePDFAnnotations() throws Exception {
+        List<Measurement> measurements = getMeasurements();
+        StringWriter expected = new StringWriter();
+        QuantityResponseWriter.writePDFAnnotations(expected, new ArrayList<>(), measurements, 12);
+
+        StringWriter annotations = new StringWriter();
+        QuantityResponseWriter.writePDFAnnotationsWithoutRuntime(annotations, new ArrayList<>(), measurements);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        QuantityResponseWriter.pdfAnnotations(annotations.toString().getBytes(UTF_8), 12).write(output);
+
+        assertThat(annotations.toString().contains("runtime"), is(false));
+        assertThat(output.toByteArray(), is(expected.toString().getBytes(UTF_8)));
+    }
+}